@@ -0,0 +1,95 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.JacksonConfiguration;
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writing and reading appointment lists, as the list and create endpoints
+ * do, with the application's ObjectMapper: Boot's Jackson auto-configuration
+ * plus {@link JacksonConfiguration}, without the database. Run with
+ * {@code -prof gc} for the bytes allocated per list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentJsonBenchmark {
+
+    private static final int ROOMS = 100;
+    private static final int PEOPLE = 1_000;
+
+    @Param({ "100", "10000" })
+    int appointments;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private List<Appointment> list;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(JacksonAutoConfiguration.class, JacksonConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        list = new ArrayList<>(appointments);
+        for (int i = 0; i < appointments; i++) {
+            final Doctor doctor = new Doctor("First" + i % PEOPLE, "Last" + i % PEOPLE, 30 + i % 50, "person" + i % PEOPLE + "@hospital.accwe");
+            doctor.setId(1 + i % PEOPLE);
+            final Patient patient = new Patient("First" + i * 7 % PEOPLE, "Last" + i * 7 % PEOPLE, 30 + i % 50, "person" + i * 7 % PEOPLE + "@email.com");
+            patient.setId(1 + i * 7 % PEOPLE);
+            final Appointment appointment = new Appointment(patient, doctor, new Room(Benchmarks.roomName(i % ROOMS)),
+                                                            Benchmarks.startOf(i / ROOMS),
+                                                            Benchmarks.startOf(i / ROOMS).plusMinutes(Benchmarks.SLOT_MINUTES));
+            appointment.setId(i + 1);
+            list.add(appointment);
+        }
+        json = objectMapper.writeValueAsBytes(list);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public List<Appointment> read() throws IOException {
+        return objectMapper.readValue(json, new TypeReference<List<Appointment>>() { });
+    }
+}
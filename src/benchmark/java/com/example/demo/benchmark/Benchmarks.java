@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.TechhubApplication;
+
+/**
+ * Shared fixtures: an application context on in-memory H2 and bulk seeding
+ * straight through JDBC, so setup cost doesn't depend on the code under test.
+ */
+final class Benchmarks {
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 8, 0);
+    static final int SLOT_MINUTES = 30;
+    static final int GAP_MINUTES = 15;
+
+    private static final String INSERT_APPOINTMENT =
+            "insert into appointment (id, room_id, starts_at, finishes_at, duration_seconds) values (?, ?, ?, ?, ?)";
+
+    private Benchmarks() {
+    }
+
+    static ConfigurableApplicationContext start(String... args) {
+        final List<String> all = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN"));
+        all.addAll(Arrays.asList(args));
+        return new SpringApplicationBuilder(TechhubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(all.toArray(new String[0]));
+    }
+
+    static String roomName(int room) {
+        return "Room-" + room;
+    }
+
+    // Appointment n of a room starts here; every booking lasts SLOT_MINUTES followed by a GAP_MINUTES break.
+    static LocalDateTime startOf(long n) {
+        return EPOCH.plusMinutes(n * (SLOT_MINUTES + GAP_MINUTES));
+    }
+
+    /**
+     * Inserts {@code rooms} rooms and {@code appointments} back-to-back
+     * appointments spread round-robin across them.
+     */
+    static void seed(JdbcTemplate jdbc, int rooms, int appointments) {
+        final List<Object[]> roomRows = new ArrayList<>(rooms);
+        for (int room = 0; room < rooms; room++) {
+            roomRows.add(new Object[] { roomName(room) });
+        }
+        jdbc.batchUpdate("insert into room (room_name) values (?)", roomRows);
+
+        final int batchSize = 10_000;
+        final List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < appointments; i++) {
+            final LocalDateTime startsAt = startOf(i / rooms);
+            batch.add(new Object[] { (long) i + 1, roomName(i % rooms),
+                    Timestamp.valueOf(startsAt), Timestamp.valueOf(startsAt.plusMinutes(SLOT_MINUTES)), SLOT_MINUTES * 60L });
+            if (batch.size() == batchSize) {
+                jdbc.batchUpdate(INSERT_APPOINTMENT, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(INSERT_APPOINTMENT, batch);
+        }
+    }
+}
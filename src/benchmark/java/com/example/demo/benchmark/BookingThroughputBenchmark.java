@@ -0,0 +1,72 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Room;
+import com.example.demo.services.BookingService;
+
+/**
+ * Concurrent single-booking throughput through {@link BookingService}. Every
+ * booking gets a fresh slot, so all are accepted and the numbers measure the
+ * check-and-insert path. {@code stripes=1} is one global lock, the baseline
+ * for what striping buys when bookings spread across rooms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingThroughputBenchmark {
+
+    @Param({ "1", "64" })
+    int rooms;
+
+    @Param({ "1", "1024" })
+    int stripes;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private final AtomicLong next = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start("--appointments.lock-stripes=" + stripes);
+        Benchmarks.seed(context.getBean(JdbcTemplate.class), rooms, 0);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean book() {
+        final long n = next.getAndIncrement();
+        final LocalDateTime startsAt = Benchmarks.startOf(n / rooms);
+        return bookingService.book(new Appointment(null, null, new Room(Benchmarks.roomName((int) (n % rooms))),
+                                                   startsAt, startsAt.plusMinutes(Benchmarks.SLOT_MINUTES)));
+    }
+}
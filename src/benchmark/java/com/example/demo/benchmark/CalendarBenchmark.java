@@ -0,0 +1,84 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.repositories.AppointmentFilter;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSummary;
+import com.example.demo.services.CalendarDay;
+import com.example.demo.services.CalendarEntry;
+import com.example.demo.services.RoomCalendar;
+
+/**
+ * One room's day, from the calendar read model and from the listing query
+ * it replaces, with 100 rooms of {@code perRoom} bookings each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarBenchmark {
+
+    private static final int ROOMS = 100;
+
+    @Param({ "1000" })
+    int perRoom;
+
+    private ConfigurableApplicationContext context;
+    private RoomCalendar roomCalendar;
+    private AppointmentRepository appointmentRepository;
+    private String roomName;
+    private LocalDate day;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        Benchmarks.seed(context.getBean(JdbcTemplate.class), ROOMS, ROOMS * perRoom);
+        roomCalendar = context.getBean(RoomCalendar.class);
+        roomCalendar.load();
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        roomName = Benchmarks.roomName(ROOMS / 2);
+        day = Benchmarks.startOf(perRoom / 2).toLocalDate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CalendarEntry> readModelDay() {
+        return roomCalendar.day(roomName, day);
+    }
+
+    @Benchmark
+    public List<CalendarDay> readModelWeek() {
+        return roomCalendar.week(roomName, day);
+    }
+
+    @Benchmark
+    public List<AppointmentSummary> queryDay() {
+        final AppointmentFilter filter = new AppointmentFilter(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), roomName, null, null);
+        return appointmentRepository.findPage(filter, null, 0, 100);
+    }
+}
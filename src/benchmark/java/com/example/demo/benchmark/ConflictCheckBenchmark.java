@@ -0,0 +1,106 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.RoomScheduleIndex;
+
+/**
+ * Overlap check latency of {@code createAppointment} as the appointment table
+ * grows, for both engines. Both should stay flat; the old findAll() scan grew
+ * linearly. Large sizes need a big heap, e.g. {@code -jvmArgsAppend -Xmx8g}.
+ * {@code dimensions} shows what checking doctors and patients as well adds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConflictCheckBenchmark {
+
+    private static final int ROOMS = 200;
+    private static final int PEOPLE = 1_000;
+    private static final int PROBES = 1 << 12;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int appointments;
+
+    @Param({ "memory", "sql" })
+    String engine;
+
+    @Param({ "room", "room,doctor,patient" })
+    String dimensions;
+
+    private ConfigurableApplicationContext context;
+    private ConflictDetector detector;
+    private Appointment[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start("--appointments.conflict-engine=" + engine, "--appointments.conflict-dimensions=" + dimensions);
+        final JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Benchmarks.seed(jdbc, ROOMS, appointments);
+        final List<Object[]> people = new ArrayList<>(PEOPLE);
+        for (int i = 1; i <= PEOPLE; i++) {
+            people.add(new Object[] { (long) i, "First" + i, "Last" + i, 30 + i % 50, "person" + i + "@hospital.accwe" });
+        }
+        jdbc.batchUpdate("insert into doctors (id, first_name, last_name, age, email) values (?, ?, ?, ?, ?)", people);
+        jdbc.batchUpdate("insert into patient (id, first_name, last_name, age, email) values (?, ?, ?, ?, ?)", people);
+        jdbc.update("update appointment set doctor_id = mod(id, ?) + 1, patient_id = mod(id * 7, ?) + 1", PEOPLE, PEOPLE);
+
+        detector = context.getBean(ConflictDetector.class);
+        if (detector instanceof RoomScheduleIndex) {
+            ((RoomScheduleIndex) detector).load();
+        }
+
+        // Windows aligned on the 15 minute grid: about two thirds hit a booking, the rest fall in a gap.
+        final Random random = new Random(42);
+        final long perRoom = Math.max(1, appointments / ROOMS);
+        probes = new Appointment[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            final long slot = (long) (random.nextDouble() * perRoom * 3);
+            final Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+            doctor.setId(1 + random.nextInt(PEOPLE));
+            final Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+            patient.setId(1 + random.nextInt(PEOPLE));
+            probes[i] = new Appointment(patient, doctor, new Room(Benchmarks.roomName(random.nextInt(ROOMS))),
+                                        Benchmarks.EPOCH.plusMinutes(slot * Benchmarks.GAP_MINUTES),
+                                        Benchmarks.EPOCH.plusMinutes(slot * Benchmarks.GAP_MINUTES + Benchmarks.GAP_MINUTES));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean collides() {
+        return detector.collides(probes[next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.services.AvailabilityService;
+import com.example.demo.services.RoomFit;
+
+/**
+ * Latency of the any-free-room search over every room, with 40 bookings per
+ * room. The window falls in the break every room has between two bookings,
+ * so all rooms are candidates and the ranking sorts all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FreeRoomSearchBenchmark {
+
+    @Param({ "500", "2000" })
+    int rooms;
+
+    private ConfigurableApplicationContext context;
+    private AvailabilityService availabilityService;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        Benchmarks.seed(context.getBean(JdbcTemplate.class), rooms, rooms * 40);
+        availabilityService = context.getBean(AvailabilityService.class);
+        from = Benchmarks.startOf(20).plusMinutes(Benchmarks.SLOT_MINUTES);
+        to = from.plusMinutes(Benchmarks.GAP_MINUTES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RoomFit> freeRooms() {
+        return availabilityService.freeRooms(from, to, 100);
+    }
+}
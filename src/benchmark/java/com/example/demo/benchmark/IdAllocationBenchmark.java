@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.PooledSequenceGenerator;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.repositories.PatientRepository;
+
+/**
+ * Concurrent insert throughput across the three generated-id entities.
+ * {@code allocationSize=1} costs one sequence round-trip per insert, which is
+ * what every insert paid on the shared hibernate_sequence before; run the
+ * same benchmark on the previous revision for the exact old numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class IdAllocationBenchmark {
+
+    @Param({ "1", "50" })
+    int allocationSize;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentRepository appointmentRepository;
+    private DoctorRepository doctorRepository;
+    private PatientRepository patientRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start("--spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE_SETTING + "=" + allocationSize);
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        doctorRepository = context.getBean(DoctorRepository.class);
+        patientRepository = context.getBean(PatientRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object insertDoctor() {
+        return doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+    }
+
+    @Benchmark
+    public Object insertPatient() {
+        return patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+    }
+
+    @Benchmark
+    public Object insertAppointment() {
+        return appointmentRepository.save(new Appointment(null, null, null, Benchmarks.EPOCH, Benchmarks.EPOCH.plusMinutes(30)));
+    }
+}
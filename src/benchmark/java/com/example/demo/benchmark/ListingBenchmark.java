@@ -0,0 +1,104 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.repositories.AppointmentFilter;
+import com.example.demo.repositories.AppointmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Time and allocation of a 100k-row appointment listing, query plus JSON,
+ * as full entities (fetch-joined, managed) versus flat summaries. Run with
+ * {@code -prof gc} for bytes allocated per listing ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListingBenchmark {
+
+    private static final int PEOPLE = 1_000;
+
+    @Param({ "100000" })
+    int appointments;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentRepository appointmentRepository;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        final JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Benchmarks.seed(jdbc, 100, appointments);
+
+        final List<Object[]> people = new ArrayList<>(PEOPLE);
+        for (int i = 1; i <= PEOPLE; i++) {
+            people.add(new Object[] { (long) i, "First" + i, "Last" + i, 30 + i % 50, "person" + i + "@hospital.accwe" });
+        }
+        jdbc.batchUpdate("insert into doctors (id, first_name, last_name, age, email) values (?, ?, ?, ?, ?)", people);
+        jdbc.batchUpdate("insert into patient (id, first_name, last_name, age, email) values (?, ?, ?, ?, ?)", people);
+        jdbc.update("update appointment set doctor_id = mod(id, ?) + 1, patient_id = mod(id * 7, ?) + 1", PEOPLE, PEOPLE);
+
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entities(final Blackhole blackhole) throws IOException {
+        objectMapper.writeValue(new Sink(blackhole), appointmentRepository.findAll());
+    }
+
+    @Benchmark
+    public void summaries(final Blackhole blackhole) throws IOException {
+        objectMapper.writeValue(new Sink(blackhole), appointmentRepository.findPage(AppointmentFilter.none(), null, 0, appointments));
+    }
+
+    // Counts the response bytes instead of buffering them
+    private static final class Sink extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        Sink(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(final int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.services.FreeRun;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
+
+/**
+ * "Rooms with 30 free minutes that day" over every room, with 40 bookings
+ * per room, answered from the occupancy matrix once the day is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OccupancyBenchmark {
+
+    @Param({ "500", "2000" })
+    int rooms;
+
+    private ConfigurableApplicationContext context;
+    private OccupancyMatrix occupancyMatrix;
+    private LocalDate day;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Benchmarks.start();
+        Benchmarks.seed(context.getBean(JdbcTemplate.class), rooms, rooms * 40);
+        context.getBean(RoomCalendar.class).load();
+        occupancyMatrix = context.getBean(OccupancyMatrix.class);
+        occupancyMatrix.load();
+        day = Benchmarks.EPOCH.toLocalDate();
+        occupancyMatrix.freeRooms(day, 0, OccupancyMatrix.SLOTS_PER_DAY, 6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FreeRun> freeRooms() {
+        return occupancyMatrix.freeRooms(day, 0, OccupancyMatrix.SLOTS_PER_DAY, 6);
+    }
+}
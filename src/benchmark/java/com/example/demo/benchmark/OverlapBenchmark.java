@@ -0,0 +1,118 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Room;
+import com.example.demo.scheduling.RoomScheduleIndex;
+
+/**
+ * The checks {@code createAppointment} runs before booking, without the
+ * database: {@code hasInvalidDates}, a single {@code Appointment.overlaps},
+ * and the full overlap scan over every stored appointment it used to do,
+ * next to the {@link RoomScheduleIndex} seek that replaced it, as the table
+ * grows. Half the probes hit a booking, so a scan stops halfway on average
+ * at best.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverlapBenchmark {
+
+    private static final int ROOMS = 200;
+    private static final int PROBES = 1 << 12;
+
+    @Param({ "1000", "100000", "1000000" })
+    int appointments;
+
+    private final AppointmentController controller = new AppointmentController();
+    private List<Appointment> stored;
+    private RoomScheduleIndex index;
+    private Appointment[] probes;
+    private Appointment[] others;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Room[] rooms = new Room[ROOMS];
+        for (int room = 0; room < ROOMS; room++) {
+            rooms[room] = new Room(Benchmarks.roomName(room));
+        }
+        stored = new ArrayList<>(appointments);
+        index = new RoomScheduleIndex();
+        for (int i = 0; i < appointments; i++) {
+            final Appointment appointment = new Appointment(null, null, rooms[i % ROOMS], Benchmarks.startOf(i / ROOMS),
+                                                            Benchmarks.startOf(i / ROOMS).plusMinutes(Benchmarks.SLOT_MINUTES));
+            appointment.setId(i + 1);
+            stored.add(appointment);
+            index.add(appointment);
+        }
+
+        // Either inside a booking or inside the gap after it
+        final Random random = new Random(42);
+        final int perRoom = Math.max(1, appointments / ROOMS);
+        probes = new Appointment[PROBES];
+        others = new Appointment[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            final int offset = random.nextBoolean() ? 0 : Benchmarks.SLOT_MINUTES;
+            final int slot = random.nextInt(perRoom);
+            final int room = random.nextInt(ROOMS);
+            probes[i] = new Appointment(null, null, rooms[room],
+                                        Benchmarks.startOf(slot).plusMinutes(offset),
+                                        Benchmarks.startOf(slot).plusMinutes(offset + Benchmarks.GAP_MINUTES));
+            // Same room, so overlaps gets past the name check to the dates
+            others[i] = stored.get(Math.min(slot * ROOMS + room, appointments - 1));
+        }
+    }
+
+    private Appointment probe() {
+        return probes[next++ & (PROBES - 1)];
+    }
+
+    @Benchmark
+    public boolean hasInvalidDates() {
+        return controller.hasInvalidDates(probe());
+    }
+
+    @Benchmark
+    public boolean overlaps() {
+        final int i = next++ & (PROBES - 1);
+        return probes[i].overlaps(others[i]);
+    }
+
+    @Benchmark
+    public boolean scan() {
+        final Appointment probe = probe();
+        for (Appointment appointment : stored) {
+            if (appointment.overlaps(probe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean index() {
+        return index.collides(probe());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.WireDateTime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+/**
+ * Writing and reading 1,000 "HH:mm dd/MM/yyyy" date-times with the
+ * hand-rolled {@link WireDateTime} codec versus the DateTimeFormatter-based
+ * serializers it replaced. Run with {@code -prof gc} for the bytes
+ * allocated per call ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireDateTimeBenchmark {
+
+    private static final int VALUES = 1_000;
+
+    @Param({ "formatter", "wire" })
+    String codec;
+
+    private ObjectMapper objectMapper;
+    private LocalDateTime[] values;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final SimpleModule module = new SimpleModule();
+        if ("wire".equals(codec)) {
+            module.addSerializer(LocalDateTime.class, new WireDateTime.Serializer());
+            module.addDeserializer(LocalDateTime.class, new WireDateTime.Deserializer());
+        } else {
+            module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(WireDateTime.FORMATTER));
+            module.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(WireDateTime.FORMATTER));
+        }
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(module);
+
+        values = new LocalDateTime[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = Benchmarks.startOf(i);
+        }
+        json = objectMapper.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public LocalDateTime[] read() throws IOException {
+        return objectMapper.readValue(json, LocalDateTime[].class);
+    }
+}
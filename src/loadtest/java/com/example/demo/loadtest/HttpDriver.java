@@ -0,0 +1,74 @@
+package com.example.demo.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Plain HttpURLConnection calls against the application under test. Every
+ * body is drained and closed, so the JDK keeps the connection alive for the
+ * next call from the same thread.
+ */
+final class HttpDriver {
+
+    /**
+     * Status and, when asked for, parsed body of one call.
+     */
+    static final class Response {
+        final int status;
+        final JsonNode body;
+
+        Response(final int status, final JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final byte[] drain = new byte[8192];
+
+    HttpDriver(final String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    Response call(final String method, final String path, final Object body, final boolean parse) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        if (body != null) {
+            final byte[] json = body instanceof String
+                    ? ((String) body).getBytes(StandardCharsets.UTF_8)
+                    : this.objectMapper.writeValueAsBytes(body);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(json.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(json);
+            }
+        }
+
+        final int status = connection.getResponseCode();
+        final InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in == null) {
+            return new Response(status, null);
+        }
+        try (InputStream stream = in) {
+            if (parse && status < 300 && status != 204) {
+                return new Response(status, this.objectMapper.readTree(stream));
+            }
+            // Drain it, or the connection can't be reused
+            while (stream.read(this.drain) >= 0) {
+                // discard
+            }
+            return new Response(status, null);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.loadtest;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * High dynamic range histogram of latencies in microseconds, laid out the way
+ * HdrHistogram lays out its counts: exponentially growing buckets, each split
+ * into 2048 linear sub-buckets, so every value up to an hour is kept to three
+ * significant digits in a fixed ~200 KB. Recording is a few shifts and one
+ * atomic increment, safe from any number of threads.
+ *
+ * <p>{@link #outputPercentileDistribution} prints HdrHistogram's {@code .hgrm}
+ * format, so the output can go straight into its plotter or be diffed
+ * between runs.
+ */
+final class LatencyHistogram {
+
+    private static final long HIGHEST_TRACKABLE = 3_600_000_000L;
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 10;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT * 2;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int BUCKET_COUNT = bucketsNeeded(HIGHEST_TRACKABLE);
+
+    private final AtomicLongArray counts = new AtomicLongArray((BUCKET_COUNT + 1) * SUB_BUCKET_HALF_COUNT);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    private static int bucketsNeeded(final long highest) {
+        long smallestUntrackable = (long) SUB_BUCKET_COUNT;
+        int buckets = 1;
+        while (smallestUntrackable <= highest) {
+            smallestUntrackable <<= 1;
+            buckets++;
+        }
+        return buckets;
+    }
+
+    /**
+     * @param micros clamped to [0, 1 hour]
+     */
+    void record(final long micros) {
+        final long value = Math.max(0, Math.min(micros, HIGHEST_TRACKABLE));
+        this.counts.incrementAndGet(indexOf(value));
+        this.total.incrementAndGet();
+        this.sum.addAndGet(value);
+        this.max.accumulateAndGet(value, Math::max);
+    }
+
+    long totalCount() {
+        return this.total.get();
+    }
+
+    long max() {
+        return this.max.get();
+    }
+
+    double mean() {
+        final long count = this.total.get();
+        return count == 0 ? 0 : (double) this.sum.get() / count;
+    }
+
+    /**
+     * @return the value at or below which {@code percentile} percent of the
+     *         recordings fall, to the histogram's precision
+     */
+    long valueAtPercentile(final double percentile) {
+        final long count = this.total.get();
+        if (count == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long cumulative = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            cumulative += this.counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(valueFromIndex(i)), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * HdrHistogram's percentile distribution: five reporting ticks per halving
+     * of the distance to 100%, values divided by {@code scale} (1000 for ms).
+     */
+    void outputPercentileDistribution(final PrintStream out, final double scale) {
+        out.println("       Value     Percentile TotalCount 1/(1-Percentile)");
+        out.println();
+        final long count = this.total.get();
+        if (count > 0) {
+            final int ticksPerHalfDistance = 5;
+            double level = 0;
+            long cumulative = 0;
+            for (int i = 0; i < this.counts.length(); i++) {
+                final long atIndex = this.counts.get(i);
+                if (atIndex == 0) {
+                    continue;
+                }
+                cumulative += atIndex;
+                final double reached = 100.0 * cumulative / count;
+                final double value = highestEquivalentValue(valueFromIndex(i)) / scale;
+                while (level <= reached && cumulative < count) {
+                    out.println(String.format(Locale.ROOT, "%12.3f %2.12f %10d %14.2f", value, level / 100, cumulative, 1 / (1 - level / 100)));
+                    final double ticks = ticksPerHalfDistance * Math.pow(2, Math.floor(Math.log(100 / (100 - level)) / Math.log(2)) + 1);
+                    level += 100 / ticks;
+                }
+                if (cumulative == count) {
+                    out.println(String.format(Locale.ROOT, "%12.3f %2.12f %10d", value, 1.0, cumulative));
+                }
+            }
+        }
+        out.println(String.format(Locale.ROOT, "#[Mean    = %12.3f, StdDeviation   = %12.3f]", mean() / scale, standardDeviation() / scale));
+        out.println(String.format(Locale.ROOT, "#[Max     = %12.3f, Total count    = %12d]", max() / scale, count));
+        out.println(String.format(Locale.ROOT, "#[Buckets = %12d, SubBuckets     = %12d]", BUCKET_COUNT, SUB_BUCKET_COUNT));
+    }
+
+    private double standardDeviation() {
+        final long count = this.total.get();
+        if (count == 0) {
+            return 0;
+        }
+        final double mean = mean();
+        double squares = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            final long atIndex = this.counts.get(i);
+            if (atIndex != 0) {
+                final double deviation = medianEquivalentValue(valueFromIndex(i)) - mean;
+                squares += deviation * deviation * atIndex;
+            }
+        }
+        return Math.sqrt(squares / count);
+    }
+
+    private static int indexOf(final long value) {
+        final int bucket = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - (SUB_BUCKET_HALF_COUNT_MAGNITUDE + 1);
+        final int subBucket = (int) (value >>> bucket);
+        return ((bucket + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucket - SUB_BUCKET_HALF_COUNT;
+    }
+
+    private static long valueFromIndex(final int index) {
+        int bucket = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucket = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucket < 0) {
+            subBucket -= SUB_BUCKET_HALF_COUNT;
+            bucket = 0;
+        }
+        return (long) subBucket << bucket;
+    }
+
+    // Width of the sub-bucket the value falls in
+    private static long equivalentRange(final long value) {
+        final int bucket = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - (SUB_BUCKET_HALF_COUNT_MAGNITUDE + 1);
+        return 1L << bucket;
+    }
+
+    private static long highestEquivalentValue(final long value) {
+        return value + equivalentRange(value) - 1;
+    }
+
+    private static long medianEquivalentValue(final long value) {
+        return value + (equivalentRange(value) >> 1);
+    }
+}
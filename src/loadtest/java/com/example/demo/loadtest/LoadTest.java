@@ -0,0 +1,305 @@
+package com.example.demo.loadtest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.TechhubApplication;
+import com.example.demo.loadtest.Workload.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Open-loop HTTP load test. Boots {@link TechhubApplication} on a random
+ * port with the production configuration, but on in-memory H2 in MySQL
+ * mode; seeds a dataset through the API; then fires a fixed mix of book,
+ * list, lookup and delete calls at a fixed rate across all four controllers.
+ * Everything runs in this JVM, with no network or external services.
+ *
+ * <p>Calls go out on schedule whether or not earlier ones have returned.
+ * Latency is measured from when a call was due, not from when a worker got
+ * to it, so a stall shows up in the percentiles instead of quietly lowering
+ * the rate (no coordinated omission). Calls due during the warmup are not
+ * recorded.
+ *
+ * <p>Options, {@code name=value} with or without a leading {@code --};
+ * anything else goes to Spring, e.g.
+ * {@code --appointments.conflict-engine=sql}:
+ * <pre>
+ *   rate=20              calls per second
+ *   duration=PT30S       measured window
+ *   warmup=PT10S         unrecorded lead-in
+ *   threads=64           concurrent calls at most
+ *   mix=book:20,list:20,lookup:50,delete:10
+ *   rooms=50 doctors=200 patients=500 appointments=5000
+ *   seed=42              fixes the dataset and the request sequence
+ *   out=target/loadtest  one .hgrm per operation, plus summary.json
+ *   max-p99=             fail (exit 1) if any operation's p99 exceeds this many ms
+ *   max-error-rate=0.01  fail if more than this fraction of calls got an unexpected status
+ * </pre>
+ * Run: {@code ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="rate=500 duration=PT1M"}
+ */
+public final class LoadTest {
+
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final List<String> springArgs = new ArrayList<>();
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final ConcurrentMap<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private LoadTest(final String[] args) {
+        this.options.put("rate", "20");
+        this.options.put("duration", "PT30S");
+        this.options.put("warmup", "PT10S");
+        this.options.put("threads", "64");
+        this.options.put("mix", "book:20,list:20,lookup:50,delete:10");
+        this.options.put("rooms", "50");
+        this.options.put("doctors", "200");
+        this.options.put("patients", "500");
+        this.options.put("appointments", "5000");
+        this.options.put("seed", "42");
+        this.options.put("out", "target/loadtest");
+        this.options.put("max-p99", "");
+        this.options.put("max-error-rate", "0.01");
+        for (String arg : args) {
+            final String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            final int equals = option.indexOf('=');
+            final String name = equals > 0 ? option.substring(0, equals) : option;
+            if (this.options.containsKey(name)) {
+                this.options.put(name, option.substring(equals + 1));
+            } else {
+                this.springArgs.add(arg);
+            }
+        }
+        for (Operation operation : Operation.values()) {
+            this.histograms.put(operation, new LatencyHistogram());
+            this.errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        System.exit(new LoadTest(args).run());
+    }
+
+    private int run() throws Exception {
+        final ConfigurableApplicationContext context = start();
+        try {
+            final HttpDriver setup = new HttpDriver(baseUrl(context));
+            final Workload workload = new Workload();
+            final double rate = Double.parseDouble(this.options.get("rate"));
+            final Duration warmup = Duration.parse(this.options.get("warmup"));
+            final Duration duration = Duration.parse(this.options.get("duration"));
+            final Map<Operation, Integer> mix = mix(this.options.get("mix"));
+
+            // Deletes spread over four kinds of record; half as many again so none runs dry by chance
+            final int weights = mix.values().stream().mapToInt(Integer::intValue).sum();
+            final long calls = (long) (rate * (warmup.getSeconds() + duration.getSeconds()));
+            final int spares = (int) (calls * mix.getOrDefault(Operation.DELETE, 0) / weights / 4 * 3 / 2) + 10;
+
+            final long seeding = System.nanoTime();
+            workload.seed(setup, intOption("rooms"), Math.max(intOption("doctors"), intOption("rooms")),
+                          Math.max(intOption("patients"), intOption("rooms")), intOption("appointments"), spares,
+                          Long.parseLong(this.options.get("seed")));
+            System.out.printf(Locale.ROOT, "Seeded in %.1f s%n", (System.nanoTime() - seeding) / 1e9);
+
+            final double elapsed = drive(context, workload, rate, warmup, duration, mix);
+            return report(elapsed);
+        } finally {
+            context.close();
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        final List<String> args = new ArrayList<>();
+        // The real configuration, not the test one that shadows it on this classpath
+        args.add("--spring.config.location=optional:file:src/main/resources/application.properties");
+        args.add("--server.port=0");
+        args.add("--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        args.add("--spring.datasource.username=sa");
+        args.add("--spring.datasource.password=");
+        args.add("--spring.datasource.hikari.connection-init-sql=SELECT 1");
+        args.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        args.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+        args.add("--spring.datasource.hikari.maximum-pool-size=" + Math.max(10, intOption("threads") / 2));
+        args.add("--server.tomcat.threads.max=" + Math.max(200, intOption("threads")));
+        args.add("--logging.level.root=WARN");
+        args.addAll(this.springArgs);
+        return new SpringApplicationBuilder(TechhubApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args.toArray(new String[0]));
+    }
+
+    private static String baseUrl(final ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    /**
+     * @return seconds the measured window actually took, until its last call returned
+     */
+    private double drive(final ConfigurableApplicationContext context, final Workload workload, final double rate,
+                         final Duration warmup, final Duration duration, final Map<Operation, Integer> mix)
+            throws InterruptedException {
+        final String baseUrl = baseUrl(context);
+        final ThreadLocal<HttpDriver> drivers = ThreadLocal.withInitial(() -> new HttpDriver(baseUrl));
+        final ExecutorService workers = Executors.newFixedThreadPool(intOption("threads"));
+        final Operation[] wheel = wheel(mix);
+        final Random random = new Random(Long.parseLong(this.options.get("seed")));
+
+        final long interval = (long) (1e9 / rate);
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        final long measuredFrom = start + warmup.toNanos();
+        final long end = measuredFrom + duration.toNanos();
+        for (long i = 0; ; i++) {
+            final long due = start + i * interval;
+            if (due >= end) {
+                break;
+            }
+            final Operation operation = wheel[random.nextInt(wheel.length)];
+            final long key = random.nextLong();
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(() -> {
+                int status;
+                try {
+                    status = workload.execute(drivers.get(), operation, key);
+                } catch (IOException e) {
+                    status = -1;
+                }
+                if (due >= measuredFrom) {
+                    this.histograms.get(operation).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+                    this.statuses.computeIfAbsent(operation + " " + status, k -> new LongAdder()).increment();
+                    if (!operation.isExpected(status)) {
+                        this.errors.get(operation).increment();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.MINUTES);
+        return Math.max(duration.toNanos(), System.nanoTime() - measuredFrom) / 1e9;
+    }
+
+    private int report(final double elapsed) throws IOException {
+        final File out = new File(this.options.get("out"));
+        out.mkdirs();
+        final Map<String, Object> summary = new LinkedHashMap<>();
+        final Map<String, Object> operations = new LinkedHashMap<>();
+        long calls = 0;
+        long failed = 0;
+        boolean slow = false;
+        final String maxP99 = this.options.get("max-p99");
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-8s %9s %7s %10s %10s %10s %10s %10s %10s%n",
+                          "", "calls", "errors", "calls/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            final LatencyHistogram histogram = this.histograms.get(operation);
+            final long count = histogram.totalCount();
+            if (count == 0) {
+                continue;
+            }
+            final long errorCount = this.errors.get(operation).sum();
+            calls += count;
+            failed += errorCount;
+            print(operation.name().toLowerCase(Locale.ROOT), histogram, count, errorCount, elapsed);
+            operations.put(operation.name().toLowerCase(Locale.ROOT), stats(histogram, count, errorCount, elapsed));
+            try (PrintStream hgrm = new PrintStream(new FileOutputStream(new File(out, operation.name().toLowerCase(Locale.ROOT) + ".hgrm")), false, "UTF-8")) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+            slow |= !maxP99.isEmpty() && histogram.valueAtPercentile(99) / 1000.0 > Double.parseDouble(maxP99);
+        }
+
+        final Map<String, Long> byStatus = new TreeMap<>();
+        this.statuses.forEach((key, count) -> byStatus.put(key, count.sum()));
+        System.out.printf(Locale.ROOT, "%n%d calls in %.1f s: %.1f calls/s, %d errors%n", calls, elapsed, calls / elapsed, failed);
+        System.out.println("Statuses: " + byStatus);
+
+        summary.put("options", this.options);
+        summary.put("elapsedSeconds", elapsed);
+        summary.put("calls", calls);
+        summary.put("errors", failed);
+        summary.put("throughput", calls / elapsed);
+        summary.put("operations", operations);
+        summary.put("statuses", byStatus);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(out, "summary.json"), summary);
+        System.out.println("Histograms and summary.json in " + out.getPath());
+
+        final double errorRate = calls == 0 ? 0 : (double) failed / calls;
+        final boolean failing = slow || errorRate > Double.parseDouble(this.options.get("max-error-rate"));
+        if (failing) {
+            System.out.printf(Locale.ROOT, "FAILED: %s%n", slow ? "p99 over " + maxP99 + " ms" : "error rate " + errorRate);
+        }
+        return failing ? 1 : 0;
+    }
+
+    private static void print(final String name, final LatencyHistogram histogram, final long count, final long errors,
+                              final double elapsed) {
+        System.out.printf(Locale.ROOT, "%-8s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                          name, count, errors, count / elapsed,
+                          histogram.valueAtPercentile(50) / 1000.0, histogram.valueAtPercentile(90) / 1000.0,
+                          histogram.valueAtPercentile(99) / 1000.0, histogram.valueAtPercentile(99.9) / 1000.0,
+                          histogram.max() / 1000.0);
+    }
+
+    private static Map<String, Object> stats(final LatencyHistogram histogram, final long count, final long errors,
+                                             final double elapsed) {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", count);
+        stats.put("errors", errors);
+        stats.put("throughput", count / elapsed);
+        stats.put("meanMs", histogram.mean() / 1000.0);
+        stats.put("p50Ms", histogram.valueAtPercentile(50) / 1000.0);
+        stats.put("p90Ms", histogram.valueAtPercentile(90) / 1000.0);
+        stats.put("p99Ms", histogram.valueAtPercentile(99) / 1000.0);
+        stats.put("p999Ms", histogram.valueAtPercentile(99.9) / 1000.0);
+        stats.put("maxMs", histogram.max() / 1000.0);
+        return stats;
+    }
+
+    private static Map<Operation, Integer> mix(final String mix) {
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            final String[] parts = entry.trim().split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    // Each operation repeated by its weight; a uniform pick from it follows the mix
+    private static Operation[] wheel(final Map<Operation, Integer> mix) {
+        final List<Operation> wheel = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        return wheel.toArray(new Operation[0]);
+    }
+
+    private int intOption(final String name) {
+        return Integer.parseInt(this.options.get(name));
+    }
+}
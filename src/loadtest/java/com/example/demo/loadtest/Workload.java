@@ -0,0 +1,244 @@
+package com.example.demo.loadtest;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.example.demo.WireDateTime;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The dataset the load runs against, seeded through the API itself, and the
+ * four kinds of call it is driven with. Each call picks one of the four
+ * controllers from its {@code key}, so the mix covers appointments,
+ * doctors, patients and rooms alike.
+ *
+ * <p>Deleting an appointment cascades to its doctor, patient and room, and
+ * a doctor, patient or room with appointments can't be deleted, so deletes
+ * only take records set aside for them at seeding time: spare doctors,
+ * patients and rooms, and spare appointments with a doctor, patient and room
+ * of their own. Once those run out, deletes hit ids that don't exist (404).
+ */
+final class Workload {
+
+    enum Operation {
+        BOOK(200, 406),
+        LIST(200, 204),
+        LOOKUP(200),
+        DELETE(200, 404);
+
+        private final int[] expected;
+
+        Operation(final int... expected) {
+            this.expected = expected;
+        }
+
+        boolean isExpected(final int status) {
+            for (int each : this.expected) {
+                if (each == status) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(2030, 1, 7, 8, 0);
+    static final int SLOT_MINUTES = 30;
+    static final int GAP_MINUTES = 15;
+    private static final int BATCH = 1_000;
+    private static final int PAGE = 50;
+
+    private final List<String> rooms = new ArrayList<>();
+    private final List<Long> doctors = new ArrayList<>();
+    private final List<Long> patients = new ArrayList<>();
+    private final List<Long> appointments = new ArrayList<>();
+    private final Queue<Long> spareAppointments = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> spareDoctors = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> sparePatients = new ConcurrentLinkedQueue<>();
+    private final Queue<String> spareRooms = new ConcurrentLinkedQueue<>();
+    private int slotsPerRoom;
+
+    /**
+     * Rooms, then doctors and patients, then appointments back to back in
+     * every room ({@value #SLOT_MINUTES} minutes, {@value #GAP_MINUTES}
+     * minute gap), booked in batches. At any slot each room has its own
+     * doctor and patient, so nothing seeded clashes.
+     *
+     * @param spares records set aside per kind for deletes
+     */
+    void seed(final HttpDriver http, final int roomCount, final int doctorCount, final int patientCount,
+              final int appointmentCount, final int spares, final long seed) throws IOException {
+        final Random random = new Random(seed);
+        for (int i = 0; i < roomCount; i++) {
+            this.rooms.add(createRoom(http, "Room-" + i));
+        }
+        for (int i = 0; i < doctorCount; i++) {
+            this.doctors.add(createPerson(http, "/api/doctor", "Doctor", i, random));
+        }
+        for (int i = 0; i < patientCount; i++) {
+            this.patients.add(createPerson(http, "/api/patient", "Patient", i, random));
+        }
+
+        this.slotsPerRoom = Math.max(1, appointmentCount / roomCount);
+        final List<Object> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < appointmentCount; i++) {
+            final int room = i % roomCount;
+            final int slot = i / roomCount;
+            // Distinct per room within a slot, as long as there are at least as many people as rooms
+            batch.add(appointment(this.patients.get((room + slot * 7) % patientCount),
+                                  this.doctors.get((room + slot * 3) % doctorCount),
+                                  this.rooms.get(room), startOf(slot), startOf(slot).plusMinutes(SLOT_MINUTES)));
+            if (batch.size() == BATCH || i == appointmentCount - 1) {
+                this.appointments.addAll(book(http, batch));
+                batch.clear();
+            }
+        }
+
+        for (int i = 0; i < spares; i++) {
+            this.spareDoctors.add(createPerson(http, "/api/doctor", "Spare-doctor", i, random));
+            this.sparePatients.add(createPerson(http, "/api/patient", "Spare-patient", i, random));
+            this.spareRooms.add(createRoom(http, "Spare-room-" + i));
+            final LocalDateTime startsAt = startOf(this.slotsPerRoom * 4L);
+            batch.add(appointment(createPerson(http, "/api/patient", "Spare-patient-a", i, random),
+                                  createPerson(http, "/api/doctor", "Spare-doctor-a", i, random),
+                                  createRoom(http, "Spare-appointment-room-" + i), startsAt, startsAt.plusMinutes(SLOT_MINUTES)));
+        }
+        if (!batch.isEmpty()) {
+            this.spareAppointments.addAll(book(http, batch));
+        }
+    }
+
+    /**
+     * One call; everything it needs comes from {@code key}, so the
+     * dispatcher fixes the whole request sequence from its seed.
+     *
+     * @return the response status
+     */
+    int execute(final HttpDriver http, final Operation operation, final long key) throws IOException {
+        final int controller = (int) Math.floorMod(key, 4L);
+        final long pick = Math.abs(key >> 2);
+        switch (operation) {
+            case BOOK:
+                return book(http, pick);
+            case LIST:
+                return http.call("GET", listPath(controller, pick), null, false).status;
+            case LOOKUP:
+                return http.call("GET", lookupPath(controller, pick), null, false).status;
+            default:
+                return http.call("DELETE", deletePath(controller), null, false).status;
+        }
+    }
+
+    // Half land on a seeded booking, half in the gap after one; the doctor or patient may still clash
+    private int book(final HttpDriver http, final long pick) throws IOException {
+        final long slot = pick % (this.slotsPerRoom * 2L);
+        final int offset = (pick / 7) % 2 == 0 ? 0 : SLOT_MINUTES;
+        final LocalDateTime startsAt = startOf(slot).plusMinutes(offset);
+        final Object appointment = appointment(this.patients.get((int) (pick % this.patients.size())),
+                                               this.doctors.get((int) (pick / 3 % this.doctors.size())),
+                                               this.rooms.get((int) (pick / 11 % this.rooms.size())),
+                                               startsAt, startsAt.plusMinutes(GAP_MINUTES));
+        return http.call("POST", "/api/appointment", appointment, false).status;
+    }
+
+    private String listPath(final int controller, final long pick) {
+        switch (controller) {
+            case 0:
+                return "/api/appointments?limit=" + PAGE + "&room=" + this.rooms.get((int) (pick % this.rooms.size()));
+            case 1:
+                return "/api/doctors?limit=" + PAGE;
+            case 2:
+                return "/api/patients?limit=" + PAGE;
+            default:
+                return "/api/rooms?limit=" + PAGE;
+        }
+    }
+
+    private String lookupPath(final int controller, final long pick) {
+        switch (controller) {
+            case 0:
+                return "/api/appointments/" + this.appointments.get((int) (pick % this.appointments.size()));
+            case 1:
+                return "/api/doctors/" + this.doctors.get((int) (pick % this.doctors.size()));
+            case 2:
+                return "/api/patients/" + this.patients.get((int) (pick % this.patients.size()));
+            default:
+                return "/api/rooms/" + this.rooms.get((int) (pick % this.rooms.size()));
+        }
+    }
+
+    private String deletePath(final int controller) {
+        switch (controller) {
+            case 0:
+                return "/api/appointments/" + orElse(this.spareAppointments.poll(), 0L);
+            case 1:
+                return "/api/doctors/" + orElse(this.spareDoctors.poll(), 0L);
+            case 2:
+                return "/api/patients/" + orElse(this.sparePatients.poll(), 0L);
+            default:
+                return "/api/rooms/" + orElse(this.spareRooms.poll(), "None");
+        }
+    }
+
+    private static <T> T orElse(final T value, final T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    static LocalDateTime startOf(final long slot) {
+        return EPOCH.plusMinutes(slot * (SLOT_MINUTES + GAP_MINUTES));
+    }
+
+    private static Object appointment(final long patientId, final long doctorId, final String roomName,
+                                      final LocalDateTime startsAt, final LocalDateTime finishesAt) {
+        final Map<String, Object> appointment = new LinkedHashMap<>();
+        appointment.put("patient", Collections.singletonMap("id", patientId));
+        appointment.put("doctor", Collections.singletonMap("id", doctorId));
+        appointment.put("room", Collections.singletonMap("roomName", roomName));
+        appointment.put("startsAt", WireDateTime.FORMATTER.format(startsAt));
+        appointment.put("finishesAt", WireDateTime.FORMATTER.format(finishesAt));
+        return appointment;
+    }
+
+    private static String createRoom(final HttpDriver http, final String roomName) throws IOException {
+        expect(http.call("POST", "/api/room", Collections.singletonMap("roomName", roomName), false), 201, "room " + roomName);
+        return roomName;
+    }
+
+    private static long createPerson(final HttpDriver http, final String path, final String firstName, final int i,
+                                     final Random random) throws IOException {
+        final Map<String, Object> person = new LinkedHashMap<>();
+        person.put("firstName", firstName);
+        person.put("lastName", "No" + i);
+        person.put("age", 18 + random.nextInt(70));
+        person.put("email", firstName.toLowerCase() + "." + i + "@hospital.accwe");
+        return expect(http.call("POST", path, person, true), 201, path).body.get("id").asLong();
+    }
+
+    // Ids of the accepted items, in order
+    private static List<Long> book(final HttpDriver http, final List<Object> batch) throws IOException {
+        final JsonNode results = expect(http.call("POST", "/api/appointments/batch", batch, true), 200, "batch").body;
+        final List<Long> ids = new ArrayList<>(batch.size());
+        for (JsonNode result : results) {
+            if (!"ACCEPTED".equals(result.get("status").asText())) {
+                throw new IllegalStateException("Seed appointment " + result + " was not accepted");
+            }
+            ids.add(result.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static HttpDriver.Response expect(final HttpDriver.Response response, final int status, final String what) {
+        if (response.status != status) {
+            throw new IllegalStateException("Seeding " + what + " returned " + response.status + ", expected " + status);
+        }
+        return response;
+    }
+}
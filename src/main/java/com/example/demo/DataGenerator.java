@@ -0,0 +1,267 @@
+package com.example.demo;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.DataVersion;
+import com.example.demo.scheduling.RoomScheduleIndex;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
+
+/**
+ * Bulk-loads a synthetic hospital straight through batched JDBC: rooms,
+ * doctors, patients, and appointments filling each room's weekdays from
+ * 08:00 to 20:00. Runs at startup under the {@code generate} profile:
+ * <pre>
+ *   java -jar techhub.jar --spring.profiles.active=generate --spring.main.web-application-type=none \
+ *        --generator.appointments=10000000
+ * </pre>
+ * (without {@code web-application-type=none} the application keeps serving
+ * the data once it is loaded).
+ *
+ * <p>The same {@code generator.seed} gives the same rows however many
+ * threads load them. Each room has doctors and patients of its own and its
+ * bookings follow one another, so nothing generated overlaps in any
+ * {@code appointments.conflict-dimensions}. Generated rows are added to what
+ * is there: ids continue after the existing ones and the id sequences are
+ * moved past them afterwards, but room names must not be taken already.
+ */
+@Component
+@Profile("generate")
+public class DataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+
+    private static final String[] DEPARTMENTS = {
+        "Cardiology", "Dermatology", "Oncology", "Pediatrics", "Radiology",
+        "Neurology", "Orthopedics", "Gynecology", "Urology", "Ophthalmology"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Lucia", "Hugo", "Martina", "Mateo", "Sofia", "Leo", "Paula", "Daniel", "Julia", "Pablo",
+        "Valeria", "Alejandro", "Emma", "Manuel", "Carla", "Alvaro", "Sara", "Adrian", "Alba", "Mario"
+    };
+    private static final String[] LAST_NAMES = {
+        "Garcia", "Rodriguez", "Gonzalez", "Fernandez", "Lopez", "Martinez", "Sanchez", "Perez", "Gomez", "Martin",
+        "Jimenez", "Ruiz", "Hernandez", "Diaz", "Moreno", "Munoz", "Alvarez", "Romero", "Alonso", "Olaya"
+    };
+    // Minutes; repeats weight the draw
+    private static final int[] DURATIONS = { 15, 20, 30, 30, 30, 45, 60 };
+    private static final int[] GAPS = { 0, 0, 0, 5, 10, 15, 30 };
+    private static final int OPENS = 8;
+    private static final int CLOSES = 20;
+
+    private static final String INSERT_ROOM = "insert into room (room_name, capacity) values (?, ?)";
+    private static final String INSERT_APPOINTMENT =
+            "insert into appointment (id, patient_id, doctor_id, room_id, starts_at, finishes_at, duration_seconds)"
+            + " values (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private IdSequences idSequences;
+
+    @Autowired
+    private ObjectProvider<RoomScheduleIndex> roomScheduleIndex;
+
+    @Autowired
+    private RoomCalendar roomCalendar;
+
+    @Autowired
+    private OccupancyMatrix occupancyMatrix;
+
+    @Value("${generator.seed:42}")
+    private long seed = 42;
+
+    @Value("${generator.rooms:200}")
+    private int rooms = 200;
+
+    @Value("${generator.doctors:2000}")
+    private int doctors = 2000;
+
+    @Value("${generator.patients:200000}")
+    private int patients = 200_000;
+
+    @Value("${generator.appointments:1000000}")
+    private long appointments = 1_000_000;
+
+    @Value("${generator.start:2024-01-01}")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate start = LocalDate.of(2024, 1, 1);
+
+    @Value("${generator.batch-size:5000}")
+    private int batchSize = 5000;
+
+    @Value("${generator.threads:4}")
+    private int threads = 4;
+
+    @Override
+    public void run(final ApplicationArguments args) throws Exception {
+        generate();
+    }
+
+    /**
+     * Loads one dataset, then brings the id sequences, the in-memory
+     * schedules and the data versions up to date with it.
+     */
+    public void generate() throws InterruptedException, ExecutionException {
+        if (this.rooms < 1 || this.doctors < this.rooms || this.patients < this.rooms) {
+            throw new IllegalArgumentException("generator.doctors and generator.patients must be at least generator.rooms ("
+                                               + this.rooms + "), which must be positive");
+        }
+        final long began = System.nanoTime();
+        final long doctorBase = this.idSequences.firstFreeId("doctors", "doctor_seq");
+        final long patientBase = this.idSequences.firstFreeId("patient", "patient_seq");
+        final long appointmentBase = this.idSequences.firstFreeId("appointment", "appointment_seq");
+
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, this.threads));
+        try {
+            final List<Object[]> roomRows = new ArrayList<>(this.rooms);
+            for (int room = 0; room < this.rooms; room++) {
+                roomRows.add(new Object[] { roomName(room), 1 });
+            }
+            this.jdbcTemplate.batchUpdate(INSERT_ROOM, roomRows);
+
+            final List<Future<?>> loads = new ArrayList<>();
+            loads.addAll(people(pool, "doctors", doctorBase, this.doctors, "hospital.accwe", 26, 45));
+            loads.addAll(people(pool, "patient", patientBase, this.patients, "email.com", 0, 96));
+            await(loads);
+            for (int room = 0; room < this.rooms; room++) {
+                final int r = room;
+                loads.add(pool.submit(() -> appointments(r, appointmentBase, doctorBase, patientBase)));
+            }
+            await(loads);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        this.idSequences.restart("doctor_seq", doctorBase + this.doctors);
+        this.idSequences.restart("patient_seq", patientBase + this.patients);
+        this.idSequences.restart("appointment_seq", appointmentBase + this.appointments);
+        final double loaded = (System.nanoTime() - began) / 1e9;
+
+        this.entityManagerFactory.getCache().evictAll();
+        this.roomScheduleIndex.ifAvailable(RoomScheduleIndex::load);
+        this.roomCalendar.load();
+        this.occupancyMatrix.load();
+        // Last, so nothing cached under the new version predates the reloads above
+        DataVersion.changedEverything();
+        log.info(String.format(Locale.ROOT, "Generated %d rooms, %d doctors, %d patients and %d appointments in %.1f s "
+                                            + "(%.0f appointments/s), indexed in %.1f s",
+                               this.rooms, this.doctors, this.patients, this.appointments, loaded,
+                               this.appointments / loaded, (System.nanoTime() - began) / 1e9 - loaded));
+    }
+
+    // Chunks of batch-size rows, each drawn from its own seed so threads don't change the result
+    private List<Future<?>> people(final ExecutorService pool, final String table, final long base, final int count,
+                                   final String domain, final int minAge, final int ageRange) {
+        final String insert = "insert into " + table + " (id, first_name, last_name, age, email) values (?, ?, ?, ?, ?)";
+        final List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += this.batchSize) {
+            final int first = from;
+            final int last = Math.min(count, from + this.batchSize);
+            chunks.add(pool.submit(() -> {
+                final Random random = random(table.hashCode(), first);
+                final List<Object[]> rows = new ArrayList<>(last - first);
+                for (int i = first; i < last; i++) {
+                    final String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                    final String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                    rows.add(new Object[] { base + i, firstName, lastName, minAge + random.nextInt(ageRange),
+                            (firstName.charAt(0) + "." + lastName + "." + i + "@" + domain).toLowerCase(Locale.ROOT) });
+                }
+                this.jdbcTemplate.batchUpdate(insert, rows);
+            }));
+        }
+        return chunks;
+    }
+
+    /**
+     * The room's share of appointments, back to back with short breaks
+     * through each weekday, with ids in a block of their own. Doctor and
+     * patient {@code i} only ever see room {@code i % rooms}.
+     */
+    private void appointments(final int room, final long appointmentBase, final long doctorBase, final long patientBase) {
+        final long share = this.appointments / this.rooms + (room < this.appointments % this.rooms ? 1 : 0);
+        long id = appointmentBase + room * (this.appointments / this.rooms) + Math.min(room, this.appointments % this.rooms);
+        final int roomDoctors = shareOf(this.doctors, room);
+        final int roomPatients = shareOf(this.patients, room);
+        final String roomName = roomName(room);
+        final Random random = random(-1, room);
+
+        final List<Object[]> batch = new ArrayList<>(this.batchSize);
+        long left = share;
+        for (LocalDate day = this.start; left > 0; day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            final LocalDateTime closes = day.atTime(CLOSES, 0);
+            LocalDateTime startsAt = day.atTime(OPENS, 0).plusMinutes(GAPS[random.nextInt(GAPS.length)]);
+            while (left > 0) {
+                final int minutes = DURATIONS[random.nextInt(DURATIONS.length)];
+                final LocalDateTime finishesAt = startsAt.plusMinutes(minutes);
+                if (finishesAt.isAfter(closes)) {
+                    break;
+                }
+                batch.add(new Object[] { id++,
+                        patientBase + room + (long) this.rooms * random.nextInt(roomPatients),
+                        doctorBase + room + (long) this.rooms * random.nextInt(roomDoctors),
+                        roomName, Timestamp.valueOf(startsAt), Timestamp.valueOf(finishesAt), minutes * 60L });
+                left--;
+                if (batch.size() == this.batchSize) {
+                    this.jdbcTemplate.batchUpdate(INSERT_APPOINTMENT, batch);
+                    batch.clear();
+                }
+                startsAt = finishesAt.plusMinutes(GAPS[random.nextInt(GAPS.length)]);
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(INSERT_APPOINTMENT, batch);
+        }
+    }
+
+    private int shareOf(final int count, final int room) {
+        return count / this.rooms + (room < count % this.rooms ? 1 : 0);
+    }
+
+    private Random random(final long stream, final long index) {
+        return new Random(this.seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    static String roomName(final int room) {
+        return String.format(Locale.ROOT, "%s-%04d", DEPARTMENTS[room % DEPARTMENTS.length], room);
+    }
+
+    private static void await(final List<Future<?>> tasks) throws InterruptedException, ExecutionException {
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        tasks.clear();
+    }
+}
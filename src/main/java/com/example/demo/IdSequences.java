@@ -0,0 +1,89 @@
+package com.example.demo;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps each entity's id sequence ahead of the ids already in its table.
+ * {@code ddl-auto=update} creates a missing sequence (a one-row table, on
+ * MySQL) starting at 1, so on a database that predates it the first insert
+ * would take an id in use. At startup, before anything is inserted, every
+ * sequence is moved past {@code max(id)} of its table.
+ */
+@Component
+public class IdSequences {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequences.class);
+
+    // Entity table, and the sequence its ids come from
+    private static final String[][] TABLES = {
+        { "appointment", "appointment_seq" },
+        { "appointment_series", "appointment_series_seq" },
+        { "doctors", "doctor_seq" },
+        { "patient", "patient_seq" }
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private boolean sequences;
+
+    @PostConstruct
+    public void align() {
+        // MySQL has no sequences, so Hibernate keeps the next value in a one-row table
+        this.sequences = this.entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                                                  .getJdbcServices().getDialect().supportsSequences();
+        for (String[] table : TABLES) {
+            final long used = maxId(table[0]);
+            final long next = next(table[1]);
+            // Reading a sequence draws a block from it. Giving it back could rewind
+            // past a block another instance drew meanwhile, so it stays lost
+            if (used >= next) {
+                log.info("Moving {} past the highest id in {} ({})", table[1], table[0], used);
+                restart(table[1], used + 1);
+            }
+        }
+    }
+
+    /**
+     * Past both the highest id in use and any block of ids already handed
+     * out by the sequence, which the application may not have used yet.
+     */
+    public long firstFreeId(final String table, final String sequence) {
+        return Math.max(maxId(table) + 1, next(sequence));
+    }
+
+    /**
+     * Makes {@code next} the sequence's next value. The table MySQL uses
+     * only ever moves forward, so an instance starting alongside others
+     * can't hand back a block one of them has drawn.
+     */
+    public void restart(final String sequence, final long next) {
+        if (this.sequences) {
+            this.jdbcTemplate.execute("alter sequence " + sequence + " restart with " + next);
+        } else {
+            this.jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?", next, next);
+        }
+    }
+
+    private long maxId(final String table) {
+        final Long max = this.jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private long next(final String sequence) {
+        final Long next = this.jdbcTemplate.queryForObject(
+                this.sequences ? "select next value for " + sequence : "select next_val from " + sequence, Long.class);
+        return next == null ? 1 : next;
+    }
+}
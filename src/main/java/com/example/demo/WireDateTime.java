@@ -0,0 +1,189 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+/**
+ * The "HH:mm dd/MM/yyyy" wire format, hand-rolled. It is fixed width, so
+ * digits go straight into the generator and are read straight out of the
+ * parser's buffer, with none of the Strings and parse state a
+ * {@link DateTimeFormatter} goes through.
+ *
+ * <p>Output and accepted input are exactly the formatter's: anything off
+ * the fast path (years outside 1-9999, 24:00, a 31st in a 30-day month,
+ * non-string tokens...) is handed to the formatter-based Jackson codec,
+ * which either resolves it the way it always has or fails with its usual
+ * error. So does a property whose {@code @JsonFormat} asks for another
+ * pattern.
+ */
+public final class WireDateTime {
+
+    public static final String PATTERN = "HH:mm dd/MM/yyyy";
+
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
+    static final int LENGTH = PATTERN.length();
+
+    private WireDateTime() {
+    }
+
+    /**
+     * Writes the 16 characters of {@code dateTime} at {@code offset}.
+     *
+     * @return false, writing nothing, if the year needs more or fewer than four digits
+     */
+    public static boolean write(final LocalDateTime dateTime, final char[] buffer, final int offset) {
+        final int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            return false;
+        }
+        twoDigits(dateTime.getHour(), buffer, offset);
+        buffer[offset + 2] = ':';
+        twoDigits(dateTime.getMinute(), buffer, offset + 3);
+        buffer[offset + 5] = ' ';
+        twoDigits(dateTime.getDayOfMonth(), buffer, offset + 6);
+        buffer[offset + 8] = '/';
+        twoDigits(dateTime.getMonthValue(), buffer, offset + 9);
+        buffer[offset + 11] = '/';
+        twoDigits(year / 100, buffer, offset + 12);
+        twoDigits(year % 100, buffer, offset + 14);
+        return true;
+    }
+
+    /**
+     * @return the date-time in {@code buffer[offset, offset + length)}, or
+     *         null if it isn't a plain, valid one the formatter would parse
+     *         to the same value
+     */
+    public static LocalDateTime parse(final char[] buffer, final int offset, final int length) {
+        if (length != LENGTH || buffer[offset + 2] != ':' || buffer[offset + 5] != ' '
+                || buffer[offset + 8] != '/' || buffer[offset + 11] != '/') {
+            return null;
+        }
+        final int hour = twoDigits(buffer, offset);
+        final int minute = twoDigits(buffer, offset + 3);
+        final int day = twoDigits(buffer, offset + 6);
+        final int month = twoDigits(buffer, offset + 9);
+        final int century = twoDigits(buffer, offset + 12);
+        final int yearOfCentury = twoDigits(buffer, offset + 14);
+        if (hour < 0 || minute < 0 || day < 0 || month < 0 || century < 0 || yearOfCentury < 0) {
+            return null;
+        }
+        final int year = century * 100 + yearOfCentury;
+        if (hour > 23 || minute > 59 || month < 1 || month > 12 || year < 1 || day < 1 || day > lengthOfMonth(month, year)) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private static void twoDigits(final int value, final char[] buffer, final int offset) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    // -1 unless both are ASCII digits
+    private static int twoDigits(final char[] buffer, final int offset) {
+        final int tens = buffer[offset] - '0';
+        final int units = buffer[offset + 1] - '0';
+        return tens < 0 || tens > 9 || units < 0 || units > 9 ? -1 : tens * 10 + units;
+    }
+
+    private static int lengthOfMonth(final int month, final int year) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // A @JsonFormat pattern other than the wire format's
+    private static boolean overridden(final JsonFormat.Value format) {
+        return format != null && format.hasPattern() && !PATTERN.equals(format.getPattern());
+    }
+
+    public static class Serializer extends StdSerializer<LocalDateTime> implements ContextualSerializer {
+
+        private static final long serialVersionUID = 1L;
+
+        // The generator copies the characters out, so each thread can keep reusing one buffer
+        private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+        private final LocalDateTimeSerializer fallback = new LocalDateTimeSerializer(FORMATTER);
+
+        public Serializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(final LocalDateTime value, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
+            final char[] buffer = BUFFER.get();
+            if (write(value, buffer, 0)) {
+                gen.writeString(buffer, 0, LENGTH);
+            } else {
+                this.fallback.serialize(value, gen, provider);
+            }
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(final SerializerProvider provider, final BeanProperty property)
+                throws JsonMappingException {
+            return overridden(findFormatOverrides(provider, property, handledType()))
+                    ? this.fallback.createContextual(provider, property)
+                    : this;
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<LocalDateTime> implements ContextualDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDateTimeDeserializer fallback = new LocalDateTimeDeserializer(FORMATTER);
+
+        public Deserializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public LocalDateTime deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                final LocalDateTime parsed = parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (parsed != null) {
+                    return parsed;
+                }
+            }
+            return this.fallback.deserialize(parser, context);
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(final DeserializationContext context, final BeanProperty property)
+                throws JsonMappingException {
+            return overridden(findFormatOverrides(context, property, handledType()))
+                    ? this.fallback.createContextual(context, property)
+                    : this;
+        }
+    }
+}
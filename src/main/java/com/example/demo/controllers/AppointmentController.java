@@ -1,8 +1,25 @@
 package com.example.demo.controllers;
 
 import com.example.demo.entities.Appointment;
+import com.example.demo.entities.DataVersion;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.example.demo.repositories.AppointmentFilter;
 import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.AppointmentSummary;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.services.BatchBookingService;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.BookingResult;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,9 +28,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,30 +46,87 @@ public class AppointmentController {
     @Autowired
     AppointmentRepository appointmentRepository;
 
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    ConflictDetector conflictDetector;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    RoomCalendar roomCalendar;
+
+    @Autowired
+    OccupancyMatrix occupancyMatrix;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    BatchBookingService batchBookingService;
+
+    @Value("${appointments.batch.max-size:10000}")
+    int maxBatchSize;
+
     @GetMapping("/appointments")
-    public ResponseEntity<List<Appointment>> getAllAppointments() {
-        final List<Appointment> appointments = new ArrayList<>(appointmentRepository.findAll());
+    public ResponseEntity<List<AppointmentSummary>> getAllAppointments(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") final LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") final LocalDateTime to,
+            @RequestParam(name = "room", required = false) final String room,
+            @RequestParam(name = "doctorId", required = false) final Long doctorId,
+            @RequestParam(name = "patientId", required = false) final Long patientId,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "limit", required = false) final Integer limit,
+            final WebRequest webRequest
+    ) {
+        LocalDateTime afterStartsAt = null;
+        long afterId = 0;
+        if (cursor != null) {
+            try {
+                final String[] keyset = Paging.decode(cursor, 2);
+                afterStartsAt = LocalDateTime.parse(keyset[0]);
+                afterId = Long.parseLong(keyset[1]);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
 
-        if (appointments.isEmpty()) {
-            return ResponseEntity.noContent()
-                                 .build();
+        // Rows carry doctor and patient names, so any change counts
+        if (webRequest.checkNotModified(ETags.of(DataVersion.current()))) {
+            return null;
         }
 
-        return ResponseEntity.ok(appointments);
+        final int pageSize = Paging.limit(limit);
+        final AppointmentFilter filter = new AppointmentFilter(from, to, room, doctorId, patientId);
+        final List<AppointmentSummary> appointments = appointmentRepository.findPage(filter, afterStartsAt, afterId, pageSize + 1);
+
+        return Paging.page(appointments, pageSize,
+                           appointment -> Paging.cursor(appointment.getStartsAt(), appointment.getId()));
     }
 
     @GetMapping("/appointments/{id}")
     public ResponseEntity<Appointment> getAppointmentById(
-            @PathVariable("id") final long id
+            @PathVariable("id") final long id,
+            final WebRequest webRequest
     ) {
+        // The body embeds the doctor, patient and room
+        final String etag = ETags.of(DataVersion.of(Appointment.class, id),
+                                     DataVersion.of(Doctor.class), DataVersion.of(Patient.class), DataVersion.of(Room.class));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         final Optional<Appointment> appointment = appointmentRepository.findById(id);
         return appointment.map(ResponseEntity::ok)
                           .orElseGet(() -> ResponseEntity.notFound()
                                                          .build());
     }
 
+    // Returns just the booked appointment, so the cost doesn't grow with the table
     @PostMapping("/appointment")
-    public ResponseEntity<List<Appointment>> createAppointment(
+    public ResponseEntity<Appointment> createAppointment(
             @RequestBody final Appointment appointment
     ) {
         final boolean hasInvalidDates = hasInvalidDates(appointment);
@@ -57,18 +135,58 @@ public class AppointmentController {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
-        final boolean existsOverlap = appointmentRepository.findAll()
-                                                           .stream()
-                                                           .anyMatch(appointment::overlaps);
-        if (existsOverlap) {
+        final boolean booked;
+        try {
+            booked = bookingService.book(appointment);
+        } catch (PessimisticLockingFailureException e) {
+            // Another instance held the room too long; safe to retry
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (!booked) {
             return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
         }
 
-        appointmentRepository.save(appointment);
+        return ResponseEntity.ok(appointment);
+    }
 
-        final List<Appointment> appointmentList = appointmentRepository.findAll();
+    @PostMapping("/appointments/batch")
+    public ResponseEntity<List<BookingResult>> createAppointments(
+            @RequestBody final List<Appointment> appointments,
+            @RequestParam(name = "mode", defaultValue = "best-effort") final String mode
+    ) {
+        final BatchBookingService.Mode batchMode;
+        if ("atomic".equalsIgnoreCase(mode)) {
+            batchMode = BatchBookingService.Mode.ATOMIC;
+        } else if ("best-effort".equalsIgnoreCase(mode)) {
+            batchMode = BatchBookingService.Mode.BEST_EFFORT;
+        } else {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        if (appointments.size() > maxBatchSize) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        final BitSet invalid = new BitSet(appointments.size());
+        for (int i = 0; i < appointments.size(); i++) {
+            final Appointment appointment = appointments.get(i);
+            if (appointment == null || appointment.getStartsAt() == null || appointment.getFinishesAt() == null ||
+                    hasInvalidDates(appointment)) {
+                invalid.set(i);
+            }
+        }
+
+        final List<BookingResult> results;
+        try {
+            results = batchBookingService.book(appointments, invalid, batchMode);
+        } catch (PessimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
 
-        return ResponseEntity.ok(appointmentList);
+        final boolean rejected = batchMode == BatchBookingService.Mode.ATOMIC &&
+                results.stream()
+                       .anyMatch(result -> result.getStatus() != BookingResult.Status.ACCEPTED);
+        return new ResponseEntity<>(results, rejected ? HttpStatus.NOT_ACCEPTABLE : HttpStatus.OK);
     }
 
     @DeleteMapping("/appointments/{id}")
@@ -83,17 +201,31 @@ public class AppointmentController {
         }
 
         appointmentRepository.deleteById(id);
+        conflictDetector.remove(appointment.get());
+        roomCalendar.remove(appointment.get());
+        occupancyMatrix.remove(appointment.get());
+        // The delete cascades to the room, so drop it from the matrix once it is gone
+        final Room room = appointment.get().getRoom();
+        if (room != null && !roomRepository.existsById(room.getRoomName())) {
+            occupancyMatrix.removeRoom(room.getRoomName());
+        }
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @DeleteMapping("/appointments")
     public ResponseEntity<HttpStatus> deleteAllAppointments() {
+        // Series first: deleting an appointment cascades to its doctor, patient and room
+        seriesRepository.deleteAll();
         appointmentRepository.deleteAll();
+        conflictDetector.clear();
+        roomCalendar.clear();
+        // Reload rather than clear: the cascade may have taken rooms with it
+        occupancyMatrix.load();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
-    private boolean hasInvalidDates(final Appointment appointment) {
+    public boolean hasInvalidDates(final Appointment appointment) {
         /// True when:
         // Case 1: A.starts > A.finishes
         // Case 2: A.finishes < A.starts
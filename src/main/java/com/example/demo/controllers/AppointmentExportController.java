@@ -0,0 +1,175 @@
+package com.example.demo.controllers;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Person;
+import com.example.demo.repositories.AppointmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export of every appointment. Rows are read through a database cursor
+ * and written to the response as they arrive, detaching each one afterwards,
+ * so memory use doesn't depend on the size of the table.
+ */
+@RestController
+@RequestMapping("/api")
+public class AppointmentExportController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+    private static final String CSV_HEADER =
+            "id,startsAt,finishesAt,room,doctorId,doctorFirstName,doctorLastName,patientId,patientFirstName,patientLastName\n";
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @GetMapping("/appointments/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(name = "format", defaultValue = "ndjson") final String format
+    ) {
+        final StreamingResponseBody body;
+        final MediaType contentType;
+        if ("csv".equalsIgnoreCase(format)) {
+            body = this::writeCsv;
+            contentType = CSV;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            body = this::writeNdjson;
+            contentType = NDJSON;
+        } else {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        return ResponseEntity.ok()
+                             .contentType(contentType)
+                             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments." + format.toLowerCase() + "\"")
+                             .body(body);
+    }
+
+    private void writeNdjson(final OutputStream out) throws IOException {
+        final ObjectWriter writer = objectMapper.writer()
+                                                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            forEachAppointment(appointment -> {
+                try {
+                    writer.writeValue(generator, appointment);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(final OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        forEachAppointment(appointment -> {
+            try {
+                writeCsvRow(writer, appointment);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void forEachAppointment(final Consumer<Appointment> action) throws IOException {
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Appointment> appointments = appointmentRepository.streamAllBy()) {
+                    appointments.forEach(appointment -> {
+                        action.accept(appointment);
+                        // Cascades to the fetched patient, doctor and room
+                        entityManager.detach(appointment);
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeCsvRow(final Writer writer, final Appointment appointment) throws IOException {
+        writer.write(Long.toString(appointment.getId()));
+        writer.write(',');
+        writer.write(format(appointment.getStartsAt()));
+        writer.write(',');
+        writer.write(format(appointment.getFinishesAt()));
+        writer.write(',');
+        writer.write(escape(appointment.getRoom() == null ? null : appointment.getRoom().getRoomName()));
+        writer.write(',');
+        writePerson(writer, appointment.getDoctor(), appointment.getDoctor() == null ? null : appointment.getDoctor().getId());
+        writer.write(',');
+        writePerson(writer, appointment.getPatient(), appointment.getPatient() == null ? null : appointment.getPatient().getId());
+        writer.write('\n');
+    }
+
+    private static void writePerson(final Writer writer, final Person person, final Long id) throws IOException {
+        if (person == null) {
+            writer.write(",,");
+            return;
+        }
+        writer.write(Long.toString(id));
+        writer.write(',');
+        writer.write(escape(person.getFirstName()));
+        writer.write(',');
+        writer.write(escape(person.getLastName()));
+    }
+
+    private static String format(final LocalDateTime dateTime) {
+        return dateTime == null ? "" : DATE_TIME.format(dateTime);
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private static String escape(final String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
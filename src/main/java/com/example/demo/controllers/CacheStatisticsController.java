@@ -0,0 +1,54 @@
+package com.example.demo.controllers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Hit, miss and put counts per second-level cache region, since startup.
+ * Needs {@code hibernate.generate_statistics}; without it there is nothing to report.
+ */
+@RestController
+@RequestMapping("/api")
+public class CacheStatisticsController {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<List<Map<String, Object>>> getCacheStatistics() {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+
+        final List<Map<String, Object>> regions = new ArrayList<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            final CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+            final Map<String, Object> row = new LinkedHashMap<>();
+            row.put("region", name);
+            row.put("hits", region.getHitCount());
+            row.put("misses", region.getMissCount());
+            row.put("puts", region.getPutCount());
+            row.put("entries", region.getElementCountInMemory());
+            regions.add(row);
+        }
+        if (regions.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(regions, HttpStatus.OK);
+    }
+}
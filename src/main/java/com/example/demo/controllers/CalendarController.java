@@ -0,0 +1,81 @@
+package com.example.demo.controllers;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.DataVersion;
+import com.example.demo.services.CalendarConsistency;
+import com.example.demo.services.CalendarDay;
+import com.example.demo.services.CalendarEntry;
+import com.example.demo.services.RoomCalendar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+
+/**
+ * Day and week calendars of a room, served from the {@link RoomCalendar}
+ * read model; no query reaches the database. An unknown room has an empty
+ * calendar.
+ */
+@RestController
+@RequestMapping("/api")
+public class CalendarController {
+
+    @Autowired
+    RoomCalendar roomCalendar;
+
+    @GetMapping("/rooms/{roomName}/calendar")
+    public ResponseEntity<List<CalendarEntry>> getDay(
+            @PathVariable("roomName") final String roomName,
+            @RequestParam("date") @DateTimeFormat(pattern = "dd/MM/yyyy") final LocalDate date,
+            final WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(etag())) {
+            return null;
+        }
+
+        final List<CalendarEntry> entries = roomCalendar.day(roomName, date);
+        if (entries.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return ResponseEntity.ok(entries);
+    }
+
+    @GetMapping("/rooms/{roomName}/calendar/week")
+    public ResponseEntity<List<CalendarDay>> getWeek(
+            @PathVariable("roomName") final String roomName,
+            @RequestParam("date") @DateTimeFormat(pattern = "dd/MM/yyyy") final LocalDate date,
+            final WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(etag())) {
+            return null;
+        }
+
+        final List<CalendarDay> week = roomCalendar.week(roomName, date);
+        if (week.stream().allMatch(day -> day.getEntries().isEmpty())) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return ResponseEntity.ok(week);
+    }
+
+    // Reads every appointment and series; meant for operators, not clients
+    @GetMapping("/calendar/consistency")
+    public ResponseEntity<CalendarConsistency> getConsistency() {
+        return ResponseEntity.ok(roomCalendar.verify());
+    }
+
+    // Names never change once stored, so only bookings and series count
+    private static String etag() {
+        return ETags.of(DataVersion.of(Appointment.class), DataVersion.of(AppointmentSeries.class));
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
+import com.example.demo.entities.DataVersion;
 import com.example.demo.entities.Doctor;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +18,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
@@ -27,20 +31,34 @@ public class DoctorController {
     DoctorRepository doctorRepository;
 
     @GetMapping("/doctors")
-    public ResponseEntity<List<Doctor>> getAllDoctors(){
-        List<Doctor> doctors = new ArrayList<>();
-
-        doctorRepository.findAll().forEach(doctors::add);
+    public ResponseEntity<List<PersonSummary>> getAllDoctors(@RequestParam(name = "cursor", required = false) String cursor,
+                                                 @RequestParam(name = "limit", required = false) Integer limit,
+                                                 WebRequest webRequest){
+        long after = Long.MIN_VALUE;
+        if (cursor != null){
+            try {
+                after = Long.parseLong(Paging.decode(cursor, 1)[0]);
+            } catch (IllegalArgumentException e){
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
 
-        if (doctors.isEmpty()){
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Doctor.class)))){
+            return null;
         }
 
-        return new ResponseEntity<>(doctors, HttpStatus.OK);
+        int pageSize = Paging.limit(limit);
+        List<PersonSummary> doctors = doctorRepository.findByIdGreaterThan(after, PageRequest.of(0, pageSize + 1, Sort.by("id")));
+
+        return Paging.page(doctors, pageSize, doctor -> Paging.cursor(doctor.getId()));
     }
 
     @GetMapping("/doctors/{id}")
-    public ResponseEntity<Doctor> getDoctorById(@PathVariable("id") long id){
+    public ResponseEntity<Doctor> getDoctorById(@PathVariable("id") long id, WebRequest webRequest){
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Doctor.class, id)))){
+            return null;
+        }
+
         Optional<Doctor> doctor = doctorRepository.findById(id);
         if (! doctor.isPresent()){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
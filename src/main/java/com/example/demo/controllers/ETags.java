@@ -0,0 +1,23 @@
+package com.example.demo.controllers;
+
+/**
+ * Strong validators built from {@code DataVersion} counters, so a handler can
+ * answer {@code 304 Not Modified} before going near the repository. The
+ * instance epoch keeps validators from an earlier run, or another instance,
+ * from ever matching.
+ */
+final class ETags {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private ETags() {
+    }
+
+    static String of(long... versions) {
+        final StringBuilder etag = new StringBuilder("\"").append(EPOCH);
+        for (long version : versions) {
+            etag.append('.').append(Long.toString(version, 36));
+        }
+        return etag.append('"').toString();
+    }
+}
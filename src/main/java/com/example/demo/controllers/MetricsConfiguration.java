@@ -0,0 +1,22 @@
+package com.example.demo.controllers;
+
+import com.example.demo.metrics.MetricRegistry;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MetricRegistry metricRegistry) {
+        final FilterRegistrationBean<RequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestMetricsFilter(metricRegistry));
+        registration.addUrlPatterns("/api/*");
+        // Outside the response cache, so its hits are timed as well
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
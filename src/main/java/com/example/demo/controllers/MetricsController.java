@@ -0,0 +1,27 @@
+package com.example.demo.controllers;
+
+import com.example.demo.metrics.MetricRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Prometheus scrape endpoint, at the path Actuator would serve it from.
+ */
+@RestController
+public class MetricsController {
+
+    private static final String TEXT_FORMAT = "text/plain;version=0.0.4;charset=utf-8";
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    @GetMapping(value = "/actuator/prometheus", produces = TEXT_FORMAT)
+    public ResponseEntity<String> scrape() {
+        final StringBuilder out = new StringBuilder(16 * 1024);
+        metricRegistry.scrape(out);
+        return ResponseEntity.ok(out.toString());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.controllers;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.DataVersion;
+import com.example.demo.entities.Room;
+import com.example.demo.services.FreeRun;
+import com.example.demo.services.OccupancyMatrix;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The hospital-wide availability board, answered from the
+ * {@link OccupancyMatrix} in 5-minute slots.
+ */
+@RestController
+@RequestMapping("/api")
+public class OccupancyController {
+
+    @Autowired
+    OccupancyMatrix occupancyMatrix;
+
+    @GetMapping("/occupancy")
+    public ResponseEntity<Map<String, String>> getOccupancy(
+            @RequestParam("date") @DateTimeFormat(pattern = "dd/MM/yyyy") final LocalDate date,
+            final WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(etag())) {
+            return null;
+        }
+
+        final Map<String, String> board = occupancyMatrix.board(date);
+        if (board.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return ResponseEntity.ok(board);
+    }
+
+    /**
+     * Rooms with at least {@code minFree} of consecutive free slots on
+     * {@code date}, optionally only between {@code from} and {@code to}
+     * (HH:mm; slots partly outside don't count).
+     */
+    @GetMapping("/occupancy/free-rooms")
+    public ResponseEntity<List<FreeRun>> getFreeRooms(
+            @RequestParam("date") @DateTimeFormat(pattern = "dd/MM/yyyy") final LocalDate date,
+            @RequestParam("minFree") final Duration minFree,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "HH:mm") final LocalTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "HH:mm") final LocalTime to,
+            @RequestParam(name = "limit", required = false) final Integer limit,
+            final WebRequest webRequest
+    ) {
+        final int slotMinutes = OccupancyMatrix.SLOT_MINUTES;
+        final int fromSlot = from == null ? 0 : (from.getHour() * 60 + from.getMinute() + slotMinutes - 1) / slotMinutes;
+        final int toSlot = to == null ? OccupancyMatrix.SLOTS_PER_DAY : OccupancyMatrix.slotOf(to);
+        final long slots = (minFree.getSeconds() + slotMinutes * 60 - 1) / (slotMinutes * 60);
+        if (minFree.isNegative() || minFree.isZero() || slots > toSlot - fromSlot) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        if (webRequest.checkNotModified(etag())) {
+            return null;
+        }
+
+        final List<FreeRun> rooms = occupancyMatrix.freeRooms(date, fromSlot, toSlot, (int) slots);
+        if (rooms.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        final int pageSize = Paging.limit(limit);
+        return ResponseEntity.ok(rooms.size() > pageSize ? rooms.subList(0, pageSize) : rooms);
+    }
+
+    private static String etag() {
+        return ETags.of(DataVersion.of(Room.class), DataVersion.of(Appointment.class), DataVersion.of(AppointmentSeries.class));
+    }
+}
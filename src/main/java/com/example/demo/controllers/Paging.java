@@ -0,0 +1,84 @@
+package com.example.demo.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Keyset pagination shared by the list endpoints. Handlers fetch one row more
+ * than {@code limit}; if it comes back, the page is trimmed and a
+ * {@code Link: <...cursor=...>; rel="next"} header points at the next page.
+ */
+final class Paging {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private static final String SEPARATOR = "|";
+
+    private Paging() {
+    }
+
+    static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        if (rows.size() <= limit) {
+            return new ResponseEntity<>(rows, HttpStatus.OK);
+        }
+
+        final List<T> page = rows.subList(0, limit);
+        final String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                                                       .replaceQueryParam("cursor", encode(cursorOf.apply(page.get(limit - 1))))
+                                                       .build()
+                                                       .encode()
+                                                       .toUriString();
+        return ResponseEntity.ok()
+                             .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                             .body(page);
+    }
+
+    static String cursor(Object... parts) {
+        final StringBuilder cursor = new StringBuilder();
+        for (Object part : parts) {
+            if (cursor.length() > 0) {
+                cursor.append(SEPARATOR);
+            }
+            cursor.append(part);
+        }
+        return cursor.toString();
+    }
+
+    /**
+     * Splits a cursor produced by {@link #page} back into its parts.
+     *
+     * @throws IllegalArgumentException if the cursor wasn't issued by us
+     */
+    static String[] decode(String cursor, int parts) {
+        final String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        final String[] split = raw.split("\\" + SEPARATOR, parts);
+        if (split.length != parts) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return split;
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
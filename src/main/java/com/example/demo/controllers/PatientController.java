@@ -2,12 +2,14 @@
 package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
+import com.example.demo.entities.DataVersion;
 import com.example.demo.entities.Patient;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +19,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
@@ -28,20 +32,34 @@ public class PatientController {
     PatientRepository patientRepository;
 
     @GetMapping("/patients")
-    public ResponseEntity<List<Patient>> getAllPatients(){
-        List<Patient> patients = new ArrayList<>();
-
-        patientRepository.findAll().forEach(patients::add);
+    public ResponseEntity<List<PersonSummary>> getAllPatients(@RequestParam(name = "cursor", required = false) String cursor,
+                                                 @RequestParam(name = "limit", required = false) Integer limit,
+                                                 WebRequest webRequest){
+        long after = Long.MIN_VALUE;
+        if (cursor != null){
+            try {
+                after = Long.parseLong(Paging.decode(cursor, 1)[0]);
+            } catch (IllegalArgumentException e){
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
 
-        if (patients.isEmpty()){
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Patient.class)))){
+            return null;
         }
 
-        return new ResponseEntity<>(patients, HttpStatus.OK);
+        int pageSize = Paging.limit(limit);
+        List<PersonSummary> patients = patientRepository.findByIdGreaterThan(after, PageRequest.of(0, pageSize + 1, Sort.by("id")));
+
+        return Paging.page(patients, pageSize, patient -> Paging.cursor(patient.getId()));
     }
 
     @GetMapping("/patients/{id}")
-    public ResponseEntity<Patient> getPatientById(@PathVariable("id") long id){
+    public ResponseEntity<Patient> getPatientById(@PathVariable("id") long id, WebRequest webRequest){
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Patient.class, id)))){
+            return null;
+        }
+
         Optional<Patient> patient = patientRepository.findById(id);
         if (! patient.isPresent()){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
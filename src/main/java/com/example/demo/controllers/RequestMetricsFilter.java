@@ -0,0 +1,74 @@
+package com.example.demo.controllers;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.example.demo.metrics.MetricRegistry;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Times every API request, labelled by method, the handler's URI pattern
+ * (not the raw path, which would make a series per id) and status. Runs
+ * ahead of the {@link ResponseCacheFilter}, so answers from the cache are
+ * counted too. A streamed response is timed until its stream completes.
+ */
+class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MetricRegistry metricRegistry;
+
+    RequestMetricsFilter(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response.getStatus(), started);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // An exception escaping the chain becomes a 500 further out
+                record(request, failed && response.getStatus() < 400 ? 500 : response.getStatus(), started);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long started) {
+        // Unmatched paths end up on the static resource handler's "/**", so 404s get their own label
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final String uri = status == 404 ? "NOT_FOUND" : pattern != null ? pattern.toString() : "UNKNOWN";
+        metricRegistry.timer("http_server_requests_seconds", "API requests, by handler",
+                             "method", request.getMethod(), "uri", uri, "status", Integer.toString(status))
+                      .record(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.controllers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResponseCacheConfiguration {
+
+    @Bean
+    FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(
+            @Value("${response-cache.max-entries:1024}") int maxEntries,
+            @Value("${response-cache.max-age:PT30S}") Duration maxAge) {
+        final ResponseCacheFilter filter = new ResponseCacheFilter(
+                new HashSet<>(Arrays.asList("/api/appointments", "/api/doctors", "/api/patients", "/api/rooms")),
+                maxEntries, maxAge.toNanos());
+        final FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
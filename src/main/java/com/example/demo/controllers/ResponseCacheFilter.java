@@ -0,0 +1,171 @@
+package com.example.demo.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.example.demo.entities.DataVersion;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Keeps the encoded JSON of the polled list endpoints, per path and query
+ * string, tagged with the {@link DataVersion} read before the handler ran.
+ * While no entity has changed since, a repeat request is answered with a
+ * copy of those bytes: no query, no serialisation. A gzip variant is built
+ * the first time a client accepts it, and a client already holding the
+ * entry's ETag gets a bare 304. Entries also expire after
+ * {@code maxAgeNanos}, which bounds staleness from writes made by other
+ * instances.
+ */
+class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final Set<String> paths;
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    ResponseCacheFilter(Set<String> paths, int maxEntries, long maxAgeNanos) {
+        this.paths = paths;
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !paths.contains(urlPathHelper.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final String path = urlPathHelper.getPathWithinApplication(request);
+        final String key = request.getQueryString() == null ? path : path + "?" + request.getQueryString();
+        final long version = DataVersion.current();
+
+        final Entry cached = entries.get(key);
+        if (cached != null && cached.version == version && System.nanoTime() - cached.createdAt < maxAgeNanos) {
+            // The cached paths are their handlers' mappings; request metrics label hits with them
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, path);
+            if (cached.etag != null && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.setHeader(HttpHeaders.ETAG, cached.etag);
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                return;
+            }
+            cached.writeTo(response, acceptsGzip(request));
+            return;
+        }
+
+        final ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        final int status = wrapper.getStatus();
+        if (status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_NO_CONTENT) {
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+            entries.put(key, new Entry(version, status, wrapper.getContentType(), wrapper.getHeader(HttpHeaders.ETAG),
+                                       wrapper.getHeader(HttpHeaders.LINK), wrapper.getContentAsByteArray()));
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        wrapper.copyBodyToResponse();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        final String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.contains("gzip");
+    }
+
+    // Weak comparison, as RFC 7232 asks for If-None-Match
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+
+        final long version;
+        final long createdAt = System.nanoTime();
+        final int status;
+        final String contentType;
+        final String etag;
+        final String link;
+        final byte[] body;
+        volatile byte[] gzipped;
+
+        Entry(long version, int status, String contentType, String etag, String link, byte[] body) {
+            this.version = version;
+            this.status = status;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.link = link;
+            this.body = body;
+        }
+
+        void writeTo(HttpServletResponse response, boolean gzip) throws IOException {
+            response.setStatus(status);
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+            }
+            if (link != null) {
+                response.setHeader(HttpHeaders.LINK, link);
+            }
+            if (body.length == 0) {
+                return;
+            }
+            response.setContentType(contentType);
+
+            byte[] bytes = body;
+            if (gzip) {
+                bytes = gzipped();
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+
+        // Racing threads may both compress; either result is correct
+        private byte[] gzipped() {
+            byte[] bytes = gzipped;
+            if (bytes == null) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                bytes = out.toByteArray();
+                gzipped = bytes;
+            }
+            return bytes;
+        }
+    }
+}
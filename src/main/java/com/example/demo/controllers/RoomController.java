@@ -2,22 +2,36 @@
 package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.DataVersion;
 import com.example.demo.entities.Room;
+import com.example.demo.services.AvailabilityService;
+import com.example.demo.services.FreeSlot;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomFit;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
@@ -27,21 +41,44 @@ public class RoomController {
     @Autowired
     RoomRepository roomRepository;
 
-    @GetMapping("/rooms")
-    public ResponseEntity<List<Room>> getAllRooms(){
-        List<Room> rooms = new ArrayList<>();
+    @Autowired
+    AvailabilityService availabilityService;
 
-        roomRepository.findAll().forEach(rooms::add);
+    @Autowired
+    OccupancyMatrix occupancyMatrix;
 
-        if (rooms.isEmpty()){
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    @Value("${appointments.availability.max-range:P31D}")
+    Duration maxAvailabilityRange;
+
+    @GetMapping("/rooms")
+    public ResponseEntity<List<RoomSummary>> getAllRooms(@RequestParam(name = "cursor", required = false) String cursor,
+                                                  @RequestParam(name = "limit", required = false) Integer limit,
+                                                  WebRequest webRequest){
+        String after = "";
+        if (cursor != null){
+            try {
+                after = Paging.decode(cursor, 1)[0];
+            } catch (IllegalArgumentException e){
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
         }
 
-        return new ResponseEntity<>(rooms, HttpStatus.OK);
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Room.class)))){
+            return null;
+        }
+
+        int pageSize = Paging.limit(limit);
+        List<RoomSummary> rooms = roomRepository.findByRoomNameGreaterThan(after, PageRequest.of(0, pageSize + 1, Sort.by("roomName")));
+
+        return Paging.page(rooms, pageSize, RoomSummary::getRoomName);
     }
 
     @GetMapping("/rooms/{roomName}")
-    public ResponseEntity<Room> getRoomByRoomName(@PathVariable("roomName") String roomName){
+    public ResponseEntity<Room> getRoomByRoomName(@PathVariable("roomName") String roomName, WebRequest webRequest){
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Room.class, roomName)))){
+            return null;
+        }
+
         Optional<Room> room = roomRepository.findByRoomName(roomName);
         if (!room.isPresent()){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -49,10 +86,61 @@ public class RoomController {
         return new ResponseEntity<>(room.get(), HttpStatus.OK);
     }
 
+    @GetMapping("/rooms/{roomName}/availability")
+    public ResponseEntity<List<FreeSlot>> getRoomAvailability(@PathVariable("roomName") String roomName,
+                                                              @RequestParam("from") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+                                                              @RequestParam("to") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to,
+                                                              @RequestParam(name = "minDuration", required = false) Duration minDuration,
+                                                              WebRequest webRequest){
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(maxAvailabilityRange) > 0
+                || (minDuration != null && minDuration.isNegative())){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Room.class, roomName), DataVersion.of(Appointment.class), DataVersion.of(AppointmentSeries.class)))){
+            return null;
+        }
+
+        if (!roomRepository.findByRoomName(roomName).isPresent()){
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        List<FreeSlot> slots = availabilityService.freeSlots(roomName, from, to, minDuration == null ? Duration.ZERO : minDuration);
+        if (slots.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(slots, HttpStatus.OK);
+    }
+
+    // Not under /rooms, where it would shadow a room called "available"
+    @GetMapping("/available-rooms")
+    public ResponseEntity<List<RoomFit>> getAvailableRooms(@RequestParam("from") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+                                                           @RequestParam("to") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to,
+                                                           @RequestParam(name = "limit", required = false) Integer limit,
+                                                           WebRequest webRequest){
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(maxAvailabilityRange) > 0){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        if (webRequest.checkNotModified(ETags.of(DataVersion.of(Room.class), DataVersion.of(Appointment.class), DataVersion.of(AppointmentSeries.class)))){
+            return null;
+        }
+
+        List<RoomFit> rooms = availabilityService.freeRooms(from, to, Paging.limit(limit));
+        if (rooms.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(rooms, HttpStatus.OK);
+    }
+
     @PostMapping("/room")
     public ResponseEntity<Room> createRoom(@RequestBody Room room){
-        Room tmp = new Room(room.getRoomName());
+        if (room.getCapacity() < 1){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Room tmp = new Room(room.getRoomName(), room.getCapacity());
         roomRepository.save(tmp);
+        occupancyMatrix.addRoom(tmp.getRoomName(), tmp.getCapacity());
         return new ResponseEntity<>(tmp, HttpStatus.CREATED);
     }
 
@@ -63,12 +151,14 @@ public class RoomController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         roomRepository.deleteByRoomName(roomName);
+        occupancyMatrix.removeRoom(roomName);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @DeleteMapping("/rooms")
     public ResponseEntity<HttpStatus> deleteAllRooms(){
         roomRepository.deleteAll();
+        occupancyMatrix.load();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
@@ -0,0 +1,141 @@
+package com.example.demo.controllers;
+
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.DataVersion;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.services.Occurrence;
+import com.example.demo.services.SeriesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+
+@RestController
+@RequestMapping("/api")
+public class SeriesController {
+
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    SeriesService seriesService;
+
+    @PostMapping("/series")
+    public ResponseEntity<AppointmentSeries> createSeries(
+            @RequestBody final AppointmentSeries series
+    ) {
+        if (!seriesService.isValid(series)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final boolean booked;
+        try {
+            booked = seriesService.book(series);
+        } catch (PessimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (!booked) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
+        return new ResponseEntity<>(series, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/series/{id}")
+    public ResponseEntity<AppointmentSeries> getSeriesById(
+            @PathVariable("id") final long id,
+            final WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(etag(id))) {
+            return null;
+        }
+
+        final Optional<AppointmentSeries> series = seriesRepository.findById(id);
+        return series.map(ResponseEntity::ok)
+                     .orElseGet(() -> ResponseEntity.notFound()
+                                                    .build());
+    }
+
+    /**
+     * Occurrences overlapping [from, to), computed on the fly. Without a
+     * window, all of them.
+     */
+    @GetMapping("/series/{id}/occurrences")
+    public ResponseEntity<List<Occurrence>> getOccurrences(
+            @PathVariable("id") final long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") final LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") final LocalDateTime to,
+            final WebRequest webRequest
+    ) {
+        if ((from == null) != (to == null) || (from != null && !from.isBefore(to))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        if (webRequest.checkNotModified(etag(id))) {
+            return null;
+        }
+
+        final Optional<AppointmentSeries> series = seriesRepository.findById(id);
+        if (!series.isPresent()) {
+            return ResponseEntity.notFound()
+                                 .build();
+        }
+
+        final List<Occurrence> occurrences = (from == null ? series.get().occurrences() : series.get().occurrences(from, to))
+                .stream()
+                .map(occurrence -> new Occurrence(id, occurrence.getStartsAt(), occurrence.getFinishesAt()))
+                .collect(Collectors.toList());
+        if (occurrences.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return ResponseEntity.ok(occurrences);
+    }
+
+    @DeleteMapping("/series/{id}")
+    public ResponseEntity<HttpStatus> deleteSeries(
+            @PathVariable("id") final long id
+    ) {
+        if (!seriesService.delete(id)) {
+            return ResponseEntity.notFound()
+                                 .build();
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    // Cancels one occurrence; the rest of the series stays booked
+    @DeleteMapping("/series/{id}/occurrences")
+    public ResponseEntity<AppointmentSeries> cancelOccurrence(
+            @PathVariable("id") final long id,
+            @RequestParam("date") @DateTimeFormat(pattern = "dd/MM/yyyy") final LocalDate date
+    ) {
+        return seriesService.cancelOccurrence(id, date)
+                            .map(ResponseEntity::ok)
+                            .orElseGet(() -> ResponseEntity.notFound()
+                                                           .build());
+    }
+
+    // The body embeds the doctor, patient and room
+    private static String etag(final long id) {
+        return ETags.of(DataVersion.of(AppointmentSeries.class, id),
+                        DataVersion.of(Doctor.class), DataVersion.of(Patient.class), DataVersion.of(Room.class));
+    }
+}
@@ -1,18 +1,33 @@
 package com.example.demo.entities;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.*;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 @Entity
+@EntityListeners(DataChangeListener.class)
+@Table(indexes = {
+    @Index(name = "idx_appointment_room_window", columnList = "room_id, startsAt, finishesAt"),
+    @Index(name = "idx_appointment_doctor_window", columnList = "doctor_id, startsAt, finishesAt"),
+    @Index(name = "idx_appointment_patient_window", columnList = "patient_id, startsAt, finishesAt"),
+    @Index(name = "idx_appointment_keyset", columnList = "startsAt, id"),
+    @Index(name = "idx_appointment_duration", columnList = "durationSeconds")
+})
 public class Appointment {
 
     @Id
-    @GeneratedValue(strategy=GenerationType.AUTO)
+    @GeneratedValue(generator = "appointment_id")
+    @GenericGenerator(name = "appointment_id", strategy = "com.example.demo.entities.PooledSequenceGenerator",
+                      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "appointment_seq"))
     private long id;
 
 
@@ -34,6 +49,9 @@ public class Appointment {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
     private LocalDateTime finishesAt;
 
+    // Whole seconds; the longest one bounds how far back the range scans start (see LongestBooking)
+    private Long durationSeconds;
+
     public Appointment(){
         super();
     }
@@ -89,12 +107,21 @@ public class Appointment {
         this.room = room;
     }
     
+    @PrePersist
+    @PreUpdate
+    void computeDuration(){
+        this.durationSeconds = this.startsAt == null || this.finishesAt == null
+                ? null
+                : Duration.between(this.startsAt, this.finishesAt).getSeconds();
+    }
+
     public boolean overlaps( Appointment appointment){
         /// True when:
         // Case 1: A.starts == B.starts
         // Case 2: A.finishes == B.finishes 
         // Case 3: A.starts < B.finishes && B.finishes < A.finishes
-        // Case 4: B.starts < A.starts && A.finishes < B.finishes
+        // Case 4: A.starts < B.starts && B.starts < A.finishes
+        // Case 5: B.starts < A.starts && A.starts < B.finishes (covers B containing A)
         if (appointment.getRoom().getRoomName().equals(this.getRoom().getRoomName())){ 
             if (this.getStartsAt().equals(appointment.getStartsAt()) || 
                     appointment.getFinishesAt().equals(this.getFinishesAt())){
@@ -106,6 +133,9 @@ public class Appointment {
             if ( appointment.getStartsAt().isAfter(this.getStartsAt()) && appointment.getStartsAt().isBefore(this.getFinishesAt())){
                 return true;
             }
+            if (this.getStartsAt().isAfter(appointment.getStartsAt()) && this.getStartsAt().isBefore(appointment.getFinishesAt())){
+                return true;
+            }
         }
         
         return false;
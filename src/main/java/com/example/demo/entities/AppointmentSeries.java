@@ -0,0 +1,269 @@
+package com.example.demo.entities;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.*;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A recurring booking, RRULE style: the first occurrence plus a frequency,
+ * an interval, and either a count or an inclusive {@code until} on the
+ * occurrence start. Dates in {@code exceptions} are skipped (they still use
+ * up the count, as EXDATE does). Occurrences are never stored; they are
+ * computed for the window asked for. Monthly occurrences past the end of a
+ * shorter month fall on its last day.
+ */
+@Entity
+@EntityListeners(DataChangeListener.class)
+@Table(name = "appointment_series", indexes = {
+    @Index(name = "idx_series_room_span", columnList = "room_id, startsAt, lastFinishesAt"),
+    @Index(name = "idx_series_doctor_span", columnList = "doctor_id, startsAt, lastFinishesAt"),
+    @Index(name = "idx_series_patient_span", columnList = "patient_id, startsAt, lastFinishesAt")
+})
+public class AppointmentSeries {
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    @Id
+    @GeneratedValue(generator = "appointment_series_id")
+    @GenericGenerator(name = "appointment_series_id", strategy = "com.example.demo.entities.PooledSequenceGenerator",
+                      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "appointment_series_seq"))
+    private long id;
+
+    // No REMOVE: deleting a series must not take its doctor, patient or room with it
+    @ManyToOne(cascade = { CascadeType.PERSIST, CascadeType.MERGE })
+    @JoinColumn(name = "patient_id", referencedColumnName = "id")
+    private Patient patient;
+
+    @ManyToOne(cascade = { CascadeType.PERSIST, CascadeType.MERGE })
+    @JoinColumn(name = "doctor_id", referencedColumnName = "id")
+    private Doctor doctor;
+
+    @ManyToOne(cascade = { CascadeType.PERSIST, CascadeType.MERGE })
+    @JoinColumn(name = "room_id", referencedColumnName = "roomName")
+    private Room room;
+
+    // First occurrence
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private LocalDateTime startsAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private LocalDateTime finishesAt;
+
+    @Enumerated(EnumType.STRING)
+    private Frequency frequency;
+
+    @Column(name = "repeat_interval")
+    private int interval = 1;
+
+    @Column(name = "occurrence_count")
+    private Integer count;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private LocalDateTime until;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "appointment_series_exception", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "occurrence_date")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+    private Set<LocalDate> exceptions = new HashSet<>();
+
+    // End of the last occurrence; lets queries skip series that are over
+    @JsonIgnore
+    private LocalDateTime lastFinishesAt;
+
+    public AppointmentSeries() {
+        super();
+    }
+
+    public AppointmentSeries(Patient patient, Doctor doctor, Room room, LocalDateTime startsAt, LocalDateTime finishesAt,
+                             Frequency frequency, int interval, Integer count, LocalDateTime until) {
+        this.patient = patient;
+        this.doctor = doctor;
+        this.room = room;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Patient getPatient() {
+        return this.patient;
+    }
+
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    public Doctor getDoctor() {
+        return this.doctor;
+    }
+
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public Room getRoom() {
+        return this.room;
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+
+    public Frequency getFrequency() {
+        return this.frequency;
+    }
+
+    public int getInterval() {
+        return this.interval;
+    }
+
+    public Integer getCount() {
+        return this.count;
+    }
+
+    public LocalDateTime getUntil() {
+        return this.until;
+    }
+
+    public Set<LocalDate> getExceptions() {
+        return this.exceptions;
+    }
+
+    public LocalDateTime getLastFinishesAt() {
+        return this.lastFinishesAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void computeLastFinishesAt() {
+        this.lastFinishesAt = occurrenceStart(lastIndex()).plus(duration());
+    }
+
+    @JsonIgnore
+    public Duration getDuration() {
+        return duration();
+    }
+
+    /**
+     * Number of occurrences, exceptions included.
+     */
+    public long size() {
+        return lastIndex() + 1;
+    }
+
+    /**
+     * The first occurrence's room, doctor and patient over its window.
+     */
+    public Appointment template() {
+        return new Appointment(this.patient, this.doctor, this.room, this.startsAt, this.finishesAt);
+    }
+
+    /**
+     * Occurrences overlapping [from, to), in time order, as unsaved
+     * appointments. Jumps straight to the window, so the cost depends on how
+     * many occurrences it holds, not on how long the series has run.
+     */
+    public List<Appointment> occurrences(LocalDateTime from, LocalDateTime to) {
+        final List<Appointment> occurrences = new ArrayList<>();
+        final Duration duration = duration();
+        final long last = lastIndex();
+        for (long k = firstIndexFinishingAfter(from, duration); k <= last; k++) {
+            final LocalDateTime start = occurrenceStart(k);
+            if (!start.isBefore(to)) {
+                break;
+            }
+            final LocalDateTime finish = start.plus(duration);
+            if (finish.isAfter(from) && !this.exceptions.contains(start.toLocalDate())) {
+                occurrences.add(new Appointment(this.patient, this.doctor, this.room, start, finish));
+            }
+        }
+        return occurrences;
+    }
+
+    public List<Appointment> occurrences() {
+        return occurrences(this.startsAt, occurrenceStart(lastIndex()).plus(duration()));
+    }
+
+    private Duration duration() {
+        return Duration.between(this.startsAt, this.finishesAt);
+    }
+
+    private LocalDateTime occurrenceStart(long k) {
+        switch (this.frequency) {
+            case DAILY:
+                return this.startsAt.plusDays(k * this.interval);
+            case WEEKLY:
+                return this.startsAt.plusWeeks(k * this.interval);
+            default:
+                return this.startsAt.plusMonths(k * this.interval);
+        }
+    }
+
+    // Whole periods between the first occurrence and t; occurrence k never starts after t
+    private long periodsUntil(LocalDateTime t) {
+        if (!t.isAfter(this.startsAt)) {
+            return 0;
+        }
+        switch (this.frequency) {
+            case DAILY:
+                return ChronoUnit.DAYS.between(this.startsAt, t) / this.interval;
+            case WEEKLY:
+                return ChronoUnit.WEEKS.between(this.startsAt, t) / this.interval;
+            default:
+                return ChronoUnit.MONTHS.between(this.startsAt, t) / this.interval;
+        }
+    }
+
+    private long firstIndexFinishingAfter(LocalDateTime from, Duration duration) {
+        // Everything before this index starts by from - duration, so it is over by from
+        return periodsUntil(from.minus(duration));
+    }
+
+    private long lastIndex() {
+        if (this.count != null) {
+            return this.count - 1L;
+        }
+        long k = periodsUntil(this.until);
+        while (occurrenceStart(k + 1).compareTo(this.until) <= 0) {
+            k++;
+        }
+        return k;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.entities;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.hibernate.Hibernate;
+
+/**
+ * Moves {@link DataVersion} on every insert, update and delete of the
+ * entity it is attached to.
+ */
+public class DataChangeListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Object entity) {
+        DataVersion.changedAfterCommit(Hibernate.getClass(entity), idOf(entity));
+    }
+
+    private static Object idOf(Object entity) {
+        if (entity instanceof Appointment) {
+            return ((Appointment) entity).getId();
+        }
+        if (entity instanceof Doctor) {
+            return ((Doctor) entity).getId();
+        }
+        if (entity instanceof Patient) {
+            return ((Patient) entity).getId();
+        }
+        if (entity instanceof AppointmentSeries) {
+            return ((AppointmentSeries) entity).getId();
+        }
+        if (entity instanceof Room) {
+            return ((Room) entity).getRoomName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Counters of committed changes in this instance: one overall, one per
+ * entity class, and one per entity. Anything derived from the data (cached
+ * responses, ETags) can be tagged with a counter read before the data, and
+ * is stale once that counter moves on.
+ *
+ * <p>Per-entity versions are kept in a fixed array of stripes per class, so
+ * memory doesn't grow with the table; ids sharing a stripe only see extra
+ * changes, never miss one. Writes that bypass Hibernate can only say
+ * everything changed, which moves every counter at once.
+ */
+public final class DataVersion {
+
+    private static final int STRIPES = 4096;
+
+    private static final AtomicLong VERSION = new AtomicLong();
+    private static final AtomicLong EVERYTHING = new AtomicLong();
+    private static final Map<Class<?>, Versions> BY_CLASS = new ConcurrentHashMap<>();
+    private static final Object PENDING = new Object();
+
+    private DataVersion() {
+    }
+
+    public static long current() {
+        return VERSION.get();
+    }
+
+    public static long of(Class<?> entityClass) {
+        return Math.max(EVERYTHING.get(), versions(entityClass).collection.get());
+    }
+
+    public static long of(Class<?> entityClass, Object id) {
+        return Math.max(EVERYTHING.get(), versions(entityClass).stripes.get(stripe(id)));
+    }
+
+    /**
+     * Records a change to every entity right away, for bulk writes made
+     * straight through JDBC.
+     */
+    public static void changedEverything() {
+        EVERYTHING.accumulateAndGet(VERSION.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Records a change once the surrounding transaction commits (never if it
+     * rolls back), or right away outside a transaction.
+     */
+    static void changedAfterCommit(Class<?> entityClass, Object id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(entityClass, id);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(PENDING);
+        if (pending == null) {
+            final List<Object[]> changes = new ArrayList<>();
+            pending = changes;
+            TransactionSynchronizationManager.bindResource(PENDING, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING);
+                    if (status == STATUS_COMMITTED) {
+                        final long version = VERSION.incrementAndGet();
+                        for (Object[] change : changes) {
+                            versions((Class<?>) change[0]).set(change[1], version);
+                        }
+                    }
+                }
+            });
+        }
+        pending.add(new Object[] { entityClass, id });
+    }
+
+    private static void publish(Class<?> entityClass, Object id) {
+        versions(entityClass).set(id, VERSION.incrementAndGet());
+    }
+
+    private static Versions versions(Class<?> entityClass) {
+        return BY_CLASS.computeIfAbsent(entityClass, c -> new Versions());
+    }
+
+    private static int stripe(Object id) {
+        final int hash = id == null ? 0 : id.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Versions {
+
+        final AtomicLong collection = new AtomicLong();
+        final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+
+        // Versions only move forward, even when two commits publish out of order
+        void set(Object id, long version) {
+            collection.accumulateAndGet(version, Math::max);
+            stripes.accumulateAndGet(stripe(id), version, Math::max);
+        }
+    }
+}
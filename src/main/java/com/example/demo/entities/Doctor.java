@@ -2,12 +2,22 @@ package com.example.demo.entities;
 
 import javax.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 @Entity
+@EntityListeners(DataChangeListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name="doctors")
 public class Doctor extends Person {
 
     @Id
-    @GeneratedValue(strategy=GenerationType.AUTO)
+    @GeneratedValue(generator = "doctor_id")
+    @GenericGenerator(name = "doctor_id", strategy = "com.example.demo.entities.PooledSequenceGenerator",
+                      parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "doctor_seq"))
     private long id;
  
     public Doctor() {
@@ -0,0 +1,35 @@
+package com.example.demo.entities;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Per-entity sequence (or sequence table, on MySQL) with the pooled-lo
+ * optimizer: one round-trip reserves a whole block of ids, so inserts neither
+ * queue on a shared {@code hibernate_sequence} row nor break JDBC batching.
+ *
+ * <p>The block size comes from {@code spring.jpa.properties.techhub.id.allocation-size}.
+ * Sequences created on a database that already has rows are moved past
+ * them at startup by {@link com.example.demo.IdSequences}.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "techhub.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        final Object allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                                                     .getSettings()
+                                                     .get(ALLOCATION_SIZE_SETTING);
+        params.setProperty(INCREMENT_PARAM, allocationSize == null ? String.valueOf(DEFAULT_ALLOCATION_SIZE) : allocationSize.toString());
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
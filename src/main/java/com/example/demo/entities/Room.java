@@ -1,14 +1,25 @@
 package com.example.demo.entities;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
+@EntityListeners(DataChangeListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Room {
 
     @Id
     private String roomName;
 
+    // How many appointments it takes at once; the default keeps rows that predate the column single-occupancy
+    @Column(columnDefinition = "integer default 1 not null")
+    private int capacity = 1;
+
     public Room(){
         super();
     }
@@ -18,9 +29,19 @@ public class Room {
         this.roomName = roomName;
     }
 
+    public Room( String roomName, int capacity){
+        super();
+        this.roomName = roomName;
+        this.capacity = capacity;
+    }
+
 
     public String getRoomName(){
         return this.roomName;
     }
 
+    public int getCapacity(){
+        return this.capacity;
+    }
+
 }
@@ -0,0 +1,19 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events.
+ */
+public final class Counter {
+
+    final LongAdder count = new LongAdder();
+
+    public void increment() {
+        this.count.increment();
+    }
+
+    public long count() {
+        return this.count.sum();
+    }
+}
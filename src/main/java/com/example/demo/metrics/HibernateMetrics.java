@@ -0,0 +1,79 @@
+package com.example.demo.metrics;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate's own statistics (statements, queries, entity loads, second-level
+ * cache hits per region), read when scraped. Hibernate only keeps them with
+ * {@code hibernate.generate_statistics}; without it they all stay at zero.
+ */
+@Component
+public class HibernateMetrics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    @PostConstruct
+    public void register() {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final MetricRegistry registry = metricRegistry;
+
+        registry.functionCounter("hibernate_sessions_open_total", "Sessions opened",
+                                 statistics::getSessionOpenCount);
+        registry.functionCounter("hibernate_transactions_total", "Transactions completed",
+                                 statistics::getSuccessfulTransactionCount, "result", "success");
+        registry.functionCounter("hibernate_transactions_total", "Transactions completed",
+                                 () -> statistics.getTransactionCount() - statistics.getSuccessfulTransactionCount(),
+                                 "result", "failure");
+        registry.functionCounter("hibernate_statements_total", "JDBC statements prepared",
+                                 statistics::getPrepareStatementCount, "status", "prepared");
+        registry.functionCounter("hibernate_flushes_total", "Session flushes", statistics::getFlushCount);
+
+        registry.functionCounter("hibernate_query_executions_total", "HQL and SQL queries run",
+                                 statistics::getQueryExecutionCount);
+        registry.gauge("hibernate_query_executions_max_seconds", "Slowest query run",
+                       () -> statistics.getQueryExecutionMaxTime() / 1000.0);
+        registry.functionCounter("hibernate_query_cache_requests_total", "Query cache lookups",
+                                 statistics::getQueryCacheHitCount, "result", "hit");
+        registry.functionCounter("hibernate_query_cache_requests_total", "Query cache lookups",
+                                 statistics::getQueryCacheMissCount, "result", "miss");
+
+        registry.functionCounter("hibernate_entities_loads_total", "Entities loaded", statistics::getEntityLoadCount);
+        registry.functionCounter("hibernate_entities_fetches_total", "Entities fetched lazily or by id",
+                                 statistics::getEntityFetchCount);
+        registry.functionCounter("hibernate_entities_inserts_total", "Entities inserted", statistics::getEntityInsertCount);
+        registry.functionCounter("hibernate_entities_updates_total", "Entities updated", statistics::getEntityUpdateCount);
+        registry.functionCounter("hibernate_entities_deletes_total", "Entities deleted", statistics::getEntityDeleteCount);
+        registry.functionCounter("hibernate_collections_loads_total", "Collections loaded",
+                                 statistics::getCollectionLoadCount);
+
+        registry.functionCounter("hibernate_second_level_cache_requests_total", "Second-level cache lookups, all regions",
+                                 statistics::getSecondLevelCacheHitCount, "result", "hit", "region", "all");
+        registry.functionCounter("hibernate_second_level_cache_requests_total", "Second-level cache lookups, all regions",
+                                 statistics::getSecondLevelCacheMissCount, "result", "miss", "region", "all");
+        registry.functionCounter("hibernate_second_level_cache_puts_total", "Second-level cache puts",
+                                 statistics::getSecondLevelCachePutCount, "region", "all");
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            final CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            registry.functionCounter("hibernate_second_level_cache_requests_total", "Second-level cache lookups",
+                                     region::getHitCount, "result", "hit", "region", name);
+            registry.functionCounter("hibernate_second_level_cache_requests_total", "Second-level cache lookups",
+                                     region::getMissCount, "result", "miss", "region", name);
+            registry.functionCounter("hibernate_second_level_cache_puts_total", "Second-level cache puts",
+                                     region::getPutCount, "region", name);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.metrics;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Connection pool metrics through Hikari's own tracker hook: how long
+ * borrowers wait for a connection and hold it, timeouts, and the pool's
+ * active, idle and pending counts. A pool that isn't Hikari is left alone.
+ */
+@Component
+public class HikariMetrics implements MetricsTrackerFactory {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    @PostConstruct
+    public void register() throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            final HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            if (hikari.getMetricsTrackerFactory() == null && hikari.getMetricRegistry() == null) {
+                hikari.setMetricsTrackerFactory(this);
+            }
+        }
+    }
+
+    @Override
+    public IMetricsTracker create(final String poolName, final PoolStats stats) {
+        final MetricRegistry registry = metricRegistry;
+        registry.gauge("hikaricp_connections", "Connections in the pool", stats::getTotalConnections, "pool", poolName);
+        registry.gauge("hikaricp_connections_active", "Connections lent out", stats::getActiveConnections, "pool", poolName);
+        registry.gauge("hikaricp_connections_idle", "Connections waiting to be lent", stats::getIdleConnections, "pool", poolName);
+        registry.gauge("hikaricp_connections_pending", "Threads waiting for a connection", stats::getPendingThreads, "pool", poolName);
+        registry.gauge("hikaricp_connections_max", "Most connections the pool opens", stats::getMaxConnections, "pool", poolName);
+        registry.gauge("hikaricp_connections_min", "Fewest idle connections the pool keeps", stats::getMinConnections, "pool", poolName);
+
+        final Histogram acquire = registry.timer("hikaricp_connections_acquire_seconds", "Wait to borrow a connection", "pool", poolName);
+        final Histogram usage = registry.timer("hikaricp_connections_usage_seconds", "Time a connection was held", "pool", poolName);
+        final Histogram creation = registry.timer("hikaricp_connections_creation_seconds", "Time to open a connection", "pool", poolName);
+        final Counter timeouts = registry.counter("hikaricp_connections_timeout_total", "Borrowers that gave up waiting", "pool", poolName);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {
+                acquire.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(final long elapsedBorrowedMillis) {
+                usage.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+            }
+
+            @Override
+            public void recordConnectionCreatedMillis(final long connectionCreatedMillis) {
+                creation.record(TimeUnit.MILLISECONDS.toNanos(connectionCreatedMillis));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of recorded values per bucket, plus their sum. Values and bucket
+ * bounds are longs in the recording unit (nanoseconds for timers); the
+ * scrape scales them, so recording is a short scan of the bounds and two
+ * uncontended adds.
+ */
+public final class Histogram {
+
+    final long[] bounds;
+    final double scale;
+    final LongAdder[] counts;
+    final LongAdder sum = new LongAdder();
+
+    Histogram(final long[] bounds, final double scale) {
+        this.bounds = bounds;
+        this.scale = scale;
+        // The last one counts what lies past every bound (+Inf)
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long value) {
+        int bucket = 0;
+        while (bucket < this.bounds.length && value > this.bounds[bucket]) {
+            bucket++;
+        }
+        this.counts[bucket].increment();
+        this.sum.add(value);
+    }
+
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : this.counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+}
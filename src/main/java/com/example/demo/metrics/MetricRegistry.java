@@ -0,0 +1,175 @@
+package com.example.demo.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * The application's metrics, scraped in the Prometheus text format from
+ * {@code GET /actuator/prometheus}. Names and labels follow Micrometer's
+ * Prometheus conventions, so dashboards keep working if Actuator takes over.
+ *
+ * <p>Counters and histograms are recorded on the hot path: look one up once
+ * (by name and label pairs) and keep it, then recording is lock-free.
+ * Gauges and function counters read their value only when scraped.
+ */
+@Component
+public class MetricRegistry {
+
+    // Seconds: 1 ms to 10 s
+    static final long[] TIMER_BOUNDS = nanos(0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10);
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public Counter counter(final String name, final String help, final String... labels) {
+        return (Counter) family(name, "counter", help).children.computeIfAbsent(labels(labels), l -> new Counter());
+    }
+
+    /**
+     * A histogram of durations, recorded in nanoseconds and scraped in seconds.
+     */
+    public Histogram timer(final String name, final String help, final String... labels) {
+        return histogram(name, help, TIMER_BOUNDS, 1e-9, labels);
+    }
+
+    public Histogram histogram(final String name, final String help, final long[] bounds, final double scale,
+                               final String... labels) {
+        return (Histogram) family(name, "histogram", help).children.computeIfAbsent(labels(labels),
+                                                                                     l -> new Histogram(bounds, scale));
+    }
+
+    public void gauge(final String name, final String help, final DoubleSupplier value, final String... labels) {
+        family(name, "gauge", help).children.put(labels(labels), value);
+    }
+
+    /**
+     * A counter kept elsewhere (Hibernate's statistics, say), read when scraped.
+     */
+    public void functionCounter(final String name, final String help, final DoubleSupplier value, final String... labels) {
+        family(name, "counter", help).children.put(labels(labels), value);
+    }
+
+    private Family family(final String name, final String type, final String help) {
+        final Family family = this.families.computeIfAbsent(name, n -> new Family(type, help));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Every metric in the text exposition format, version 0.0.4.
+     */
+    public void scrape(final StringBuilder out) {
+        for (Map.Entry<String, Family> family : this.families.entrySet()) {
+            final String name = family.getKey();
+            out.append("# HELP ").append(name).append(' ').append(family.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.getValue().type).append('\n');
+            for (Map.Entry<String, Object> child : family.getValue().children.entrySet()) {
+                final String labels = child.getKey();
+                final Object meter = child.getValue();
+                if (meter instanceof Counter) {
+                    sample(out, name, labels, null, ((Counter) meter).count());
+                } else if (meter instanceof Histogram) {
+                    histogram(out, name, labels, (Histogram) meter);
+                } else {
+                    final double value;
+                    try {
+                        value = ((DoubleSupplier) meter).getAsDouble();
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    sample(out, name, labels, null, value);
+                }
+            }
+        }
+    }
+
+    private static void histogram(final StringBuilder out, final String name, final String labels, final Histogram histogram) {
+        long cumulative = 0;
+        for (int i = 0; i < histogram.counts.length; i++) {
+            cumulative += histogram.counts[i].sum();
+            final String le = i < histogram.bounds.length ? number(histogram.bounds[i] * histogram.scale) : "+Inf";
+            sample(out, name + "_bucket", labels, "le=\"" + le + "\"", cumulative);
+        }
+        sample(out, name + "_count", labels, null, cumulative);
+        sample(out, name + "_sum", labels, null, histogram.sum.sum() * histogram.scale);
+    }
+
+    private static void sample(final StringBuilder out, final String name, final String labels, final String extra,
+                               final double value) {
+        out.append(name);
+        if (!labels.isEmpty() || extra != null) {
+            out.append('{').append(labels);
+            if (extra != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(number(value)).append('\n');
+    }
+
+    private static String number(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    // name="value" pairs, in the order given
+    private static String labels(final String... pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels come in name, value pairs");
+        }
+        final StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(pairs[i]).append("=\"");
+            final String value = pairs[i + 1] == null ? "" : pairs[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                final char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    labels.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    labels.append("\\n");
+                } else {
+                    labels.append(ch);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.toString();
+    }
+
+    static long[] nanos(final double... seconds) {
+        final long[] nanos = new long[seconds.length];
+        for (int i = 0; i < seconds.length; i++) {
+            nanos[i] = (long) (seconds[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+        return nanos;
+    }
+
+    private static final class Family {
+
+        final String type;
+        final String help;
+        final ConcurrentMap<String, Object> children = new ConcurrentSkipListMap<>();
+
+        Family(final String type, final String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional restrictions for appointment listings; {@code null} means "any".
+ * {@code from}/{@code to} bound the start time as [from, to).
+ */
+public class AppointmentFilter {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String roomName;
+    private final Long doctorId;
+    private final Long patientId;
+
+    public AppointmentFilter(LocalDateTime from, LocalDateTime to, String roomName, Long doctorId, Long patientId) {
+        this.from = from;
+        this.to = to;
+        this.roomName = roomName;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+    }
+
+    public static AppointmentFilter none() {
+        return new AppointmentFilter(null, null, null, null, null);
+    }
+
+    public LocalDateTime getFrom() {
+        return this.from;
+    }
+
+    public LocalDateTime getTo() {
+        return this.to;
+    }
+
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    public Long getDoctorId() {
+        return this.doctorId;
+    }
+
+    public Long getPatientId() {
+        return this.patientId;
+    }
+}
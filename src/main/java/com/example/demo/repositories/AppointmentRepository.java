@@ -1,14 +1,116 @@
 
 package com.example.demo.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import com.example.demo.entities.Appointment;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
+    // The associations are eager; without the graph each distinct one costs its own select
+    @EntityGraph(attributePaths = { "patient", "doctor", "room" })
     List<Appointment> findAll();
+
+    @EntityGraph(attributePaths = { "patient", "doctor", "room" })
+    Optional<Appointment> findById(Long id);
+
     Appointment save(Appointment appointment);
     void delete(Appointment appointment);
+
+    @Query("select new com.example.demo.repositories.AppointmentSlot(a.id, a.room.roomName, a.startsAt, a.finishesAt, a.doctor.id, a.patient.id) " +
+           "from Appointment a")
+    List<AppointmentSlot> findAllSlots();
+
+    @Query("select new com.example.demo.repositories.AppointmentSlot(a.id, a.room.roomName, a.startsAt, a.finishesAt) from Appointment a " +
+           "where a.room.roomName = :roomName and a.startsAt >= :from and a.startsAt < :to")
+    List<AppointmentSlot> findSlots(@Param("roomName") String roomName,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    @Query("select new com.example.demo.repositories.AppointmentSlot(a.id, a.room.roomName, a.startsAt, a.finishesAt) from Appointment a " +
+           "where a.doctor.id = :doctorId and a.startsAt >= :from and a.startsAt < :to")
+    List<AppointmentSlot> findDoctorSlots(@Param("doctorId") long doctorId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    @Query("select new com.example.demo.repositories.AppointmentSlot(a.id, a.room.roomName, a.startsAt, a.finishesAt) from Appointment a " +
+           "where a.patient.id = :patientId and a.startsAt >= :from and a.startsAt < :to")
+    List<AppointmentSlot> findPatientSlots(@Param("patientId") long patientId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    // Bookings overlapping [from, to) in one room, in start order. Same
+    // earliestStart bound as existsOverlap, so the index range stays narrow.
+    @Query("select new com.example.demo.repositories.AppointmentSlot(a.id, a.room.roomName, a.startsAt, a.finishesAt) from Appointment a " +
+           "where a.room.roomName = :roomName and a.startsAt >= :earliestStart " +
+           "and a.startsAt < :to and a.finishesAt > :from order by a.startsAt, a.id")
+    List<AppointmentSlot> findSlotsOverlapping(@Param("roomName") String roomName,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("earliestStart") LocalDateTime earliestStart);
+
+    // Same window across every room, served by the (startsAt, id) index
+    @Query("select new com.example.demo.repositories.AppointmentSlot(a.id, a.room.roomName, a.startsAt, a.finishesAt) from Appointment a " +
+           "where a.startsAt >= :earliestStart " +
+           "and a.startsAt < :to and a.finishesAt > :from")
+    List<AppointmentSlot> findAllSlotsOverlapping(@Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  @Param("earliestStart") LocalDateTime earliestStart);
+
+    // One seek on the durationSeconds index; null when there are no appointments
+    @Query("select max(a.durationSeconds) from Appointment a")
+    Long findLongestDurationSeconds();
+
+    // Rows written before duration_seconds existed, or around Hibernate
+    @Modifying
+    @Transactional
+    @Query(value = "update appointment set duration_seconds = timestampdiff(SECOND, starts_at, finishes_at) " +
+                   "where duration_seconds is null", nativeQuery = true)
+    int fillMissingDurations();
+
+    // Forward-only cursor for exports; must be consumed and closed inside a transaction.
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select a from Appointment a left join fetch a.patient left join fetch a.doctor left join fetch a.room order by a.startsAt, a.id")
+    Stream<Appointment> streamAllBy();
+
+    // Half-open overlap with [startsAt, finishesAt) in one room. The lower bound on
+    // startsAt (start minus the longest stored booking) keeps it a bounded range
+    // scan of the (room_id, startsAt, finishesAt) index.
+    @Query("select case when count(a) > 0 then true else false end from Appointment a " +
+           "where a.room.roomName = :roomName and a.startsAt >= :earliestStart " +
+           "and a.startsAt < :finishesAt and a.finishesAt > :startsAt")
+    boolean existsOverlap(@Param("roomName") String roomName,
+                          @Param("startsAt") LocalDateTime startsAt,
+                          @Param("finishesAt") LocalDateTime finishesAt,
+                          @Param("earliestStart") LocalDateTime earliestStart);
+
+    // existsOverlap for one doctor, on the (doctor_id, startsAt, finishesAt) index
+    @Query("select case when count(a) > 0 then true else false end from Appointment a " +
+           "where a.doctor.id = :doctorId and a.startsAt >= :earliestStart " +
+           "and a.startsAt < :finishesAt and a.finishesAt > :startsAt")
+    boolean existsDoctorOverlap(@Param("doctorId") long doctorId,
+                                @Param("startsAt") LocalDateTime startsAt,
+                                @Param("finishesAt") LocalDateTime finishesAt,
+                                @Param("earliestStart") LocalDateTime earliestStart);
+
+    // existsOverlap for one patient, on the (patient_id, startsAt, finishesAt) index
+    @Query("select case when count(a) > 0 then true else false end from Appointment a " +
+           "where a.patient.id = :patientId and a.startsAt >= :earliestStart " +
+           "and a.startsAt < :finishesAt and a.finishesAt > :startsAt")
+    boolean existsPatientOverlap(@Param("patientId") long patientId,
+                                 @Param("startsAt") LocalDateTime startsAt,
+                                 @Param("finishesAt") LocalDateTime finishesAt,
+                                 @Param("earliestStart") LocalDateTime earliestStart);
 }
@@ -0,0 +1,16 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AppointmentRepositoryCustom {
+
+    /**
+     * Up to {@code limit} appointments matching {@code filter}, ordered by
+     * (startsAt, id) and strictly after the keyset cursor
+     * ({@code afterStartsAt}, {@code afterId}); a null {@code afterStartsAt}
+     * starts from the beginning. Selected as flat rows, patient, doctor and
+     * room outer-joined in the same statement.
+     */
+    List<AppointmentSummary> findPage(AppointmentFilter filter, LocalDateTime afterStartsAt, long afterId, int limit);
+}
@@ -0,0 +1,78 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+
+public class AppointmentRepositoryImpl implements AppointmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AppointmentSummary> findPage(AppointmentFilter filter, LocalDateTime afterStartsAt, long afterId, int limit) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<AppointmentSummary> query = cb.createQuery(AppointmentSummary.class);
+        final Root<Appointment> appointment = query.from(Appointment.class);
+        final Join<Appointment, Doctor> doctor = appointment.join("doctor", JoinType.LEFT);
+        final Join<Appointment, Patient> patient = appointment.join("patient", JoinType.LEFT);
+        final Path<LocalDateTime> startsAt = appointment.get("startsAt");
+        final Path<Long> id = appointment.get("id");
+
+        final List<Predicate> where = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(startsAt, filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            where.add(cb.lessThan(startsAt, filter.getTo()));
+        }
+        if (filter.getRoomName() != null) {
+            where.add(cb.equal(appointment.get("room").get("roomName"), filter.getRoomName()));
+        }
+        if (filter.getDoctorId() != null) {
+            where.add(cb.equal(appointment.get("doctor").get("id"), filter.getDoctorId()));
+        }
+        if (filter.getPatientId() != null) {
+            where.add(cb.equal(appointment.get("patient").get("id"), filter.getPatientId()));
+        }
+        if (afterStartsAt != null) {
+            where.add(cb.or(cb.greaterThan(startsAt, afterStartsAt),
+                            cb.and(cb.equal(startsAt, afterStartsAt), cb.greaterThan(id, afterId))));
+        }
+
+        query.select(cb.construct(AppointmentSummary.class,
+                                  id,
+                                  appointment.get("room").get("roomName"),
+                                  doctor.get("id"),
+                                  fullName(cb, doctor.get("firstName"), doctor.get("lastName")),
+                                  patient.get("id"),
+                                  fullName(cb, patient.get("firstName"), patient.get("lastName")),
+                                  startsAt,
+                                  appointment.get("finishesAt")))
+             .where(where.toArray(new Predicate[0]))
+             .orderBy(cb.asc(startsAt), cb.asc(id));
+
+        return entityManager.createQuery(query)
+                            .setMaxResults(limit)
+                            .getResultList();
+    }
+
+    private static Expression<String> fullName(CriteriaBuilder cb, Expression<String> firstName, Expression<String> lastName) {
+        return cb.concat(cb.concat(firstName, " "), lastName);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.demo.entities.AppointmentSeries;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, Long> {
+    // distinct: the exceptions join repeats a series once per exception
+    @EntityGraph(attributePaths = { "patient", "doctor", "room", "exceptions" })
+    @Query("select distinct s from AppointmentSeries s")
+    List<AppointmentSeries> findAll();
+
+    // Series that may have an occurrence in [from, to)
+    @EntityGraph(attributePaths = { "patient", "doctor", "room", "exceptions" })
+    @Query("select distinct s from AppointmentSeries s where s.startsAt < :to and s.lastFinishesAt > :from")
+    List<AppointmentSeries> findOverlapping(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // The same, booked under any of the keys; a null key matches nothing
+    @EntityGraph(attributePaths = { "patient", "doctor", "room", "exceptions" })
+    @Query("select distinct s from AppointmentSeries s where s.startsAt < :to and s.lastFinishesAt > :from " +
+           "and (s.room.roomName = :roomName or s.doctor.id = :doctorId or s.patient.id = :patientId)")
+    List<AppointmentSeries> findOverlapping(@Param("roomName") String roomName,
+                                            @Param("doctorId") Long doctorId,
+                                            @Param("patientId") Long patientId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,58 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scalar view of an appointment's booking window, read without hydrating the
+ * patient, doctor and room associations. Built by a constructor expression:
+ * these queries return thousands of rows, and an interface projection would
+ * wrap every one of them in a proxy.
+ */
+public class AppointmentSlot {
+
+    private final long id;
+    private final String roomName;
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+    private final Long doctorId;
+    private final Long patientId;
+
+    public AppointmentSlot(long id, String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        this(id, roomName, startsAt, finishesAt, null, null);
+    }
+
+    public AppointmentSlot(long id, String roomName, LocalDateTime startsAt, LocalDateTime finishesAt,
+                           Long doctorId, Long patientId) {
+        this.id = id;
+        this.roomName = roomName;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+
+    // Only set by the queries that need them
+    public Long getDoctorId() {
+        return this.doctorId;
+    }
+
+    public Long getPatientId() {
+        return this.patientId;
+    }
+}
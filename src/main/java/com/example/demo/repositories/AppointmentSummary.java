@@ -0,0 +1,67 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Flat, read-only row of the appointment listing, built straight from the
+ * query's columns: no managed entities, no nested patient/doctor/room objects.
+ */
+public final class AppointmentSummary {
+
+    private final long id;
+    private final String roomName;
+    private final Long doctorId;
+    private final String doctorName;
+    private final Long patientId;
+    private final String patientName;
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+
+    public AppointmentSummary(long id, String roomName, Long doctorId, String doctorName,
+                              Long patientId, String patientName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        this.id = id;
+        this.roomName = roomName;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    public Long getDoctorId() {
+        return this.doctorId;
+    }
+
+    public String getDoctorName() {
+        return this.doctorName;
+    }
+
+    public Long getPatientId() {
+        return this.patientId;
+    }
+
+    public String getPatientName() {
+        return this.patientName;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+}
@@ -1,13 +1,27 @@
 package com.example.demo.repositories;
 
 import java.util.List;
+import java.util.Optional;
 
 import com.example.demo.entities.Doctor;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findAll();
     Doctor save(Doctor doc);
     void delete(Doctor doc);
+    // Selected straight into the DTO; see PersonSummary
+    List<PersonSummary> findByIdGreaterThan(long id, Pageable pageable);
+
+    // SELECT ... FOR UPDATE; held until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from Doctor d where d.id = :id")
+    Optional<Doctor> lockById(@Param("id") long id);
 }
@@ -2,13 +2,27 @@
 package com.example.demo.repositories;
 
 import java.util.List;
+import java.util.Optional;
 
 import com.example.demo.entities.Patient;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     List<Patient> findAll();
     Patient save(Patient doc);
     void delete(Patient doc);
+    // Selected straight into the DTO; see PersonSummary
+    List<PersonSummary> findByIdGreaterThan(long id, Pageable pageable);
+
+    // SELECT ... FOR UPDATE; held until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Patient p where p.id = :id")
+    Optional<Patient> lockById(@Param("id") long id);
 }
@@ -0,0 +1,43 @@
+package com.example.demo.repositories;
+
+/**
+ * Read-only row of the doctor and patient listings. Same JSON as the
+ * entities, but selected as plain columns, so Hibernate keeps no managed
+ * instances or dirty-checking snapshots for it.
+ */
+public final class PersonSummary {
+
+    private final long id;
+    private final String firstName;
+    private final String lastName;
+    private final int age;
+    private final String email;
+
+    public PersonSummary(long id, String firstName, String lastName, int age, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.age = age;
+        this.email = email;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    public int getAge() {
+        return this.age;
+    }
+
+    public String getEmail() {
+        return this.email;
+    }
+}
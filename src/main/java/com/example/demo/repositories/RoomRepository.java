@@ -6,12 +6,41 @@ import java.util.Optional;
 
 import com.example.demo.entities.Room;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RoomRepository extends JpaRepository<Room, Long> {
+public interface RoomRepository extends JpaRepository<Room, String> {
     List<Room> findAll();
-    Optional<Room> findByRoomName(String roomName);
+
+    // roomName is the id: a primary-key lookup, so it is served from the second-level cache
+    default Optional<Room> findByRoomName(String roomName) {
+        return findById(roomName);
+    }
+
     Room save(Room room);
     void delete(Room room);
-    void deleteByRoomName(String roomName);
+
+    // A derived delete would need a caller's transaction; deleteById brings its own
+    default void deleteByRoomName(String roomName) {
+        deleteById(roomName);
+    }
+
+    List<RoomSummary> findByRoomNameGreaterThan(String roomName, Pageable pageable);
+
+    @Query("select r.roomName from Room r")
+    List<String> findAllRoomNames();
+
+    // Rooms that take more than one booking at a time
+    @Query("select new com.example.demo.repositories.RoomSummary(r.roomName, r.capacity) from Room r where r.capacity > 1")
+    List<RoomSummary> findSharedRooms();
+
+    // SELECT ... FOR UPDATE; held until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.roomName = :roomName")
+    Optional<Room> lockByRoomName(@Param("roomName") String roomName);
 }
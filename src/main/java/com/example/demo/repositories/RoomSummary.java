@@ -0,0 +1,23 @@
+package com.example.demo.repositories;
+
+/**
+ * Read-only row of the room listing; same JSON as {@code Room}.
+ */
+public final class RoomSummary {
+
+    private final String roomName;
+    private final int capacity;
+
+    public RoomSummary(String roomName, int capacity) {
+        this.roomName = roomName;
+        this.capacity = capacity;
+    }
+
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+}
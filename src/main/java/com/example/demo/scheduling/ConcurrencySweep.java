@@ -0,0 +1,93 @@
+package com.example.demo.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sweep line over booked intervals: the most of them in progress at the same
+ * instant of a window. Starts and finishes are sorted separately and walked
+ * together, finishes first on ties, since a booking ending at t frees its
+ * place for one starting at t.
+ */
+public final class ConcurrencySweep {
+
+    private ConcurrencySweep() {
+    }
+
+    /**
+     * @param limit the count at which to stop looking; the result never exceeds it
+     * @return the peak number of {@code booked} intervals overlapping [start, finish) at once
+     */
+    public static int max(final Collection<Interval> booked, final long start, final long finish, final int limit) {
+        final long[] starts = new long[booked.size()];
+        final long[] finishes = new long[booked.size()];
+        final int n = clip(booked, start, finish, starts, finishes);
+
+        int active = 0;
+        int peak = 0;
+        for (int i = 0, j = 0; i < n && peak < limit; i++) {
+            while (finishes[j] <= starts[i]) {
+                active--;
+                j++;
+            }
+            peak = Math.max(peak, ++active);
+        }
+        return peak;
+    }
+
+    /**
+     * @return the stretches of [start, finish) where at least {@code capacity}
+     *         of {@code booked} are in progress at once, disjoint and in time order
+     */
+    public static List<Interval> full(final Collection<Interval> booked, final long start, final long finish, final int capacity) {
+        final long[] starts = new long[booked.size()];
+        final long[] finishes = new long[booked.size()];
+        final int n = clip(booked, start, finish, starts, finishes);
+
+        final List<Interval> full = new ArrayList<>();
+        int active = 0;
+        long from = start;
+        for (int i = 0, j = 0; j < n; ) {
+            if (i < n && starts[i] < finishes[j]) {
+                if (++active == capacity) {
+                    from = starts[i];
+                }
+                i++;
+            } else {
+                if (active-- == capacity) {
+                    final int last = full.size() - 1;
+                    // A place freed and retaken at the same instant doesn't break the stretch
+                    if (last >= 0 && full.get(last).getFinish() == from) {
+                        from = full.remove(last).getStart();
+                    }
+                    full.add(new Interval(0, from, finishes[j]));
+                }
+                j++;
+            }
+        }
+        return full;
+    }
+
+    public static boolean isFull(final Collection<Interval> booked, final long start, final long finish, final int capacity) {
+        return max(booked, start, finish, capacity) >= capacity;
+    }
+
+    // Sorted starts and finishes of the intervals overlapping [start, finish), cut to it
+    private static int clip(final Collection<Interval> booked, final long start, final long finish,
+                            final long[] starts, final long[] finishes) {
+        ScannedCandidates.add(booked.size());
+        int n = 0;
+        for (Interval interval : booked) {
+            if (interval.overlaps(start, finish)) {
+                starts[n] = Math.max(interval.getStart(), start);
+                finishes[n] = Math.min(interval.getFinish(), finish);
+                n++;
+            }
+        }
+        Arrays.sort(starts, 0, n);
+        Arrays.sort(finishes, 0, n);
+        return n;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+
+/**
+ * Decides whether a new appointment collides with an existing booking.
+ *
+ * <p>The engine is picked with {@code appointments.conflict-engine}:
+ * {@code memory} (default) keeps a per-room index in this JVM, {@code sql}
+ * asks the database and is the one to use when several instances share it.
+ */
+public interface ConflictDetector {
+
+    /**
+     * True if the appointment overlaps a booking of its doctor or patient, or
+     * would take its room past {@link com.example.demo.entities.Room#getCapacity capacity}
+     * at some instant of its window.
+     */
+    boolean collides(Appointment appointment);
+
+    /**
+     * {@link #collides} for many appointments at once; element i of the result
+     * is the answer for appointment i. Engines override it when checking a
+     * whole batch is cheaper than checking its items one by one.
+     */
+    default boolean[] collides(List<Appointment> appointments) {
+        final boolean[] collisions = new boolean[appointments.size()];
+        for (int i = 0; i < collisions.length; i++) {
+            collisions[i] = collides(appointments.get(i));
+        }
+        return collisions;
+    }
+
+    /**
+     * Intervals booked in the room that overlap [from, to), series
+     * occurrences included; what a capacity check has to count.
+     */
+    List<Interval> booked(String roomName, LocalDateTime from, LocalDateTime to);
+
+    // Notifications from the write path; engines without local state ignore them.
+    void add(Appointment appointment);
+
+    void remove(Appointment appointment);
+
+    // Every occurrence of a series counts as a booking; adding one again replaces it without a gap
+    void addSeries(AppointmentSeries series);
+
+    void removeSeries(AppointmentSeries series);
+
+    void clear();
+}
@@ -0,0 +1,108 @@
+package com.example.demo.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.repositories.AppointmentSlot;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * What can't be double-booked, from {@code appointments.conflict-dimensions}
+ * (comma-separated {@code room}, {@code doctor}, {@code patient}). Every
+ * engine keeps one index, or runs one range query, per enabled dimension.
+ */
+@Component
+public class ConflictDimensions {
+
+    public enum Dimension {
+        ROOM,
+        DOCTOR,
+        PATIENT;
+
+        /**
+         * @return the room name or person id the appointment is booked under,
+         *         or null if it has none (an unsaved doctor or patient can't clash)
+         */
+        public Object keyOf(final Appointment appointment) {
+            switch (this) {
+                case ROOM:
+                    return appointment.getRoom() == null ? null : appointment.getRoom().getRoomName();
+                case DOCTOR:
+                    return appointment.getDoctor() == null || appointment.getDoctor().getId() == 0 ? null : appointment.getDoctor().getId();
+                default:
+                    return appointment.getPatient() == null || appointment.getPatient().getId() == 0 ? null : appointment.getPatient().getId();
+            }
+        }
+
+        /**
+         * @return how many bookings may share the key at once: the room's
+         *         capacity, and always 1 for a doctor or a patient
+         */
+        public int capacityOf(final Appointment appointment) {
+            return this == ROOM && appointment.getRoom() != null ? Math.max(1, appointment.getRoom().getCapacity()) : 1;
+        }
+
+        public Object keyOf(final AppointmentSlot slot) {
+            switch (this) {
+                case ROOM:
+                    return slot.getRoomName();
+                case DOCTOR:
+                    return slot.getDoctorId();
+                default:
+                    return slot.getPatientId();
+            }
+        }
+    }
+
+    private final Set<Dimension> enabled;
+
+    public ConflictDimensions(@Value("${appointments.conflict-dimensions:room}") final String dimensions) {
+        final Set<Dimension> enabled = EnumSet.noneOf(Dimension.class);
+        for (String dimension : dimensions.split(",")) {
+            if (!dimension.trim().isEmpty()) {
+                enabled.add(Dimension.valueOf(dimension.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        this.enabled = Collections.unmodifiableSet(enabled);
+    }
+
+    public static ConflictDimensions of(final Dimension... dimensions) {
+        final StringBuilder names = new StringBuilder();
+        for (Dimension dimension : dimensions) {
+            names.append(dimension).append(',');
+        }
+        return new ConflictDimensions(names.toString());
+    }
+
+    public Set<Dimension> enabled() {
+        return this.enabled;
+    }
+
+    public boolean isEnabled(final Dimension dimension) {
+        return this.enabled.contains(dimension);
+    }
+
+    /**
+     * One {@link RoomLocks} key per enabled dimension the appointment is
+     * booked under; holding all of them serialises it against every booking
+     * it could clash with.
+     */
+    public List<Object> lockKeys(final Appointment appointment) {
+        final List<Object> keys = new ArrayList<>(this.enabled.size());
+        for (Dimension dimension : this.enabled) {
+            final Object key = dimension.keyOf(appointment);
+            if (key != null) {
+                keys.add(Arrays.asList(dimension, key));
+            }
+        }
+        return keys;
+    }
+}
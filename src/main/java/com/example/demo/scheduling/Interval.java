@@ -0,0 +1,95 @@
+package com.example.demo.scheduling;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.example.demo.entities.Appointment;
+
+/**
+ * Half-open booking interval [start, finish) in epoch minutes, tagged with the
+ * id of the appointment it belongs to. Ordered by start, then by id.
+ */
+public final class Interval implements Comparable<Interval> {
+
+    private final long id;
+    private final long start;
+    private final long finish;
+
+    public Interval(long id, long start, long finish) {
+        this.id = id;
+        this.start = start;
+        this.finish = finish;
+    }
+
+    public static Interval of(Appointment appointment) {
+        return of(appointment.getId(), appointment.getStartsAt(), appointment.getFinishesAt());
+    }
+
+    public static Interval of(long id, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        return new Interval(id, floorMinute(startsAt), ceilMinute(finishesAt));
+    }
+
+    // The wire format is minute-precision; rounding outwards keeps
+    // sub-minute timestamps (e.g. set programmatically) from slipping past a check.
+    public static long floorMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    public static long ceilMinute(LocalDateTime dateTime) {
+        final long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        final long minute = Math.floorDiv(seconds, 60L);
+        return (Math.floorMod(seconds, 60L) == 0 && dateTime.getNano() == 0) ? minute : minute + 1;
+    }
+
+    public static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public long getStart() {
+        return this.start;
+    }
+
+    public long getFinish() {
+        return this.finish;
+    }
+
+    public long duration() {
+        return this.finish - this.start;
+    }
+
+    public boolean overlaps(long otherStart, long otherFinish) {
+        return this.start < otherFinish && otherStart < this.finish;
+    }
+
+    @Override
+    public int compareTo(Interval other) {
+        final int byStart = Long.compare(this.start, other.start);
+        return byStart != 0 ? byStart : Long.compare(this.id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Interval)) {
+            return false;
+        }
+        final Interval other = (Interval) o;
+        return this.id == other.id && this.start == other.start && this.finish == other.finish;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.id) * 31 + Long.hashCode(this.start);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.start + ", " + this.finish + ")#" + this.id;
+    }
+}
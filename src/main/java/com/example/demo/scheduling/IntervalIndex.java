@@ -0,0 +1,38 @@
+package com.example.demo.scheduling;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link IntervalSet} per key, created on first use.
+ */
+public class IntervalIndex<K> {
+
+    private final ConcurrentMap<K, IntervalSet> sets = new ConcurrentHashMap<>();
+
+    public void add(K key, Interval interval) {
+        this.sets.computeIfAbsent(key, k -> new IntervalSet()).add(interval);
+    }
+
+    public boolean remove(K key, Interval interval) {
+        final IntervalSet set = this.sets.get(key);
+        return set != null && set.remove(interval);
+    }
+
+    public boolean collides(K key, long start, long finish) {
+        final IntervalSet set = this.sets.get(key);
+        return set != null && set.collides(start, finish);
+    }
+
+    public IntervalSet get(K key) {
+        return this.sets.get(key);
+    }
+
+    public int size() {
+        return this.sets.values().stream().mapToInt(IntervalSet::size).sum();
+    }
+
+    public void clear() {
+        this.sets.clear();
+    }
+}
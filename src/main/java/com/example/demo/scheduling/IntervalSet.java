@@ -0,0 +1,67 @@
+package com.example.demo.scheduling;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted skip list of the intervals booked on one resource (a room, a doctor...).
+ *
+ * <p>An interval can only collide with [start, finish) if it starts before
+ * {@code finish} and no earlier than {@code start - longest booking}, so every
+ * query is a single O(log n) seek followed by a scan of that narrow window.
+ */
+public final class IntervalSet {
+
+    private final NavigableSet<Interval> intervals = new ConcurrentSkipListSet<>();
+
+    // Only ever grows: a stale (too large) value widens the scan window but never hides a collision.
+    private final AtomicLong longest = new AtomicLong();
+
+    public void add(Interval interval) {
+        this.longest.accumulateAndGet(interval.duration(), Math::max);
+        this.intervals.add(interval);
+    }
+
+    public boolean remove(Interval interval) {
+        return this.intervals.remove(interval);
+    }
+
+    public boolean isEmpty() {
+        return this.intervals.isEmpty();
+    }
+
+    public int size() {
+        return this.intervals.size();
+    }
+
+    public boolean collides(long start, long finish) {
+        int scanned = 0;
+        try {
+            for (Interval candidate : candidates(start, finish)) {
+                scanned++;
+                if (candidate.getFinish() > start) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            ScannedCandidates.add(scanned);
+        }
+    }
+
+    /**
+     * Intervals whose start could place them inside [start, finish), in start order.
+     * Callers still have to check {@code getFinish() > start}.
+     */
+    public Collection<Interval> candidates(long start, long finish) {
+        final Interval from = new Interval(Long.MIN_VALUE, start - this.longest.get(), Long.MIN_VALUE);
+        final Interval to = new Interval(Long.MIN_VALUE, finish, Long.MIN_VALUE);
+        if (from.compareTo(to) >= 0) {
+            return Collections.emptyList();
+        }
+        return this.intervals.subSet(from, true, to, false);
+    }
+}
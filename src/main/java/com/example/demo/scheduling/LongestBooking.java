@@ -0,0 +1,40 @@
+package com.example.demo.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import javax.annotation.PostConstruct;
+
+import com.example.demo.repositories.AppointmentRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lower bound for range scans over bookings by start: nothing that starts
+ * before {@code from} minus the longest stored booking can still overlap
+ * {@code from}. The longest is read from the database on each use (one
+ * seek on the duration index), so it holds across instances and no cap on
+ * booking length is needed to keep the scans bounded.
+ */
+@Component
+public class LongestBooking {
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @PostConstruct
+    public void fillMissingDurations() {
+        appointmentRepository.fillMissingDurations();
+    }
+
+    public Duration get() {
+        final Long seconds = appointmentRepository.findLongestDurationSeconds();
+        // Stored durations drop fractions of a second
+        return Duration.ofSeconds(seconds == null ? 0 : seconds + 1);
+    }
+
+    public LocalDateTime earliestStart(final LocalDateTime from) {
+        return from.minus(get());
+    }
+}
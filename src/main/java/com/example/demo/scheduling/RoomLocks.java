@@ -0,0 +1,56 @@
+package com.example.demo.scheduling;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped locks keyed by room name, or by any other booking key (see
+ * {@link ConflictDimensions#lockKeys}). Bookings for the same room are
+ * linearised; bookings for rooms on different stripes run in parallel.
+ * Two rooms may share a stripe, which only costs some parallelism.
+ */
+@Component
+public class RoomLocks {
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    public RoomLocks(@Value("${appointments.lock-stripes:1024}") final int stripes) {
+        // Next power of two, so a stripe is picked by masking; one stripe is a single global lock
+        final int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock get(final Object key) {
+        return this.stripes[indexOf(key)];
+    }
+
+    /**
+     * The distinct stripes covering {@code keys}, in stripe order. Always
+     * lock them in that order so two multi-key callers can't deadlock.
+     */
+    public List<Lock> getAll(final Collection<?> keys) {
+        return keys.stream()
+                        .mapToInt(this::indexOf)
+                        .distinct()
+                        .sorted()
+                        .mapToObj(i -> this.stripes[i])
+                        .collect(Collectors.toList());
+    }
+
+    private int indexOf(final Object key) {
+        final int hash = key == null ? 0 : key.hashCode();
+        // spread the high bits, as HashMap does
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.AppointmentSlot;
+import com.example.demo.scheduling.ConflictDimensions.Dimension;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of booked intervals per room, and per doctor and patient
+ * when those {@link ConflictDimensions} are enabled. Loaded once at startup
+ * and kept in sync by the booking services and {@code AppointmentController}
+ * on every save and delete, so overlap checks never have to read the
+ * appointments table. Each extra dimension costs one more O(log n) seek.
+ * Recurring series sit in a {@link SeriesIndex} next to it.
+ */
+@Component
+@ConditionalOnProperty(name = "appointments.conflict-engine", havingValue = "memory", matchIfMissing = true)
+public class RoomScheduleIndex implements ConflictDetector {
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    private final Map<Dimension, IntervalIndex<Object>> indices = new EnumMap<>(Dimension.class);
+    private final SeriesIndex series;
+
+    // Rooms only
+    public RoomScheduleIndex() {
+        this(ConflictDimensions.of(Dimension.ROOM));
+    }
+
+    @Autowired
+    public RoomScheduleIndex(final ConflictDimensions conflictDimensions) {
+        for (Dimension dimension : conflictDimensions.enabled()) {
+            this.indices.put(dimension, new IntervalIndex<>());
+        }
+        this.series = new SeriesIndex(conflictDimensions);
+    }
+
+    @PostConstruct
+    public void load() {
+        clear();
+        for (AppointmentSlot slot : appointmentRepository.findAllSlots()) {
+            if (slot.getStartsAt() == null || slot.getFinishesAt() == null) {
+                continue;
+            }
+            final Interval interval = Interval.of(slot.getId(), slot.getStartsAt(), slot.getFinishesAt());
+            for (Map.Entry<Dimension, IntervalIndex<Object>> index : this.indices.entrySet()) {
+                final Object key = index.getKey().keyOf(slot);
+                if (key != null) {
+                    index.getValue().add(key, interval);
+                }
+            }
+        }
+        if (seriesRepository != null) {
+            seriesRepository.findAll().forEach(this.series::add);
+        }
+    }
+
+    @Override
+    public boolean collides(final Appointment appointment) {
+        return collides(appointment, this.indices, this.series);
+    }
+
+    /**
+     * One seek per dimension. A room that takes more than one booking at a
+     * time is swept instead, over the bookings and occurrences in the
+     * appointment's window, which reaches back only as far as the room's
+     * longest booking, so the sweep costs the same however many bookings the
+     * room has.
+     */
+    static boolean collides(final Appointment appointment, final Map<Dimension, IntervalIndex<Object>> indices,
+                            final SeriesIndex series) {
+        final Interval interval = Interval.of(appointment);
+        for (Map.Entry<Dimension, IntervalIndex<Object>> index : indices.entrySet()) {
+            final Object key = index.getKey().keyOf(appointment);
+            if (key == null) {
+                continue;
+            }
+            final int capacity = index.getKey().capacityOf(appointment);
+            final boolean collides = capacity > 1
+                    ? ConcurrencySweep.isFull(booked(index.getValue().get(key), series, index.getKey(), key,
+                                                     appointment.getStartsAt(), appointment.getFinishesAt()),
+                                              interval.getStart(), interval.getFinish(), capacity)
+                    : index.getValue().collides(key, interval.getStart(), interval.getFinish());
+            if (collides) {
+                return true;
+            }
+        }
+        return !series.isEmpty() && series.collides(appointment);
+    }
+
+    static List<Interval> booked(final IntervalSet set, final SeriesIndex series, final Dimension dimension, final Object key,
+                                 final LocalDateTime from, final LocalDateTime to) {
+        final List<Interval> booked = new ArrayList<>();
+        if (set != null) {
+            final Interval window = Interval.of(0, from, to);
+            for (Interval candidate : set.candidates(window.getStart(), window.getFinish())) {
+                if (candidate.getFinish() > window.getStart()) {
+                    booked.add(candidate);
+                }
+            }
+        }
+        booked.addAll(series.occurrences(dimension, key, from, to));
+        return booked;
+    }
+
+    @Override
+    public List<Interval> booked(final String roomName, final LocalDateTime from, final LocalDateTime to) {
+        return booked(get(roomName), this.series, Dimension.ROOM, roomName, from, to);
+    }
+
+    @Override
+    public void add(final Appointment appointment) {
+        final Interval interval = Interval.of(appointment);
+        for (Map.Entry<Dimension, IntervalIndex<Object>> index : this.indices.entrySet()) {
+            final Object key = index.getKey().keyOf(appointment);
+            if (key != null) {
+                index.getValue().add(key, interval);
+            }
+        }
+    }
+
+    @Override
+    public void remove(final Appointment appointment) {
+        final Interval interval = Interval.of(appointment);
+        for (Map.Entry<Dimension, IntervalIndex<Object>> index : this.indices.entrySet()) {
+            final Object key = index.getKey().keyOf(appointment);
+            if (key != null) {
+                index.getValue().remove(key, interval);
+            }
+        }
+    }
+
+    @Override
+    public void addSeries(final AppointmentSeries series) {
+        this.series.add(series);
+    }
+
+    @Override
+    public void removeSeries(final AppointmentSeries series) {
+        this.series.remove(series);
+    }
+
+    public IntervalSet get(final String roomName) {
+        final IntervalIndex<Object> rooms = this.indices.get(Dimension.ROOM);
+        return rooms == null ? null : rooms.get(roomName);
+    }
+
+    // Booked intervals, counted once per appointment
+    public int size() {
+        if (this.indices.isEmpty()) {
+            return 0;
+        }
+        final IntervalIndex<Object> rooms = this.indices.get(Dimension.ROOM);
+        return rooms != null ? rooms.size() : this.indices.values().iterator().next().size();
+    }
+
+    @Override
+    public void clear() {
+        this.indices.values().forEach(IntervalIndex::clear);
+        this.series.clear();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.scheduling;
+
+/**
+ * Bookings the in-memory overlap checks looked at on this thread, for the
+ * scanned-candidates histogram. Checks add to it once each, not per
+ * candidate; the {@code sql} engine's range queries scan in the database and
+ * only add what they bring back to sweep.
+ */
+public final class ScannedCandidates {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ScannedCandidates() {
+    }
+
+    static void add(final int candidates) {
+        COUNT.get()[0] += candidates;
+    }
+
+    /**
+     * @return candidates scanned on this thread since the last call
+     */
+    public static long take() {
+        final long[] count = COUNT.get();
+        final long taken = count[0];
+        count[0] = 0;
+        return taken;
+    }
+}
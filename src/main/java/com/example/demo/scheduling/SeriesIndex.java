@@ -0,0 +1,135 @@
+package com.example.demo.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.scheduling.ConflictDimensions.Dimension;
+
+/**
+ * Recurring series indexed by the span from their first start to their last
+ * finish, per enabled dimension. A check seeks the series whose span
+ * overlaps the appointment, then expands just the occurrences inside its
+ * window.
+ */
+class SeriesIndex {
+
+    private final Map<Dimension, IntervalIndex<Object>> spans = new EnumMap<>(Dimension.class);
+    private final Map<Long, AppointmentSeries> series = new ConcurrentHashMap<>();
+
+    SeriesIndex(final ConflictDimensions conflictDimensions) {
+        for (Dimension dimension : conflictDimensions.enabled()) {
+            this.spans.put(dimension, new IntervalIndex<>());
+        }
+    }
+
+    /**
+     * Adding a series again replaces the version indexed before. The new
+     * version goes in first, so a concurrent check always sees one of them.
+     */
+    void add(final AppointmentSeries series) {
+        final AppointmentSeries previous = this.series.put(series.getId(), series);
+        final Interval span = span(series);
+        final Appointment template = series.template();
+        for (Map.Entry<Dimension, IntervalIndex<Object>> index : this.spans.entrySet()) {
+            final Object key = index.getKey().keyOf(template);
+            if (key != null) {
+                index.getValue().add(key, span);
+            }
+        }
+        if (previous != null) {
+            unindex(previous, series);
+        }
+    }
+
+    void remove(final AppointmentSeries series) {
+        final AppointmentSeries indexed = this.series.remove(series.getId());
+        if (indexed != null) {
+            unindex(indexed, null);
+        }
+    }
+
+    // Drops the spans of an old version, except those the replacing version shares with it
+    private void unindex(final AppointmentSeries old, final AppointmentSeries replacement) {
+        final Interval span = span(old);
+        final Appointment template = old.template();
+        for (Map.Entry<Dimension, IntervalIndex<Object>> index : this.spans.entrySet()) {
+            final Object key = index.getKey().keyOf(template);
+            if (key != null && (replacement == null || !span.equals(span(replacement))
+                                || !key.equals(index.getKey().keyOf(replacement.template())))) {
+                index.getValue().remove(key, span);
+            }
+        }
+    }
+
+    /**
+     * Checks the dimensions that take one booking at a time; a room with a
+     * larger capacity is left to the caller, which has to count these
+     * occurrences together with its single bookings.
+     */
+    boolean collides(final Appointment appointment) {
+        final Interval interval = Interval.of(appointment);
+        for (Map.Entry<Dimension, IntervalIndex<Object>> index : this.spans.entrySet()) {
+            final Object key = index.getKey().keyOf(appointment);
+            final IntervalSet set = key == null ? null : index.getValue().get(key);
+            if (set == null || index.getKey().capacityOf(appointment) > 1) {
+                continue;
+            }
+            int scanned = 0;
+            try {
+                for (Interval span : set.candidates(interval.getStart(), interval.getFinish())) {
+                    scanned++;
+                    final AppointmentSeries candidate = this.series.get(span.getId());
+                    if (span.getFinish() > interval.getStart() && candidate != null
+                            && !candidate.occurrences(appointment.getStartsAt(), appointment.getFinishesAt()).isEmpty()) {
+                        return true;
+                    }
+                }
+            } finally {
+                ScannedCandidates.add(scanned);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Occurrences booked under the key that overlap [from, to).
+     */
+    List<Interval> occurrences(final Dimension dimension, final Object key, final LocalDateTime from, final LocalDateTime to) {
+        final IntervalIndex<Object> index = this.spans.get(dimension);
+        final IntervalSet set = index == null ? null : index.get(key);
+        if (set == null) {
+            return Collections.emptyList();
+        }
+        final Interval window = Interval.of(0, from, to);
+        final List<Interval> occurrences = new ArrayList<>();
+        for (Interval span : set.candidates(window.getStart(), window.getFinish())) {
+            final AppointmentSeries candidate = this.series.get(span.getId());
+            if (span.getFinish() > window.getStart() && candidate != null) {
+                for (Appointment occurrence : candidate.occurrences(from, to)) {
+                    occurrences.add(Interval.of(span.getId(), occurrence.getStartsAt(), occurrence.getFinishesAt()));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    boolean isEmpty() {
+        return this.series.isEmpty();
+    }
+
+    void clear() {
+        this.series.clear();
+        this.spans.values().forEach(IntervalIndex::clear);
+    }
+
+    private static Interval span(final AppointmentSeries series) {
+        return Interval.of(series.getId(), series.getStartsAt(), series.getLastFinishesAt());
+    }
+}
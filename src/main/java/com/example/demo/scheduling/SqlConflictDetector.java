@@ -0,0 +1,206 @@
+package com.example.demo.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.AppointmentSlot;
+import com.example.demo.scheduling.ConflictDimensions.Dimension;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stateless engine: one range query per check and enabled
+ * {@link ConflictDimensions dimension}, each served by that dimension's
+ * (room_id | doctor_id | patient_id, starts_at, finishes_at) index on the
+ * appointment table, plus one for the recurring series whose span covers
+ * the window. The {@link LongestBooking longest stored booking} bounds how
+ * far back the scans go.
+ */
+@Component
+@ConditionalOnProperty(name = "appointments.conflict-engine", havingValue = "sql")
+public class SqlConflictDetector implements ConflictDetector {
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    ConflictDimensions conflictDimensions;
+
+    @Autowired
+    LongestBooking longestBooking;
+
+    @Override
+    public boolean collides(final Appointment appointment) {
+        final LocalDateTime earliestStart = longestBooking.earliestStart(appointment.getStartsAt());
+        for (Dimension dimension : conflictDimensions.enabled()) {
+            final Object key = dimension.keyOf(appointment);
+            if (key == null) {
+                continue;
+            }
+            final boolean overlaps;
+            switch (dimension) {
+                case ROOM:
+                    final int capacity = dimension.capacityOf(appointment);
+                    overlaps = capacity > 1
+                            ? ConcurrencySweep.isFull(booked((String) key, appointment.getStartsAt(), appointment.getFinishesAt(),
+                                                             earliestStart),
+                                                      Interval.floorMinute(appointment.getStartsAt()),
+                                                      Interval.ceilMinute(appointment.getFinishesAt()), capacity)
+                            : appointmentRepository.existsOverlap((String) key, appointment.getStartsAt(),
+                                                                  appointment.getFinishesAt(), earliestStart);
+                    break;
+                case DOCTOR:
+                    overlaps = appointmentRepository.existsDoctorOverlap((Long) key, appointment.getStartsAt(),
+                                                                         appointment.getFinishesAt(), earliestStart);
+                    break;
+                default:
+                    overlaps = appointmentRepository.existsPatientOverlap((Long) key, appointment.getStartsAt(),
+                                                                          appointment.getFinishesAt(), earliestStart);
+            }
+            if (overlaps) {
+                return true;
+            }
+        }
+        return collidesWithSeries(appointment);
+    }
+
+    // A room with capacity to spare already counted its series in the sweep
+    private boolean collidesWithSeries(final Appointment appointment) {
+        final Object[] keys = new Object[Dimension.values().length];
+        for (Dimension dimension : conflictDimensions.enabled()) {
+            keys[dimension.ordinal()] = dimension.capacityOf(appointment) > 1 ? null : dimension.keyOf(appointment);
+        }
+        for (AppointmentSeries series : seriesRepository.findOverlapping((String) keys[Dimension.ROOM.ordinal()],
+                                                                          (Long) keys[Dimension.DOCTOR.ordinal()],
+                                                                          (Long) keys[Dimension.PATIENT.ordinal()],
+                                                                          appointment.getStartsAt(),
+                                                                          appointment.getFinishesAt())) {
+            if (!series.occurrences(appointment.getStartsAt(), appointment.getFinishesAt()).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Interval> booked(final String roomName, final LocalDateTime from, final LocalDateTime to) {
+        return booked(roomName, from, to, longestBooking.earliestStart(from));
+    }
+
+    private List<Interval> booked(final String roomName, final LocalDateTime from, final LocalDateTime to,
+                                  final LocalDateTime earliestStart) {
+        final List<Interval> booked = new ArrayList<>();
+        for (AppointmentSlot slot : appointmentRepository.findSlotsOverlapping(roomName, from, to, earliestStart)) {
+            booked.add(Interval.of(slot.getId(), slot.getStartsAt(), slot.getFinishesAt()));
+        }
+        for (AppointmentSeries series : seriesRepository.findOverlapping(roomName, null, null, from, to)) {
+            for (Appointment occurrence : series.occurrences(from, to)) {
+                booked.add(Interval.of(series.getId(), occurrence.getStartsAt(), occurrence.getFinishesAt()));
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * One query per room, doctor and patient in the batch, covering the whole
+     * span of its appointments, and one for the series over the whole batch;
+     * the rows are then checked in memory.
+     */
+    @Override
+    public boolean[] collides(final List<Appointment> appointments) {
+        final Map<Dimension, IntervalIndex<Object>> booked = new EnumMap<>(Dimension.class);
+        final Duration longest = longestBooking.get();
+        for (Dimension dimension : conflictDimensions.enabled()) {
+            final IntervalIndex<Object> index = new IntervalIndex<>();
+            for (Map.Entry<Object, LocalDateTime[]> span : spans(appointments, dimension).entrySet()) {
+                for (AppointmentSlot slot : slots(dimension, span.getKey(), span.getValue()[0].minus(longest), span.getValue()[1])) {
+                    index.add(span.getKey(), Interval.of(slot.getId(), slot.getStartsAt(), slot.getFinishesAt()));
+                }
+            }
+            booked.put(dimension, index);
+        }
+
+        final SeriesIndex series = new SeriesIndex(conflictDimensions);
+        if (!appointments.isEmpty()) {
+            LocalDateTime from = appointments.get(0).getStartsAt();
+            LocalDateTime to = appointments.get(0).getFinishesAt();
+            for (Appointment appointment : appointments) {
+                from = appointment.getStartsAt().isBefore(from) ? appointment.getStartsAt() : from;
+                to = appointment.getFinishesAt().isAfter(to) ? appointment.getFinishesAt() : to;
+            }
+            seriesRepository.findOverlapping(from, to).forEach(series::add);
+        }
+
+        final boolean[] collisions = new boolean[appointments.size()];
+        for (int i = 0; i < collisions.length; i++) {
+            collisions[i] = RoomScheduleIndex.collides(appointments.get(i), booked, series);
+        }
+        return collisions;
+    }
+
+    private static Map<Object, LocalDateTime[]> spans(final List<Appointment> appointments, final Dimension dimension) {
+        final Map<Object, LocalDateTime[]> spans = new LinkedHashMap<>();
+        for (Appointment appointment : appointments) {
+            final Object key = dimension.keyOf(appointment);
+            if (key == null) {
+                continue;
+            }
+            spans.merge(key,
+                        new LocalDateTime[] { appointment.getStartsAt(), appointment.getFinishesAt() },
+                        (span, other) -> new LocalDateTime[] {
+                                span[0].isBefore(other[0]) ? span[0] : other[0],
+                                span[1].isAfter(other[1]) ? span[1] : other[1] });
+        }
+        return spans;
+    }
+
+    private List<AppointmentSlot> slots(final Dimension dimension, final Object key, final LocalDateTime from, final LocalDateTime to) {
+        switch (dimension) {
+            case ROOM:
+                return appointmentRepository.findSlots((String) key, from, to);
+            case DOCTOR:
+                return appointmentRepository.findDoctorSlots((Long) key, from, to);
+            default:
+                return appointmentRepository.findPatientSlots((Long) key, from, to);
+        }
+    }
+
+    @Override
+    public void add(final Appointment appointment) {
+        // nothing cached
+    }
+
+    @Override
+    public void remove(final Appointment appointment) {
+        // nothing cached
+    }
+
+    @Override
+    public void addSeries(final AppointmentSeries series) {
+        // nothing cached
+    }
+
+    @Override
+    public void removeSeries(final AppointmentSeries series) {
+        // nothing cached
+    }
+
+    @Override
+    public void clear() {
+        // nothing cached
+    }
+}
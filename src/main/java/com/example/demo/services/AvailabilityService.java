@@ -0,0 +1,197 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.Room;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.AppointmentSlot;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.repositories.RoomSummary;
+import com.example.demo.scheduling.ConcurrencySweep;
+import com.example.demo.scheduling.Interval;
+import com.example.demo.scheduling.LongestBooking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Free gaps in a room's schedule. Only the bookings overlapping the requested
+ * window are read, already sorted by start, and a single sweep over them
+ * yields the gaps.
+ *
+ * <p>The any-free-room search reads the bookings of every room around the
+ * window in one query, then evaluates the rooms in parallel.
+ *
+ * <p>Occurrences of recurring series in the window count as bookings; they
+ * are expanded from the series that overlap it.
+ *
+ * <p>A room with a capacity above one is only busy where all its places are
+ * taken at once, so its bookings are first reduced to those stretches.
+ */
+@Service
+public class AvailabilityService {
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    LongestBooking longestBooking;
+
+    @Value("${appointments.availability.fit-horizon:PT12H}")
+    Duration fitHorizon;
+
+    /**
+     * Gaps of at least {@code minDuration} inside [from, to), in time order.
+     */
+    public List<FreeSlot> freeSlots(final String roomName, final LocalDateTime from, final LocalDateTime to,
+                                    final Duration minDuration) {
+        final List<AppointmentSlot> booked = appointmentRepository.findSlotsOverlapping(roomName, from, to, longestBooking.earliestStart(from));
+        final List<AppointmentSlot> occurrences = occurrences(seriesRepository.findOverlapping(roomName, null, null, from, to), from, to);
+        final int capacity = roomRepository.findByRoomName(roomName).map(Room::getCapacity).orElse(1);
+        if (occurrences.isEmpty()) {
+            return gaps(full(roomName, booked, capacity, from, to), from, to, minDuration);
+        }
+        occurrences.addAll(booked);
+        occurrences.sort(Comparator.comparing(AppointmentSlot::getStartsAt));
+        return gaps(full(roomName, occurrences, capacity, from, to), from, to, minDuration);
+    }
+
+    /**
+     * Rooms free for all of [from, to), tightest fit first: the smaller the
+     * free gap around the window, the less of the room's schedule it breaks
+     * up. Ties go by room name.
+     */
+    public List<RoomFit> freeRooms(final LocalDateTime from, final LocalDateTime to, final int limit) {
+        final LocalDateTime horizonStart = from.minus(fitHorizon);
+        final LocalDateTime horizonEnd = to.plus(fitHorizon);
+
+        final Map<String, List<AppointmentSlot>> booked = new HashMap<>();
+        for (AppointmentSlot slot : appointmentRepository.findAllSlotsOverlapping(horizonStart, horizonEnd, longestBooking.earliestStart(horizonStart))) {
+            booked.computeIfAbsent(slot.getRoomName(), room -> new ArrayList<>()).add(slot);
+        }
+        for (AppointmentSlot slot : occurrences(seriesRepository.findOverlapping(horizonStart, horizonEnd), horizonStart, horizonEnd)) {
+            booked.computeIfAbsent(slot.getRoomName(), room -> new ArrayList<>()).add(slot);
+        }
+        final Map<String, Integer> capacities = new HashMap<>();
+        for (RoomSummary room : roomRepository.findSharedRooms()) {
+            capacities.put(room.getRoomName(), room.getCapacity());
+        }
+
+        return roomRepository.findAllRoomNames()
+                             .parallelStream()
+                             .map(room -> fit(room, full(room, booked.getOrDefault(room, Collections.emptyList()),
+                                                         capacities.getOrDefault(room, 1), horizonStart, horizonEnd),
+                                              from, to, horizonStart, horizonEnd))
+                             .filter(Objects::nonNull)
+                             .sorted(Comparator.comparing(RoomFit::getGap).thenComparing(RoomFit::getRoomName))
+                             .limit(limit)
+                             .collect(Collectors.toList());
+    }
+
+    private static List<AppointmentSlot> occurrences(final List<AppointmentSeries> series, final LocalDateTime from,
+                                                     final LocalDateTime to) {
+        final List<AppointmentSlot> slots = new ArrayList<>();
+        for (AppointmentSeries each : series) {
+            if (each.getRoom() == null) {
+                continue;
+            }
+            for (Appointment occurrence : each.occurrences(from, to)) {
+                slots.add(new AppointmentSlot(each.getId(), each.getRoom().getRoomName(),
+                                              occurrence.getStartsAt(), occurrence.getFinishesAt()));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * @return the stretches of [from, to) where all {@code capacity} places are
+     *         taken, in time order; {@code booked} itself for a single-place room
+     */
+    static List<AppointmentSlot> full(final String roomName, final List<AppointmentSlot> booked, final int capacity,
+                                      final LocalDateTime from, final LocalDateTime to) {
+        if (capacity <= 1) {
+            return booked;
+        }
+        final List<Interval> intervals = new ArrayList<>(booked.size());
+        for (AppointmentSlot slot : booked) {
+            intervals.add(Interval.of(slot.getId(), slot.getStartsAt(), slot.getFinishesAt()));
+        }
+        final List<AppointmentSlot> full = new ArrayList<>();
+        for (Interval span : ConcurrencySweep.full(intervals, Interval.floorMinute(from), Interval.ceilMinute(to), capacity)) {
+            full.add(new AppointmentSlot(0, roomName, Interval.toDateTime(span.getStart()), Interval.toDateTime(span.getFinish())));
+        }
+        return full;
+    }
+
+    /**
+     * @return null if a booking overlaps [from, to)
+     */
+    static RoomFit fit(final String roomName, final List<AppointmentSlot> booked, final LocalDateTime from, final LocalDateTime to,
+                       final LocalDateTime horizonStart, final LocalDateTime horizonEnd) {
+        LocalDateTime freeFrom = horizonStart;
+        LocalDateTime freeUntil = horizonEnd;
+        for (AppointmentSlot slot : booked) {
+            if (!slot.getFinishesAt().isAfter(from)) {
+                if (slot.getFinishesAt().isAfter(freeFrom)) {
+                    freeFrom = slot.getFinishesAt();
+                }
+            } else if (!slot.getStartsAt().isBefore(to)) {
+                if (slot.getStartsAt().isBefore(freeUntil)) {
+                    freeUntil = slot.getStartsAt();
+                }
+            } else {
+                return null;
+            }
+        }
+        return new RoomFit(roomName, freeFrom, freeUntil);
+    }
+
+    /**
+     * @param booked bookings overlapping [from, to), sorted by start
+     */
+    static List<FreeSlot> gaps(final List<AppointmentSlot> booked, final LocalDateTime from, final LocalDateTime to,
+                               final Duration minDuration) {
+        final List<FreeSlot> gaps = new ArrayList<>();
+        LocalDateTime free = from;
+        for (AppointmentSlot slot : booked) {
+            if (slot.getStartsAt().isAfter(free)) {
+                addGap(gaps, free, slot.getStartsAt().isBefore(to) ? slot.getStartsAt() : to, minDuration);
+            }
+            // Bookings can nest (a long one covering shorter ones), so only ever move forward
+            if (slot.getFinishesAt().isAfter(free)) {
+                free = slot.getFinishesAt();
+            }
+            if (!free.isBefore(to)) {
+                return gaps;
+            }
+        }
+        addGap(gaps, free, to, minDuration);
+        return gaps;
+    }
+
+    private static void addGap(final List<FreeSlot> gaps, final LocalDateTime startsAt, final LocalDateTime finishesAt,
+                               final Duration minDuration) {
+        if (startsAt.isBefore(finishesAt) && Duration.between(startsAt, finishesAt).compareTo(minDuration) >= 0) {
+            gaps.add(new FreeSlot(startsAt, finishesAt));
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.repositories.PatientRepository;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.scheduling.ConcurrencySweep;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.ConflictDimensions.Dimension;
+import com.example.demo.scheduling.Interval;
+import com.example.demo.scheduling.IntervalSet;
+import com.example.demo.scheduling.RoomLocks;
+import com.example.demo.services.BookingResult.Status;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Books many appointments in one transaction.
+ *
+ * <p>Items are checked against stored bookings with a single
+ * {@link ConflictDetector} call, then against each other with a sweep per
+ * room, doctor and patient as {@link ConflictDimensions} enforces them
+ * (sort by start, keep an item only if it starts after the last kept one
+ * finishes).
+ * Survivors are inserted with {@code saveAll}, which Hibernate turns into
+ * JDBC batches ({@code hibernate.jdbc.batch_size}). The stripes of
+ * {@link RoomLocks} for every key in the batch are held throughout, and
+ * with {@link RoomRowLocks} enabled so are the rows.
+ */
+@Service
+public class BatchBookingService {
+
+    public enum Mode {
+        ATOMIC,
+        BEST_EFFORT
+    }
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ConflictDetector conflictDetector;
+
+    @Autowired
+    ConflictDimensions conflictDimensions;
+
+    @Autowired
+    RoomLocks roomLocks;
+
+    @Autowired
+    RoomRowLocks roomRowLocks;
+
+    @Autowired
+    RoomCalendar roomCalendar;
+
+    @Autowired
+    OccupancyMatrix occupancyMatrix;
+
+    /**
+     * @param invalid items already rejected by the caller's validation
+     */
+    public List<BookingResult> book(final List<Appointment> appointments, final BitSet invalid, final Mode mode) {
+        final Set<String> roomNames = appointments.stream()
+                                                  .filter(appointment -> appointment != null && appointment.getRoom() != null)
+                                                  .map(appointment -> appointment.getRoom().getRoomName())
+                                                  .filter(Objects::nonNull)
+                                                  .collect(Collectors.toSet());
+        final List<Lock> locks = roomLocks.getAll(appointments.stream()
+                                                              .filter(Objects::nonNull)
+                                                              .flatMap(appointment -> conflictDimensions.lockKeys(appointment).stream())
+                                                              .collect(Collectors.toSet()));
+        locks.forEach(Lock::lock);
+        try {
+            if (roomRowLocks.isEnabled()) {
+                roomRowLocks.ensureExist(roomNames);
+            }
+            return bookLocked(appointments, invalid, mode, roomNames);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private List<BookingResult> bookLocked(final List<Appointment> appointments, final BitSet invalid, final Mode mode,
+                                           final Set<String> roomNames) {
+        final List<BookingResult> results = new ArrayList<>(appointments.size());
+        for (int i = 0; i < appointments.size(); i++) {
+            results.add(new BookingResult(i, invalid.get(i) ? Status.INVALID : Status.ACCEPTED));
+        }
+
+        final List<Appointment> saved = roomRowLocks.inTransaction(status -> {
+            final Map<String, Room> rooms = roomRowLocks.isEnabled() ? roomRowLocks.lock(roomNames) : new HashMap<>();
+            if (roomRowLocks.isEnabled()) {
+                roomRowLocks.lockPeople(appointments);
+            }
+            resolveReferences(appointments, results, rooms);
+            // Stored bookings first, so an item that loses to one can't knock out another in the sweep
+            rejectStoredConflicts(appointments, results);
+            sweep(appointments, results);
+
+            final boolean allAccepted = results.stream().allMatch(result -> result.getStatus() == Status.ACCEPTED);
+            if (mode == Mode.ATOMIC && !allAccepted) {
+                results.stream()
+                       .filter(result -> result.getStatus() == Status.ACCEPTED)
+                       .forEach(result -> result.setStatus(Status.SKIPPED));
+                return new ArrayList<Appointment>();
+            }
+
+            final List<Appointment> accepted = results.stream()
+                                                      .filter(result -> result.getStatus() == Status.ACCEPTED)
+                                                      .map(result -> appointments.get(result.getIndex()))
+                                                      .collect(Collectors.toList());
+            return appointmentRepository.saveAll(accepted);
+        });
+
+        // Only once committed, so a rollback can't leave phantom bookings in the detector
+        saved.forEach(conflictDetector::add);
+        saved.forEach(roomCalendar::add);
+        saved.forEach(occupancyMatrix::add);
+        for (BookingResult result : results) {
+            if (result.getStatus() == Status.ACCEPTED) {
+                result.setId(appointments.get(result.getIndex()).getId());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Points every item at managed rooms, doctors and patients, loaded with one
+     * query per kind, so the cascade doesn't try to insert them again.
+     * {@code rooms} holds any already loaded, e.g. locked, rooms.
+     */
+    private void resolveReferences(final List<Appointment> appointments, final List<BookingResult> results,
+                                   final Map<String, Room> rooms) {
+        final Map<Long, Doctor> doctors = byId(appointments, results, Appointment::getDoctor, Doctor::getId, doctorRepository::findAllById);
+        final Map<Long, Patient> patients = byId(appointments, results, Appointment::getPatient, Patient::getId, patientRepository::findAllById);
+
+        for (int i = 0; i < appointments.size(); i++) {
+            final Appointment appointment = appointments.get(i);
+            if (results.get(i).getStatus() != Status.ACCEPTED) {
+                continue;
+            }
+            if (appointment.getDoctor() != null && appointment.getDoctor().getId() != 0) {
+                appointment.setDoctor(doctors.get(appointment.getDoctor().getId()));
+            }
+            if (appointment.getPatient() != null && appointment.getPatient().getId() != 0) {
+                appointment.setPatient(patients.get(appointment.getPatient().getId()));
+            }
+            if (appointment.getRoom() == null || appointment.getDoctor() == null || appointment.getPatient() == null) {
+                results.get(i).setStatus(Status.INVALID);
+                continue;
+            }
+            final Room room = appointment.getRoom();
+            appointment.setRoom(rooms.computeIfAbsent(room.getRoomName(),
+                                                      name -> roomRepository.findByRoomName(name).orElse(room)));
+        }
+    }
+
+    // Only accepted items: rejected ones may be null or half-filled
+    private static <T> Map<Long, T> byId(final List<Appointment> appointments,
+                                         final List<BookingResult> results,
+                                         final Function<Appointment, T> reference,
+                                         final Function<T, Long> idOf,
+                                         final Function<Set<Long>, List<T>> load) {
+        final Set<Long> ids = results.stream()
+                                     .filter(result -> result.getStatus() == Status.ACCEPTED)
+                                     .map(result -> reference.apply(appointments.get(result.getIndex())))
+                                     .filter(entity -> entity != null && idOf.apply(entity) != 0)
+                                     .map(idOf)
+                                     .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return load.apply(ids)
+                   .stream()
+                   .collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    // One dimension after the other; an item dropped for its room no longer blocks its doctor's other items
+    private void sweep(final List<Appointment> appointments, final List<BookingResult> results) {
+        for (Dimension dimension : conflictDimensions.enabled()) {
+            sweep(appointments, results, dimension);
+        }
+    }
+
+    private void sweep(final List<Appointment> appointments, final List<BookingResult> results, final Dimension dimension) {
+        final Map<Object, List<Integer>> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < appointments.size(); i++) {
+            if (results.get(i).getStatus() != Status.ACCEPTED) {
+                continue;
+            }
+            final Object key = dimension.keyOf(appointments.get(i));
+            if (key != null) {
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (List<Integer> items : byKey.values()) {
+            final List<Interval> intervals = new ArrayList<>(items.size());
+            for (int i : items) {
+                final Appointment appointment = appointments.get(i);
+                intervals.add(Interval.of(i, appointment.getStartsAt(), appointment.getFinishesAt()));
+            }
+            intervals.sort(Comparator.naturalOrder());
+
+            // Items of one room share its managed instance, hence its capacity
+            final int capacity = dimension.capacityOf(appointments.get(items.get(0)));
+            if (capacity > 1) {
+                sweepShared(intervals, results, (String) dimension.keyOf(appointments.get(items.get(0))), capacity);
+                continue;
+            }
+            long lastFinish = Long.MIN_VALUE;
+            for (Interval interval : intervals) {
+                if (interval.getStart() < lastFinish) {
+                    results.get((int) interval.getId()).setStatus(Status.CONFLICT);
+                } else {
+                    lastFinish = interval.getFinish();
+                }
+            }
+        }
+    }
+
+    /**
+     * A room taking several bookings at once: each item, in start order, is
+     * kept if the stored bookings and the items kept before it leave a place
+     * free over its whole window.
+     */
+    private void sweepShared(final List<Interval> intervals, final List<BookingResult> results, final String roomName,
+                             final int capacity) {
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (Interval interval : intervals) {
+            from = Math.min(from, interval.getStart());
+            to = Math.max(to, interval.getFinish());
+        }
+        // Stored and batch intervals renumbered apart, so none can shadow another in the set
+        final IntervalSet taken = new IntervalSet();
+        long id = 0;
+        for (Interval stored : conflictDetector.booked(roomName, Interval.toDateTime(from), Interval.toDateTime(to))) {
+            taken.add(new Interval(id++, stored.getStart(), stored.getFinish()));
+        }
+        for (Interval interval : intervals) {
+            if (ConcurrencySweep.isFull(taken.candidates(interval.getStart(), interval.getFinish()),
+                                        interval.getStart(), interval.getFinish(), capacity)) {
+                results.get((int) interval.getId()).setStatus(Status.CONFLICT);
+            } else {
+                taken.add(new Interval(-1 - interval.getId(), interval.getStart(), interval.getFinish()));
+            }
+        }
+    }
+
+    private void rejectStoredConflicts(final List<Appointment> appointments, final List<BookingResult> results) {
+        final List<BookingResult> pending = results.stream()
+                                                   .filter(result -> result.getStatus() == Status.ACCEPTED)
+                                                   .collect(Collectors.toList());
+        final boolean[] collisions = conflictDetector.collides(pending.stream()
+                                                                      .map(result -> appointments.get(result.getIndex()))
+                                                                      .collect(Collectors.toList()));
+        for (int i = 0; i < collisions.length; i++) {
+            if (collisions[i]) {
+                pending.get(i).setStatus(Status.CONFLICT);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.services;
+
+/**
+ * Outcome of one item of a batch booking, in request order.
+ */
+public class BookingResult {
+
+    public enum Status {
+        ACCEPTED,
+        // overlaps an existing booking or an earlier item of the same batch
+        CONFLICT,
+        // bad dates or unknown doctor/patient
+        INVALID,
+        // fine on its own, but not stored because the all-or-nothing batch failed
+        SKIPPED
+    }
+
+    private final int index;
+    private Status status;
+    private Long id;
+
+    public BookingResult(int index, Status status) {
+        this.index = index;
+        this.status = status;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.metrics.Histogram;
+import com.example.demo.metrics.MetricRegistry;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.repositories.PatientRepository;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.RoomLocks;
+import com.example.demo.scheduling.ScannedCandidates;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Books a single appointment. The overlap check, the insert and the
+ * detector update all happen under the {@link RoomLocks} stripes of its
+ * room, doctor and patient (as far as {@link ConflictDimensions} enforces
+ * them), so two concurrent requests that could clash can't both pass the
+ * check. With {@link RoomRowLocks} enabled those rows are locked as well,
+ * which extends that guarantee across instances.
+ */
+@Service
+public class BookingService {
+
+    private static final long[] CANDIDATE_BOUNDS = { 0, 1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024 };
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ConflictDetector conflictDetector;
+
+    @Autowired
+    ConflictDimensions conflictDimensions;
+
+    @Autowired
+    RoomLocks roomLocks;
+
+    @Autowired
+    RoomRowLocks roomRowLocks;
+
+    @Autowired
+    RoomCalendar roomCalendar;
+
+    @Autowired
+    OccupancyMatrix occupancyMatrix;
+
+    @Autowired
+    MetricRegistry metricRegistry;
+
+    @Value("${appointments.conflict-engine:memory}")
+    String conflictEngine = "memory";
+
+    private Histogram overlapCheck;
+    private Histogram scannedCandidates;
+
+    @PostConstruct
+    void registerMetrics() {
+        overlapCheck = metricRegistry.timer("appointments_overlap_check_seconds",
+                                            "Overlap checks of single bookings", "engine", conflictEngine);
+        scannedCandidates = metricRegistry.histogram("appointments_overlap_check_candidates",
+                                                     "Existing bookings an overlap check looked at",
+                                                     CANDIDATE_BOUNDS, 1, "engine", conflictEngine);
+    }
+
+    /**
+     * @return false, storing nothing, if the appointment overlaps an existing booking
+     * @throws org.springframework.dao.PessimisticLockingFailureException if the room's row stayed locked too long
+     */
+    public boolean book(final Appointment appointment) {
+        final String roomName = appointment.getRoom() == null ? null : appointment.getRoom().getRoomName();
+        final boolean lockRow = roomRowLocks.isEnabled() && roomName != null;
+        final List<Lock> locks = roomLocks.getAll(conflictDimensions.lockKeys(appointment));
+        locks.forEach(Lock::lock);
+        try {
+            if (lockRow) {
+                roomRowLocks.ensureExist(Collections.singleton(roomName));
+            }
+            final Boolean booked = roomRowLocks.inTransaction(status -> {
+                if (lockRow) {
+                    roomRowLocks.lock(Collections.singleton(roomName)).values().forEach(appointment::setRoom);
+                }
+                if (roomRowLocks.isEnabled()) {
+                    roomRowLocks.lockPeople(Collections.singletonList(appointment));
+                }
+                // The stored room, so the check sees its capacity
+                attachReferences(appointment);
+                if (collides(appointment)) {
+                    return false;
+                }
+                appointmentRepository.save(appointment);
+                return true;
+            });
+
+            // After commit but before unlocking, so the next booking in this room sees it
+            if (Boolean.TRUE.equals(booked)) {
+                conflictDetector.add(appointment);
+                roomCalendar.add(appointment);
+                occupancyMatrix.add(appointment);
+                return true;
+            }
+            return false;
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    // The overlap check, timed, with how many bookings it had to look at
+    private boolean collides(final Appointment appointment) {
+        ScannedCandidates.take();
+        final long started = System.nanoTime();
+        final boolean collides = conflictDetector.collides(appointment);
+        overlapCheck.record(System.nanoTime() - started);
+        scannedCandidates.record(ScannedCandidates.take());
+        return collides;
+    }
+
+    /**
+     * Swaps in managed instances for a room, doctor or patient that already
+     * exist, so the cascade doesn't insert them a second time.
+     */
+    private void attachReferences(final Appointment appointment) {
+        if (appointment.getRoom() != null) {
+            roomRepository.findByRoomName(appointment.getRoom().getRoomName())
+                          .ifPresent(appointment::setRoom);
+        }
+        if (appointment.getDoctor() != null && appointment.getDoctor().getId() != 0) {
+            doctorRepository.findById(appointment.getDoctor().getId())
+                            .ifPresent(appointment::setDoctor);
+        }
+        if (appointment.getPatient() != null && appointment.getPatient().getId() != 0) {
+            patientRepository.findById(appointment.getPatient().getId())
+                             .ifPresent(appointment::setPatient);
+        }
+    }
+}
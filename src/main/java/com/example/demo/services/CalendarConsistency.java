@@ -0,0 +1,64 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+/**
+ * Differences between the {@link RoomCalendar} and the database, by id.
+ */
+public class CalendarConsistency {
+
+    private final int appointments;
+    private final int series;
+    // In the database, not in the model
+    private final List<Long> missing;
+    // In the model, no longer in the database
+    private final List<Long> unexpected;
+    // In both, with a different room or window
+    private final List<Long> mismatched;
+    private final List<Long> missingSeries;
+    private final List<Long> unexpectedSeries;
+
+    public CalendarConsistency(int appointments, int series, List<Long> missing, List<Long> unexpected, List<Long> mismatched,
+                               List<Long> missingSeries, List<Long> unexpectedSeries) {
+        this.appointments = appointments;
+        this.series = series;
+        this.missing = missing;
+        this.unexpected = unexpected;
+        this.mismatched = mismatched;
+        this.missingSeries = missingSeries;
+        this.unexpectedSeries = unexpectedSeries;
+    }
+
+    public boolean isConsistent() {
+        return this.missing.isEmpty() && this.unexpected.isEmpty() && this.mismatched.isEmpty()
+                && this.missingSeries.isEmpty() && this.unexpectedSeries.isEmpty();
+    }
+
+    public int getAppointments() {
+        return this.appointments;
+    }
+
+    public int getSeries() {
+        return this.series;
+    }
+
+    public List<Long> getMissing() {
+        return this.missing;
+    }
+
+    public List<Long> getUnexpected() {
+        return this.unexpected;
+    }
+
+    public List<Long> getMismatched() {
+        return this.mismatched;
+    }
+
+    public List<Long> getMissingSeries() {
+        return this.missingSeries;
+    }
+
+    public List<Long> getUnexpectedSeries() {
+        return this.unexpectedSeries;
+    }
+}
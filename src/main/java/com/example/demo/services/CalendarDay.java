@@ -0,0 +1,29 @@
+package com.example.demo.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * One day of a room's week view.
+ */
+public class CalendarDay {
+
+    private final LocalDate date;
+    private final List<CalendarEntry> entries;
+
+    public CalendarDay(LocalDate date, List<CalendarEntry> entries) {
+        this.date = date;
+        this.entries = entries;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+    public LocalDate getDate() {
+        return this.date;
+    }
+
+    public List<CalendarEntry> getEntries() {
+        return this.entries;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.Person;
+import com.example.demo.repositories.AppointmentSummary;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One booking on a room's calendar: a stored appointment, or an occurrence
+ * of a recurring series (then {@code id} is 0 and {@code seriesId} is set).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class CalendarEntry {
+
+    private final long id;
+    private final Long seriesId;
+    private final Long doctorId;
+    private final String doctorName;
+    private final Long patientId;
+    private final String patientName;
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+
+    public CalendarEntry(long id, Long seriesId, Long doctorId, String doctorName, Long patientId, String patientName,
+                         LocalDateTime startsAt, LocalDateTime finishesAt) {
+        this.id = id;
+        this.seriesId = seriesId;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    static CalendarEntry of(final Appointment appointment) {
+        return of(appointment, appointment.getId(), null);
+    }
+
+    static CalendarEntry of(final AppointmentSummary summary) {
+        return new CalendarEntry(summary.getId(), null, summary.getDoctorId(), summary.getDoctorName(),
+                                 summary.getPatientId(), summary.getPatientName(), summary.getStartsAt(), summary.getFinishesAt());
+    }
+
+    static CalendarEntry occurrence(final AppointmentSeries series, final Appointment occurrence) {
+        return of(occurrence, 0, series.getId());
+    }
+
+    private static CalendarEntry of(final Appointment appointment, final long id, final Long seriesId) {
+        return new CalendarEntry(id, seriesId,
+                                 appointment.getDoctor() == null ? null : appointment.getDoctor().getId(), name(appointment.getDoctor()),
+                                 appointment.getPatient() == null ? null : appointment.getPatient().getId(), name(appointment.getPatient()),
+                                 appointment.getStartsAt(), appointment.getFinishesAt());
+    }
+
+    // Same format as the listing query's first-name-space-last-name
+    private static String name(final Person person) {
+        return person == null ? null : person.getFirstName() + " " + person.getLastName();
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public Long getSeriesId() {
+        return this.seriesId;
+    }
+
+    public Long getDoctorId() {
+        return this.doctorId;
+    }
+
+    public String getDoctorName() {
+        return this.doctorName;
+    }
+
+    public Long getPatientId() {
+        return this.patientId;
+    }
+
+    public String getPatientName() {
+        return this.patientName;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * The first free stretch of a room that is long enough, in whole
+ * {@link OccupancyMatrix} slots.
+ */
+public class FreeRun {
+
+    private final String roomName;
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+
+    public FreeRun(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        this.roomName = roomName;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+}
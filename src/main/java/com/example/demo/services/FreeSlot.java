@@ -0,0 +1,29 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * A gap [startsAt, finishesAt) with no booking in a room.
+ */
+public class FreeSlot {
+
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+
+    public FreeSlot(LocalDateTime startsAt, LocalDateTime finishesAt) {
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+}
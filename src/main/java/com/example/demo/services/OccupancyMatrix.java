@@ -0,0 +1,399 @@
+package com.example.demo.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.PostConstruct;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.repositories.RoomSummary;
+import com.example.demo.scheduling.ConcurrencySweep;
+import com.example.demo.scheduling.Interval;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Occupancy of every room in 5-minute slots, for the availability board.
+ * Each day is one array holding a 288-bit row (five longs) per room, so a
+ * day of 2000 rooms takes 80 KB. A day is built from the {@link RoomCalendar}
+ * the first time it is asked for, then kept current by the same writes
+ * that update the calendar; once more than {@code appointments.occupancy.max-days}
+ * are held the earliest is dropped. A slot is busy when any booking touches
+ * any part of it, so free runs are always really free. A room with a
+ * capacity above one is busy only where all its places are taken at once.
+ *
+ * <p>Writes are serialised on the matrix; reads are lock-free.
+ */
+@Component
+public class OccupancyMatrix {
+
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int WORDS = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    private static final long SLOT_NANOS = SLOT_MINUTES * 60_000_000_000L;
+
+    @Autowired
+    RoomCalendar roomCalendar;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Value("${appointments.occupancy.max-days:62}")
+    int maxDays = 62;
+
+    // Row of each room; a deleted room's row is cleared and never reused
+    private final Map<String, Integer> rows = new HashMap<>();
+    // Capacity of each room that takes more than one booking at a time
+    private final Map<String, Integer> shared = new HashMap<>();
+    private volatile String[] names = new String[0];
+    // Live rows in room-name order
+    private volatile int[] byName = new int[0];
+    private int capacity = 64;
+    private final Map<LocalDate, AtomicLongArray> days = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public synchronized void load() {
+        this.rows.clear();
+        this.names = new String[0];
+        this.byName = new int[0];
+        this.days.clear();
+        this.shared.clear();
+        roomRepository.findAllRoomNames().forEach(this::row);
+        for (RoomSummary room : roomRepository.findSharedRooms()) {
+            this.shared.put(room.getRoomName(), room.getCapacity());
+        }
+    }
+
+    // Also called when a room is saved again, possibly with another capacity
+    public synchronized void addRoom(final String roomName, final int capacity) {
+        row(roomName);
+        final Integer previous = capacity > 1 ? this.shared.put(roomName, capacity) : this.shared.remove(roomName);
+        if (!Objects.equals(previous, capacity > 1 ? Integer.valueOf(capacity) : null)) {
+            refresh(roomName);
+        }
+    }
+
+    public synchronized void removeRoom(final String roomName) {
+        this.shared.remove(roomName);
+        final Integer row = this.rows.remove(roomName);
+        if (row == null) {
+            return;
+        }
+        final String[] names = this.names.clone();
+        names[row] = null;
+        this.names = names;
+        this.byName = sortByName(names);
+        for (AtomicLongArray day : this.days.values()) {
+            for (int w = 0; w < WORDS; w++) {
+                day.set(row * WORDS + w, 0);
+            }
+        }
+    }
+
+    public synchronized void add(final Appointment appointment) {
+        if (appointment.getRoom() == null || appointment.getStartsAt() == null || appointment.getFinishesAt() == null) {
+            return;
+        }
+        if (this.shared.containsKey(appointment.getRoom().getRoomName())) {
+            refresh(appointment.getRoom().getRoomName());
+            return;
+        }
+        final int row = row(appointment.getRoom().getRoomName());
+        for (Map.Entry<LocalDate, AtomicLongArray> day : this.days.entrySet()) {
+            final long[] bits = new long[WORDS];
+            mark(bits, day.getKey(), appointment.getStartsAt(), appointment.getFinishesAt());
+            for (int w = 0; w < WORDS; w++) {
+                if (bits[w] != 0) {
+                    final int index = row * WORDS + w;
+                    day.getValue().set(index, day.getValue().get(index) | bits[w]);
+                }
+            }
+        }
+    }
+
+    public synchronized void remove(final Appointment appointment) {
+        if (appointment.getRoom() != null) {
+            refresh(appointment.getRoom().getRoomName());
+        }
+    }
+
+    public synchronized void addSeries(final AppointmentSeries series) {
+        if (series.getRoom() != null) {
+            row(series.getRoom().getRoomName());
+            refresh(series.getRoom().getRoomName());
+        }
+    }
+
+    public synchronized void removeSeries(final AppointmentSeries series) {
+        if (series.getRoom() != null) {
+            refresh(series.getRoom().getRoomName());
+        }
+    }
+
+    /**
+     * Rooms with at least {@code slots} consecutive free slots inside
+     * [fromSlot, toSlot) of {@code date}, each with its first such stretch,
+     * earliest first and then by name.
+     */
+    public List<FreeRun> freeRooms(final LocalDate date, final int fromSlot, final int toSlot, final int slots) {
+        // Rows before the day: the array only grows, so every row read here fits in it
+        final String[] names = this.names;
+        final int[] byName = this.byName;
+        final AtomicLongArray day = day(date);
+        final long[] window = range(fromSlot, toSlot);
+        final long[] free = new long[WORDS];
+        // Start slot, then name rank, then end slot, packed so a primitive sort orders them
+        final long[] found = new long[byName.length];
+        int count = 0;
+        for (int rank = 0; rank < byName.length; rank++) {
+            final int row = byName[rank];
+            for (int w = 0; w < WORDS; w++) {
+                free[w] = ~day.get(row * WORDS + w) & window[w];
+            }
+            final int start = firstRun(free, slots);
+            if (start >= 0) {
+                found[count++] = (long) start << 40 | (long) rank << 12 | nextClear(free, start + slots);
+            }
+        }
+        Arrays.sort(found, 0, count);
+
+        final List<FreeRun> runs = new ArrayList<>(count);
+        final LocalDateTime midnight = date.atStartOfDay();
+        for (int i = 0; i < count; i++) {
+            final int start = (int) (found[i] >>> 40);
+            final int rank = (int) (found[i] >>> 12 & 0xFFFFFFF);
+            final int end = (int) (found[i] & 0xFFF);
+            runs.add(new FreeRun(names[byName[rank]], midnight.plusMinutes((long) start * SLOT_MINUTES),
+                                 midnight.plusMinutes((long) end * SLOT_MINUTES)));
+        }
+        return runs;
+    }
+
+    /**
+     * Every room's slots on {@code date} by name, as 72 hex digits: slot 0
+     * (00:00 to 00:05) is the high bit of the first digit, 1 means busy.
+     */
+    public Map<String, String> board(final LocalDate date) {
+        final String[] names = this.names;
+        final int[] byName = this.byName;
+        final AtomicLongArray day = day(date);
+
+        final Map<String, String> board = new LinkedHashMap<>();
+        final char[] hex = new char[SLOTS_PER_DAY / 4];
+        for (int row : byName) {
+            for (int digit = 0; digit < hex.length; digit++) {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int slot = digit * 4 + i;
+                    value = value << 1 | (int) (day.get(row * WORDS + slot / Long.SIZE) >>> (slot % Long.SIZE) & 1);
+                }
+                hex[digit] = Character.forDigit(value, 16);
+            }
+            board.put(names[row], new String(hex));
+        }
+        return board;
+    }
+
+    public int rooms() {
+        return this.byName.length;
+    }
+
+    public static int slotOf(final LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    private AtomicLongArray day(final LocalDate date) {
+        final AtomicLongArray day = this.days.get(date);
+        return day != null ? day : build(date);
+    }
+
+    private synchronized AtomicLongArray build(final LocalDate date) {
+        final AtomicLongArray existing = this.days.get(date);
+        if (existing != null) {
+            return existing;
+        }
+        if (this.days.size() >= this.maxDays) {
+            this.days.remove(Collections.min(this.days.keySet()));
+        }
+        final AtomicLongArray day = new AtomicLongArray(this.capacity * WORDS);
+        final String[] names = this.names;
+        for (int row = 0; row < names.length; row++) {
+            if (names[row] != null) {
+                write(day, row, busy(date, names[row]));
+            }
+        }
+        this.days.put(date, day);
+        return day;
+    }
+
+    /**
+     * Rebuilds the room's rows from the calendar, which is updated first.
+     * Each row is built aside and its words written once, so a lock-free
+     * reader never sees it cleared.
+     */
+    private void refresh(final String roomName) {
+        final Integer row = this.rows.get(roomName);
+        if (row == null) {
+            return;
+        }
+        for (Map.Entry<LocalDate, AtomicLongArray> day : this.days.entrySet()) {
+            write(day.getValue(), row, busy(day.getKey(), roomName));
+        }
+    }
+
+    private static void write(final AtomicLongArray day, final int row, final long[] bits) {
+        for (int w = 0; w < WORDS; w++) {
+            day.set(row * WORDS + w, bits[w]);
+        }
+    }
+
+    // The room's row for the day, from the calendar
+    private long[] busy(final LocalDate date, final String roomName) {
+        final long[] bits = new long[WORDS];
+        final Integer capacity = this.shared.get(roomName);
+        if (capacity == null) {
+            for (CalendarEntry entry : roomCalendar.day(roomName, date)) {
+                mark(bits, date, entry.getStartsAt(), entry.getFinishesAt());
+            }
+            return bits;
+        }
+        final List<Interval> booked = new ArrayList<>();
+        for (CalendarEntry entry : roomCalendar.day(roomName, date)) {
+            booked.add(Interval.of(entry.getId(), entry.getStartsAt(), entry.getFinishesAt()));
+        }
+        final long dayStart = Interval.floorMinute(date.atStartOfDay());
+        for (Interval full : ConcurrencySweep.full(booked, dayStart, dayStart + 24 * 60, capacity)) {
+            mark(bits, date, Interval.toDateTime(full.getStart()), Interval.toDateTime(full.getFinish()));
+        }
+        return bits;
+    }
+
+    private static void mark(final long[] bits, final LocalDate date, final LocalDateTime startsAt, final LocalDateTime finishesAt) {
+        final LocalDateTime dayStart = date.atStartOfDay();
+        final LocalDateTime dayEnd = dayStart.plusDays(1);
+        if (!startsAt.isBefore(dayEnd) || !finishesAt.isAfter(dayStart)) {
+            return;
+        }
+        final int from = startsAt.isBefore(dayStart) ? 0 : slotOf(startsAt.toLocalTime());
+        // Round the end up: a partly used slot is busy
+        final int to;
+        if (!finishesAt.isBefore(dayEnd)) {
+            to = SLOTS_PER_DAY;
+        } else {
+            to = (int) ((finishesAt.toLocalTime().toNanoOfDay() + SLOT_NANOS - 1) / SLOT_NANOS);
+        }
+        final long[] range = range(from, to);
+        for (int w = 0; w < WORDS; w++) {
+            bits[w] |= range[w];
+        }
+    }
+
+    private int row(final String roomName) {
+        final Integer existing = this.rows.get(roomName);
+        if (existing != null) {
+            return existing;
+        }
+        final int row = this.names.length;
+        if (row == this.capacity) {
+            this.capacity *= 2;
+            for (Map.Entry<LocalDate, AtomicLongArray> day : this.days.entrySet()) {
+                final AtomicLongArray grown = new AtomicLongArray(this.capacity * WORDS);
+                for (int i = 0; i < day.getValue().length(); i++) {
+                    grown.set(i, day.getValue().get(i));
+                }
+                day.setValue(grown);
+            }
+        }
+        final String[] names = new String[row + 1];
+        System.arraycopy(this.names, 0, names, 0, row);
+        names[row] = roomName;
+        this.rows.put(roomName, row);
+        this.names = names;
+        this.byName = sortByName(names);
+        return row;
+    }
+
+    // Bits [from, to) set
+    static long[] range(final int from, final int to) {
+        final long[] bits = new long[WORDS];
+        for (int w = 0; w < WORDS; w++) {
+            final int lo = Math.max(from - w * Long.SIZE, 0);
+            final int hi = Math.min(to - w * Long.SIZE, Long.SIZE);
+            if (lo < hi) {
+                final long upTo = hi == Long.SIZE ? -1L : (1L << hi) - 1;
+                bits[w] = upTo & (-1L << lo);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * First slot starting {@code length} consecutive set bits, or -1. Shifts
+     * and ANDs the whole row at once, doubling the run length each round, so
+     * a 30-minute search takes three rounds of five words.
+     */
+    static int firstRun(final long[] free, final int length) {
+        final long[] run = free.clone();
+        int covered = 1;
+        while (covered < length) {
+            final int shift = Math.min(covered, length - covered);
+            andShifted(run, shift);
+            covered += shift;
+        }
+        for (int w = 0; w < WORDS; w++) {
+            if (run[w] != 0) {
+                return w * Long.SIZE + Long.numberOfTrailingZeros(run[w]);
+            }
+        }
+        return -1;
+    }
+
+    // run[i] &= run[i + shift], word by word; ascending order only reads words not yet written
+    private static void andShifted(final long[] run, final int shift) {
+        final int words = shift / Long.SIZE;
+        final int bits = shift % Long.SIZE;
+        for (int w = 0; w < WORDS; w++) {
+            final long lo = w + words < WORDS ? run[w + words] : 0;
+            final long hi = w + words + 1 < WORDS ? run[w + words + 1] : 0;
+            final long shifted = bits == 0 ? lo : lo >>> bits | hi << (Long.SIZE - bits);
+            run[w] &= shifted;
+        }
+    }
+
+    // First clear bit at or after slot, or SLOTS_PER_DAY
+    private static int nextClear(final long[] bits, final int slot) {
+        for (int w = slot / Long.SIZE; w < WORDS; w++) {
+            final long clear = ~bits[w] & (w == slot / Long.SIZE ? -1L << (slot % Long.SIZE) : -1L);
+            if (clear != 0) {
+                return Math.min(w * Long.SIZE + Long.numberOfTrailingZeros(clear), SLOTS_PER_DAY);
+            }
+        }
+        return SLOTS_PER_DAY;
+    }
+
+    private static int[] sortByName(final String[] names) {
+        final List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < names.length; row++) {
+            if (names[row] != null) {
+                rows.add(row);
+            }
+        }
+        rows.sort((a, b) -> names[a].compareTo(names[b]));
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * One computed occurrence of a recurring series.
+ */
+public class Occurrence {
+
+    private final long seriesId;
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+
+    public Occurrence(long seriesId, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        this.seriesId = seriesId;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    public long getSeriesId() {
+        return this.seriesId;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getStartsAt() {
+        return this.startsAt;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFinishesAt() {
+        return this.finishesAt;
+    }
+}
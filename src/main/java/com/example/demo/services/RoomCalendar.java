@@ -0,0 +1,252 @@
+package com.example.demo.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.repositories.AppointmentFilter;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.AppointmentSlot;
+import com.example.demo.repositories.AppointmentSummary;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read model behind the calendar views: room, then day, then that day's
+ * bookings sorted by start. Each day is an immutable array swapped on
+ * write, so reads never lock and never reach JPA. Loaded at startup and
+ * kept up to date by the booking services and {@code AppointmentController}
+ * after every commit, like {@code RoomScheduleIndex}; writes made by other
+ * instances are not seen, which {@link #verify()} reports.
+ *
+ * <p>A booking that runs past midnight is listed on every day it touches.
+ * Recurring series are kept per room and expanded for the day asked for.
+ */
+@Component
+public class RoomCalendar {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private static final Comparator<CalendarEntry> ORDER = Comparator.comparing(CalendarEntry::getStartsAt)
+                                                                     .thenComparingLong(CalendarEntry::getId);
+
+    private static final CalendarEntry[] EMPTY = new CalendarEntry[0];
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    private final Map<String, Map<LocalDate, CalendarEntry[]>> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, AppointmentSeries>> series = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        clear();
+        LocalDateTime afterStartsAt = null;
+        long afterId = 0;
+        List<AppointmentSummary> page;
+        do {
+            page = appointmentRepository.findPage(AppointmentFilter.none(), afterStartsAt, afterId, LOAD_PAGE_SIZE);
+            for (AppointmentSummary summary : page) {
+                if (summary.getRoomName() != null && summary.getStartsAt() != null && summary.getFinishesAt() != null) {
+                    put(summary.getRoomName(), CalendarEntry.of(summary));
+                }
+            }
+            if (!page.isEmpty()) {
+                final AppointmentSummary last = page.get(page.size() - 1);
+                afterStartsAt = last.getStartsAt();
+                afterId = last.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE && afterStartsAt != null);
+        seriesRepository.findAll().forEach(this::addSeries);
+    }
+
+    public void add(final Appointment appointment) {
+        if (roomOf(appointment) != null && appointment.getStartsAt() != null && appointment.getFinishesAt() != null) {
+            put(roomOf(appointment), CalendarEntry.of(appointment));
+        }
+    }
+
+    public void remove(final Appointment appointment) {
+        final String roomName = roomOf(appointment);
+        final Map<LocalDate, CalendarEntry[]> days = roomName == null ? null : this.rooms.get(roomName);
+        if (days == null || appointment.getStartsAt() == null || appointment.getFinishesAt() == null) {
+            return;
+        }
+        for (LocalDate day : days(appointment.getStartsAt(), appointment.getFinishesAt())) {
+            days.computeIfPresent(day, (date, entries) -> {
+                final CalendarEntry[] kept = Arrays.stream(entries)
+                                                   .filter(entry -> entry.getId() != appointment.getId())
+                                                   .toArray(CalendarEntry[]::new);
+                return kept.length == 0 ? null : kept;
+            });
+        }
+    }
+
+    public void addSeries(final AppointmentSeries series) {
+        if (series.getRoom() != null) {
+            this.series.computeIfAbsent(series.getRoom().getRoomName(), room -> new ConcurrentHashMap<>())
+                       .put(series.getId(), series);
+        }
+    }
+
+    public void removeSeries(final AppointmentSeries series) {
+        this.series.values().forEach(bySeries -> bySeries.remove(series.getId()));
+    }
+
+    public void clear() {
+        this.rooms.clear();
+        this.series.clear();
+    }
+
+    /**
+     * Bookings in the room touching {@code date}, by start.
+     */
+    public List<CalendarEntry> day(final String roomName, final LocalDate date) {
+        final Map<LocalDate, CalendarEntry[]> days = this.rooms.get(roomName);
+        final CalendarEntry[] stored = days == null ? null : days.get(date);
+        final Map<Long, AppointmentSeries> recurring = this.series.get(roomName);
+        if (recurring == null || recurring.isEmpty()) {
+            return stored == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(stored));
+        }
+
+        final List<CalendarEntry> entries = new ArrayList<>(stored == null ? Collections.emptyList() : Arrays.asList(stored));
+        for (AppointmentSeries each : recurring.values()) {
+            for (Appointment occurrence : each.occurrences(date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                entries.add(CalendarEntry.occurrence(each, occurrence));
+            }
+        }
+        entries.sort(ORDER);
+        return entries;
+    }
+
+    /**
+     * The Monday-to-Sunday week holding {@code date}; days without bookings included.
+     */
+    public List<CalendarDay> week(final String roomName, final LocalDate date) {
+        final LocalDate monday = date.with(DayOfWeek.MONDAY);
+        final List<CalendarDay> week = new ArrayList<>(7);
+        for (int i = 0; i < 7; i++) {
+            final LocalDate day = monday.plusDays(i);
+            week.add(new CalendarDay(day, day(roomName, day)));
+        }
+        return week;
+    }
+
+    /**
+     * Compares the model with the database: stored appointments by id, room
+     * and window, series by id. Writes racing the check can show up as
+     * transient differences.
+     */
+    public CalendarConsistency verify() {
+        final Map<Long, AppointmentSlot> stored = new HashMap<>();
+        for (AppointmentSlot slot : appointmentRepository.findAllSlots()) {
+            if (slot.getRoomName() != null && slot.getStartsAt() != null && slot.getFinishesAt() != null) {
+                stored.put(slot.getId(), slot);
+            }
+        }
+        final Map<Long, String> modelled = new HashMap<>();
+        final Map<Long, CalendarEntry> entries = new HashMap<>();
+        for (Map.Entry<String, Map<LocalDate, CalendarEntry[]>> room : this.rooms.entrySet()) {
+            for (CalendarEntry[] day : room.getValue().values()) {
+                for (CalendarEntry entry : day) {
+                    modelled.put(entry.getId(), room.getKey());
+                    entries.put(entry.getId(), entry);
+                }
+            }
+        }
+
+        final List<Long> missing = new ArrayList<>();
+        final List<Long> mismatched = new ArrayList<>();
+        for (AppointmentSlot slot : stored.values()) {
+            final CalendarEntry entry = entries.get(slot.getId());
+            if (entry == null) {
+                missing.add(slot.getId());
+            } else if (!slot.getRoomName().equals(modelled.get(slot.getId()))
+                    || !slot.getStartsAt().equals(entry.getStartsAt()) || !slot.getFinishesAt().equals(entry.getFinishesAt())) {
+                mismatched.add(slot.getId());
+            }
+        }
+        final List<Long> unexpected = new ArrayList<>(entries.keySet());
+        unexpected.removeAll(stored.keySet());
+
+        final Set<Long> storedSeries = new HashSet<>();
+        for (AppointmentSeries each : seriesRepository.findAll()) {
+            if (each.getRoom() != null) {
+                storedSeries.add(each.getId());
+            }
+        }
+        final Set<Long> modelledSeries = new HashSet<>();
+        this.series.values().forEach(bySeries -> modelledSeries.addAll(bySeries.keySet()));
+        final List<Long> missingSeries = difference(storedSeries, modelledSeries);
+        final List<Long> unexpectedSeries = difference(modelledSeries, storedSeries);
+
+        return new CalendarConsistency(stored.size(), storedSeries.size(), sorted(missing), sorted(unexpected), sorted(mismatched),
+                                       missingSeries, unexpectedSeries);
+    }
+
+    private void put(final String roomName, final CalendarEntry entry) {
+        final Map<LocalDate, CalendarEntry[]> days = this.rooms.computeIfAbsent(roomName, room -> new ConcurrentHashMap<>());
+        for (LocalDate day : days(entry.getStartsAt(), entry.getFinishesAt())) {
+            days.merge(day, new CalendarEntry[] { entry }, RoomCalendar::insert);
+        }
+    }
+
+    // Copy with the entry at its sorted position, replacing any with the same id
+    private static CalendarEntry[] insert(final CalendarEntry[] entries, final CalendarEntry[] added) {
+        final CalendarEntry entry = added[0];
+        final List<CalendarEntry> copy = new ArrayList<>(entries.length + 1);
+        for (CalendarEntry existing : entries) {
+            if (existing.getId() != entry.getId()) {
+                copy.add(existing);
+            }
+        }
+        int at = Collections.binarySearch(copy, entry, ORDER);
+        copy.add(at < 0 ? -at - 1 : at, entry);
+        return copy.toArray(EMPTY);
+    }
+
+    // Days [startsAt, finishesAt) touches; a booking ending at midnight stays on the day before
+    private static List<LocalDate> days(final LocalDateTime startsAt, final LocalDateTime finishesAt) {
+        final List<LocalDate> days = new ArrayList<>(1);
+        final LocalDate last = finishesAt.isAfter(startsAt) ? finishesAt.minusNanos(1).toLocalDate() : startsAt.toLocalDate();
+        for (LocalDate day = startsAt.toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static String roomOf(final Appointment appointment) {
+        return appointment.getRoom() == null ? null : appointment.getRoom().getRoomName();
+    }
+
+    private static List<Long> difference(final Collection<Long> left, final Collection<Long> right) {
+        final List<Long> difference = new ArrayList<>(left);
+        difference.removeAll(right);
+        return sorted(difference);
+    }
+
+    private static List<Long> sorted(final List<Long> ids) {
+        Collections.sort(ids);
+        return ids;
+    }
+}
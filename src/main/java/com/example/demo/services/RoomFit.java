@@ -0,0 +1,44 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A room free for the whole requested window, with the free gap around it.
+ * The gap is cut off at the search horizon, so a wide open room reports the
+ * horizon rather than its full gap.
+ */
+public class RoomFit {
+
+    private final String roomName;
+    private final LocalDateTime freeFrom;
+    private final LocalDateTime freeUntil;
+
+    public RoomFit(String roomName, LocalDateTime freeFrom, LocalDateTime freeUntil) {
+        this.roomName = roomName;
+        this.freeFrom = freeFrom;
+        this.freeUntil = freeUntil;
+    }
+
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFreeFrom() {
+        return this.freeFrom;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    public LocalDateTime getFreeUntil() {
+        return this.freeUntil;
+    }
+
+    @JsonIgnore
+    public Duration getGap() {
+        return Duration.between(this.freeFrom, this.freeUntil);
+    }
+}
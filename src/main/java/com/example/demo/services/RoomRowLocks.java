@@ -0,0 +1,151 @@
+package com.example.demo.services;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.PostConstruct;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Room;
+import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.repositories.PatientRepository;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.ConflictDimensions.Dimension;
+import com.example.demo.scheduling.SqlConflictDetector;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cluster-wide booking lock: with {@code appointments.booking-lock=room-row}
+ * every booking transaction takes {@code SELECT ... FOR UPDATE} on its room
+ * rows before the overlap check, so instances sharing the database
+ * serialise per room. Doctor and patient rows are locked too when
+ * {@link ConflictDimensions} enforces those, always after the rooms, so the
+ * lock order stays global. The wait is bounded by
+ * {@code javax.persistence.lock.timeout} (or the database's own lock wait
+ * timeout) and surfaces as a {@code PessimisticLockingFailureException}.
+ */
+@Component
+public class RoomRowLocks {
+
+    static final String ROOM_ROW = "room-row";
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    ConflictDetector conflictDetector;
+
+    @Autowired
+    ConflictDimensions conflictDimensions;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${appointments.booking-lock:local}")
+    String bookingLock;
+
+    @PostConstruct
+    void check() {
+        // The memory engine only sees this instance's bookings
+        if (isEnabled() && !(conflictDetector instanceof SqlConflictDetector)) {
+            throw new IllegalStateException("appointments.booking-lock=room-row needs appointments.conflict-engine=sql");
+        }
+    }
+
+    public boolean isEnabled() {
+        return ROOM_ROW.equals(bookingLock);
+    }
+
+    /**
+     * Inserts the rooms that don't exist yet, each in its own transaction, so
+     * there is a row to lock. Losing the insert race to another instance is fine.
+     */
+    public void ensureExist(final Collection<String> roomNames) {
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (String roomName : roomNames) {
+            if (roomRepository.findByRoomName(roomName).isPresent()) {
+                continue;
+            }
+            try {
+                transaction.executeWithoutResult(status -> roomRepository.saveAndFlush(new Room(roomName)));
+            } catch (DataIntegrityViolationException e) {
+                // created concurrently
+            }
+        }
+    }
+
+    /**
+     * Locks the rooms' rows in name order, so two multi-room transactions
+     * can't deadlock. Must run inside the booking transaction.
+     *
+     * @return the locked, managed rooms by name
+     */
+    public Map<String, Room> lock(final Collection<String> roomNames) {
+        final Map<String, Room> rooms = new LinkedHashMap<>();
+        for (String roomName : new TreeSet<>(roomNames)) {
+            roomRepository.lockByRoomName(roomName).ifPresent(room -> rooms.put(roomName, room));
+        }
+        return rooms;
+    }
+
+    /**
+     * Locks the rows of the appointments' doctors, then patients, in id order,
+     * for the dimensions that are enforced. Call after {@link #lock}, inside
+     * the booking transaction.
+     */
+    public void lockPeople(final Collection<Appointment> appointments) {
+        if (conflictDimensions.isEnabled(Dimension.DOCTOR)) {
+            keys(appointments, Dimension.DOCTOR).forEach(doctorRepository::lockById);
+        }
+        if (conflictDimensions.isEnabled(Dimension.PATIENT)) {
+            keys(appointments, Dimension.PATIENT).forEach(patientRepository::lockById);
+        }
+    }
+
+    private static Set<Long> keys(final Collection<Appointment> appointments, final Dimension dimension) {
+        final Set<Long> keys = new TreeSet<>();
+        for (Appointment appointment : appointments) {
+            final Object key = appointment == null ? null : dimension.keyOf(appointment);
+            if (key != null) {
+                keys.add((Long) key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Runs a booking transaction. A lock timeout may leave a connection the
+     * pool has already evicted (Hikari does on {@code SQLTimeoutException}),
+     * so the rollback fails too; the timeout is what callers need to see.
+     */
+    public <T> T inTransaction(final TransactionCallback<T> action) {
+        try {
+            return new TransactionTemplate(transactionManager).execute(action);
+        } catch (TransactionSystemException e) {
+            if (e.getApplicationException() instanceof PessimisticLockingFailureException) {
+                throw (PessimisticLockingFailureException) e.getApplicationException();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.repositories.PatientRepository;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.RoomLocks;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+
+/**
+ * Books recurring series. A series keeps one room, doctor and patient, so
+ * it takes the same {@link RoomLocks} stripes and rows as a single booking
+ * of its first occurrence; every occurrence is then checked in one batched
+ * {@link ConflictDetector#collides(List)} pass before the series row is
+ * stored. The occurrences themselves are never stored. Cancelling an
+ * occurrence or deleting the series takes the same locks.
+ */
+@Service
+public class SeriesService {
+
+    @Autowired
+    AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    ConflictDetector conflictDetector;
+
+    @Autowired
+    ConflictDimensions conflictDimensions;
+
+    @Autowired
+    RoomLocks roomLocks;
+
+    @Autowired
+    RoomRowLocks roomRowLocks;
+
+    @Autowired
+    RoomCalendar roomCalendar;
+
+    @Autowired
+    OccupancyMatrix occupancyMatrix;
+
+    @Value("${appointments.series.max-duration:PT24H}")
+    Duration maxDuration;
+
+    @Value("${appointments.series.max-occurrences:1000}")
+    int maxOccurrences;
+
+    /**
+     * True when the series has a frequency, an interval of at least one, an
+     * end (count or until), valid dates for its first occurrence, occurrences
+     * that can't overlap each other, and no more than
+     * {@code appointments.series.max-occurrences} of them.
+     */
+    public boolean isValid(final AppointmentSeries series) {
+        if (series.getFrequency() == null || series.getInterval() < 1
+                || series.getStartsAt() == null || series.getFinishesAt() == null) {
+            return false;
+        }
+        if (series.getCount() == null ? series.getUntil() == null || series.getUntil().isBefore(series.getStartsAt())
+                                      : series.getCount() < 1) {
+            return false;
+        }
+        final Duration duration = series.getDuration();
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            return false;
+        }
+        // Shortest gap between two starts; a month is at least 28 days
+        final long periodDays;
+        switch (series.getFrequency()) {
+            case DAILY:
+                periodDays = series.getInterval();
+                break;
+            case WEEKLY:
+                periodDays = 7L * series.getInterval();
+                break;
+            default:
+                periodDays = 28L * series.getInterval();
+        }
+        return duration.compareTo(Duration.ofDays(periodDays)) <= 0 && series.size() <= maxOccurrences;
+    }
+
+    /**
+     * @return false, storing nothing, if any occurrence overlaps an existing booking
+     * @throws org.springframework.dao.PessimisticLockingFailureException if a locked row stayed locked too long
+     */
+    public boolean book(final AppointmentSeries series) {
+        final AppointmentSeries booked = locked(series, status -> {
+            // The stored room, so the check sees its capacity
+            attachReferences(series);
+            for (boolean collides : conflictDetector.collides(series.occurrences())) {
+                if (collides) {
+                    return null;
+                }
+            }
+            return seriesRepository.save(series);
+        }, this::added);
+        return booked != null;
+    }
+
+    /**
+     * Skips the occurrence starting on {@code date}.
+     *
+     * @return the updated series, or empty if it has no occurrence that day
+     * @throws org.springframework.dao.PessimisticLockingFailureException if a locked row stayed locked too long
+     */
+    public Optional<AppointmentSeries> cancelOccurrence(final long id, final LocalDate date) {
+        final Optional<AppointmentSeries> found = seriesRepository.findById(id);
+        if (!found.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(locked(found.get(), status -> {
+            // Read again under the locks, so a concurrent cancellation's date isn't lost
+            final AppointmentSeries series = seriesRepository.findById(id).orElse(null);
+            if (series == null || !startsOn(series, date)) {
+                return null;
+            }
+            series.getExceptions().add(date);
+            return seriesRepository.save(series);
+        }, this::added));
+    }
+
+    /**
+     * @throws org.springframework.dao.PessimisticLockingFailureException if a locked row stayed locked too long
+     */
+    public boolean delete(final long id) {
+        final Optional<AppointmentSeries> found = seriesRepository.findById(id);
+        if (!found.isPresent()) {
+            return false;
+        }
+        return locked(found.get(), status -> {
+            final AppointmentSeries series = seriesRepository.findById(id).orElse(null);
+            if (series != null) {
+                seriesRepository.delete(series);
+            }
+            return series;
+        }, series -> {
+            conflictDetector.removeSeries(series);
+            roomCalendar.removeSeries(series);
+            occupancyMatrix.removeSeries(series);
+        }) != null;
+    }
+
+    // Replaces any earlier version in place; removing it first would leave its occurrences open for a moment
+    private void added(final AppointmentSeries series) {
+        conflictDetector.addSeries(series);
+        roomCalendar.addSeries(series);
+        occupancyMatrix.addSeries(series);
+    }
+
+    /**
+     * Runs {@code write} in a transaction holding the {@link RoomLocks}
+     * stripes a single booking of the series' first occurrence takes, and
+     * with {@link RoomRowLocks} enabled its rows too. {@code published}
+     * gets a non-null result once committed, still under the stripes, so
+     * two writers of one series update the in-memory views in commit order.
+     */
+    private AppointmentSeries locked(final AppointmentSeries series, final TransactionCallback<AppointmentSeries> write,
+                                     final Consumer<AppointmentSeries> published) {
+        final Appointment template = series.template();
+        final String roomName = series.getRoom() == null ? null : series.getRoom().getRoomName();
+        final boolean lockRow = roomRowLocks.isEnabled() && roomName != null;
+        final List<Lock> locks = roomLocks.getAll(conflictDimensions.lockKeys(template));
+        locks.forEach(Lock::lock);
+        try {
+            if (lockRow) {
+                roomRowLocks.ensureExist(Collections.singleton(roomName));
+            }
+            final AppointmentSeries written = roomRowLocks.inTransaction(status -> {
+                if (lockRow) {
+                    roomRowLocks.lock(Collections.singleton(roomName)).values().forEach(series::setRoom);
+                }
+                if (roomRowLocks.isEnabled()) {
+                    roomRowLocks.lockPeople(Collections.singletonList(template));
+                }
+                return write.doInTransaction(status);
+            });
+            if (written != null) {
+                published.accept(written);
+            }
+            return written;
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private static boolean startsOn(final AppointmentSeries series, final LocalDate date) {
+        for (Appointment occurrence : series.occurrences(date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            if (occurrence.getStartsAt().toLocalDate().equals(date)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Swaps in managed instances for a room, doctor or patient that already
+     * exist, so the cascade doesn't insert them a second time.
+     */
+    private void attachReferences(final AppointmentSeries series) {
+        if (series.getRoom() != null) {
+            roomRepository.findByRoomName(series.getRoom().getRoomName())
+                          .ifPresent(series::setRoom);
+        }
+        if (series.getDoctor() != null && series.getDoctor().getId() != 0) {
+            doctorRepository.findById(series.getDoctor().getId())
+                            .ifPresent(series::setDoctor);
+        }
+        if (series.getPatient() != null && series.getPatient().getId() != 0) {
+            patientRepository.findById(series.getPatient().getId())
+                             .ifPresent(series::setPatient);
+        }
+    }
+}
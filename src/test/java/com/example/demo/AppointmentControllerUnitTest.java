@@ -1,7 +1,13 @@
 package com.example.demo;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,32 +24,80 @@ import java.util.Optional;
 import java.time.LocalDateTime;
 import java.time.format.*;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import com.example.demo.controllers.AppointmentController;
+import com.example.demo.metrics.MetricRegistry;
 import com.example.demo.repositories.*;
 import com.example.demo.entities.*;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.RoomLocks;
+import com.example.demo.scheduling.RoomScheduleIndex;
+import com.example.demo.services.BatchBookingService;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
+import com.example.demo.services.RoomRowLocks;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.BookingResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(AppointmentController.class)
+@Import({ BookingService.class, ConflictDimensions.class, MetricRegistry.class, OccupancyMatrix.class, RoomCalendar.class, RoomLocks.class, RoomRowLocks.class, RoomScheduleIndex.class })
 class AppointmentControllerUnitTest{
 
     @MockBean
     private AppointmentRepository appointmentRepository;
 
+    @MockBean
+    private AppointmentSeriesRepository seriesRepository;
+
+    @MockBean
+    private DoctorRepository doctorRepository;
+
+    @MockBean
+    private PatientRepository patientRepository;
+
+    @MockBean
+    private RoomRepository roomRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private BatchBookingService batchBookingService;
+
+    @Autowired
+    private RoomScheduleIndex roomScheduleIndex;
+
     @Autowired 
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        roomScheduleIndex.clear();
+    }
+
+    private static AppointmentSummary summaryOf(Appointment appointment) {
+        return new AppointmentSummary(appointment.getId(), appointment.getRoom().getRoomName(),
+                appointment.getDoctor().getId(), appointment.getDoctor().getFirstName() + " " + appointment.getDoctor().getLastName(),
+                appointment.getPatient().getId(), appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName(),
+                appointment.getStartsAt(), appointment.getFinishesAt());
+    }
+
     @Test
     void shouldCreateAppointment() throws Exception {
         
@@ -60,8 +114,34 @@ class AppointmentControllerUnitTest{
 
         mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(appointment)))
-                .andExpect(status().isOk());
-                
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.startsAt").value("19:30 24/04/2023"))
+                .andExpect(jsonPath("$.room.roomName").value("Dermatology"));
+
+        verify(appointmentRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldAskToRetryWhenRoomLockTimesOut() throws Exception {
+
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+        LocalDateTime startsAt= LocalDateTime.parse("19:30 24/04/2023", formatter);
+        LocalDateTime finishesAt = LocalDateTime.parse("20:30 24/04/2023", formatter);
+
+        Appointment appointment = new Appointment(patient, doctor, room, startsAt, finishesAt);
+
+        when(appointmentRepository.save(any(Appointment.class))).thenThrow(new PessimisticLockingFailureException("Lock wait timeout"));
+
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(appointment)))
+                .andExpect(status().isServiceUnavailable());
+
+        assertThat(roomScheduleIndex.size()).isZero();
     }
 
     @Test
@@ -84,6 +164,26 @@ class AppointmentControllerUnitTest{
 
     }
 
+    @Test
+    void shouldCreateAppointmentLongerThanADay() throws Exception {
+
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+        LocalDateTime startsAt= LocalDateTime.parse("19:30 24/04/2023", formatter);
+        LocalDateTime finishesAt = LocalDateTime.parse("19:31 27/04/2023", formatter);
+
+        Appointment appointment = new Appointment(patient, doctor, room, startsAt, finishesAt);
+
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(appointment)))
+                .andExpect(status().isOk());
+
+    }
+
     @Test
     void shouldCreateOneAppointmentOutOfTwoConflictDate() throws Exception{
         Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
@@ -119,6 +219,30 @@ class AppointmentControllerUnitTest{
 
     }
 
+    @Test
+    void shouldNotCreateAppointmentContainedInAnExistingOne() throws Exception{
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Patient patient2 = new Patient("Paulino", "Antunez", 37, "p.antunez@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Doctor doctor2 = new Doctor ("Miren", "Iniesta", 24, "m.iniesta@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+        Appointment appointment = new Appointment(patient, doctor, room,
+                LocalDateTime.parse("18:00 24/04/2023", formatter), LocalDateTime.parse("21:00 24/04/2023", formatter));
+        Appointment appointment2 = new Appointment(patient2, doctor2, room,
+                LocalDateTime.parse("19:00 24/04/2023", formatter), LocalDateTime.parse("20:00 24/04/2023", formatter));
+
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(appointment)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(appointment2)))
+                .andExpect(status().isNotAcceptable());
+    }
+
     @Test
     void shouldCreateBothAppointmentsConflictDateButNotRoom() throws Exception {
 
@@ -160,8 +284,8 @@ class AppointmentControllerUnitTest{
     
     @Test
     void shouldGetNoAppointments() throws Exception{
-        List<Appointment> appointments = new ArrayList<Appointment>();
-        when(appointmentRepository.findAll()).thenReturn(appointments);
+        List<AppointmentSummary> appointments = new ArrayList<AppointmentSummary>();
+        when(appointmentRepository.findPage(any(), any(), anyLong(), anyInt())).thenReturn(appointments);
         mockMvc.perform(get("/api/appointments"))
                 .andExpect(status().isNoContent());
                 
@@ -186,16 +310,51 @@ class AppointmentControllerUnitTest{
         Appointment appointment = new Appointment(patient, doctor, room, startsAt, finishesAt);
         Appointment appointment2 = new Appointment(patient2, doctor2, room, startsAt2, finishesAt2);
 
-        List<Appointment> appointments = new ArrayList<Appointment>();
-        appointments.add(appointment);
-        appointments.add(appointment2);
+        List<AppointmentSummary> appointments = new ArrayList<AppointmentSummary>();
+        appointments.add(summaryOf(appointment));
+        appointments.add(summaryOf(appointment2));
 
-        when(appointmentRepository.findAll()).thenReturn(appointments);
+        when(appointmentRepository.findPage(any(), any(), anyLong(), anyInt())).thenReturn(appointments);
         mockMvc.perform(get("/api/appointments"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].roomName").value("Dermatology"))
+                .andExpect(jsonPath("$[1].doctorName").value("Miren Iniesta"))
+                .andExpect(jsonPath("$[1].patientName").value("Paulino Antunez"))
+                .andExpect(jsonPath("$[1].startsAt").value("19:30 24/04/2023"))
+                .andExpect(jsonPath("$[1].patient").doesNotExist());
                 
     }
 
+    @Test
+    void shouldGetFirstPageOfAppointmentsWithNextLink() throws Exception{
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+        LocalDateTime startsAt= LocalDateTime.parse("19:00 24/04/2023", formatter);
+
+        Appointment appointment = new Appointment(patient, doctor, room, startsAt, startsAt.plusMinutes(30));
+        Appointment appointment2 = new Appointment(patient, doctor, room, startsAt.plusHours(1), startsAt.plusHours(2));
+        appointment.setId(1);
+        appointment2.setId(2);
+
+        when(appointmentRepository.findPage(any(), any(), anyLong(), anyInt())).thenReturn(Arrays.asList(summaryOf(appointment), summaryOf(appointment2)));
+        mockMvc.perform(get("/api/appointments?room=Dermatology&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(header().string("Link", org.hamcrest.Matchers.containsString("cursor=")))
+                .andExpect(header().string("Link", org.hamcrest.Matchers.containsString("room=Dermatology")));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() throws Exception{
+        mockMvc.perform(get("/api/appointments").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldGetAppointmentById() throws Exception{
         Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
@@ -274,5 +433,50 @@ class AppointmentControllerUnitTest{
                 .andExpect(status().isOk());
                 
     }
-}
 
+    @Test
+    void shouldBookBatchAndFlagInvalidItems() throws Exception{
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 0);
+
+        List<Appointment> batch = Arrays.asList(
+                new Appointment(patient, doctor, room, startsAt, startsAt.plusHours(1)),
+                new Appointment(patient, doctor, room, startsAt, startsAt));
+
+        BookingResult accepted = new BookingResult(0, BookingResult.Status.ACCEPTED);
+        accepted.setId(10L);
+        when(batchBookingService.book(any(), any(), any())).thenReturn(Arrays.asList(
+                accepted, new BookingResult(1, BookingResult.Status.INVALID)));
+
+        mockMvc.perform(post("/api/appointments/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ACCEPTED"))
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[1].status").value("INVALID"));
+
+        verify(batchBookingService).book(any(), argThat(invalid -> !invalid.get(0) && invalid.get(1)),
+                eq(BatchBookingService.Mode.BEST_EFFORT));
+    }
+
+    @Test
+    void shouldRejectAtomicBatchWithConflicts() throws Exception{
+        when(batchBookingService.book(any(), any(), any())).thenReturn(Arrays.asList(
+                new BookingResult(0, BookingResult.Status.SKIPPED), new BookingResult(1, BookingResult.Status.CONFLICT)));
+
+        mockMvc.perform(post("/api/appointments/batch?mode=atomic").contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isNotAcceptable())
+                .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+    }
+
+    @Test
+    void shouldRejectUnknownBatchMode() throws Exception{
+        mockMvc.perform(post("/api/appointments/batch?mode=sometimes").contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+}
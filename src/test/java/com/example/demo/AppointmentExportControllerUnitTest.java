@@ -0,0 +1,104 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.controllers.AppointmentExportController;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.AppointmentRepository;
+
+@WebMvcTest(AppointmentExportController.class)
+class AppointmentExportControllerUnitTest {
+
+    @MockBean
+    private AppointmentRepository appointmentRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Appointment[] appointments() {
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        patient.setId(3);
+        doctor.setId(2);
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 30);
+
+        Appointment appointment1 = new Appointment(patient, doctor, new Room("Dermatology"), startsAt, startsAt.plusHours(1));
+        Appointment appointment2 = new Appointment(patient, doctor, new Room("Oncology, 2nd floor"), startsAt, startsAt.plusHours(1));
+        appointment1.setId(1);
+        appointment2.setId(2);
+        return new Appointment[] { appointment1, appointment2 };
+    }
+
+    @Test
+    void should_export_appointments_as_ndjson() throws Exception {
+        Appointment[] appointments = appointments();
+        when(appointmentRepository.streamAllBy()).thenReturn(Stream.of(appointments));
+
+        MvcResult result = mockMvc.perform(get("/api/appointments/export"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType("application/x-ndjson"))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,").contains("\"startsAt\":\"19:30 24/04/2023\"");
+        assertThat(lines[1]).startsWith("{\"id\":2,");
+        verify(entityManager).detach(appointments[0]);
+        verify(entityManager).detach(appointments[1]);
+    }
+
+    @Test
+    void should_export_appointments_as_csv() throws Exception {
+        when(appointmentRepository.streamAllBy()).thenReturn(Stream.of(appointments()));
+
+        MvcResult result = mockMvc.perform(get("/api/appointments/export").param("format", "csv"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+
+        assertThat(body.split("\n")).containsExactly(
+                "id,startsAt,finishesAt,room,doctorId,doctorFirstName,doctorLastName,patientId,patientFirstName,patientLastName",
+                "1,19:30 24/04/2023,20:30 24/04/2023,Dermatology,2,Perla,Amalia,3,Jose Luis,Olaya",
+                "2,19:30 24/04/2023,20:30 24/04/2023,\"Oncology, 2nd floor\",2,Perla,Amalia,3,Jose Luis,Olaya");
+    }
+
+    @Test
+    void should_reject_unknown_export_format() throws Exception {
+        mockMvc.perform(get("/api/appointments/export").param("format", "xml"))
+               .andExpect(status().isBadRequest());
+    }
+}
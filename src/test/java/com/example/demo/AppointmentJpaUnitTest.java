@@ -1,6 +1,7 @@
 package com.example.demo;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -258,4 +259,101 @@ class AppointmentJpaUnitTest {
         assertThat(appointments).isEmpty();
     }
     
+    @Test
+    void should_detect_overlap_in_the_same_room_only(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room1 = new Room("Dermatology");
+        Room room2 = new Room("Oncology");
+
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 0);
+        LocalDateTime finishesAt = startsAt.plusHours(2);
+
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room1);
+        entityManager.persist(room2);
+        entityManager.persist(new Appointment(patient, doctor, room1, startsAt, finishesAt));
+
+        // contained, containing, partial overlaps on either side
+        assertThat(repoAppointments.existsOverlap("Dermatology", startsAt.plusMinutes(30), startsAt.plusHours(1), startsAt.minusDays(1))).isTrue();
+        assertThat(repoAppointments.existsOverlap("Dermatology", startsAt.minusHours(1), finishesAt.plusHours(1), startsAt.minusDays(1))).isTrue();
+        assertThat(repoAppointments.existsOverlap("Dermatology", startsAt.minusHours(1), startsAt.plusMinutes(1), startsAt.minusDays(1))).isTrue();
+        assertThat(repoAppointments.existsOverlap("Dermatology", finishesAt.minusMinutes(1), finishesAt.plusHours(1), startsAt.minusDays(1))).isTrue();
+
+        // adjacent and other room
+        assertThat(repoAppointments.existsOverlap("Dermatology", startsAt.minusHours(1), startsAt, startsAt.minusDays(1))).isFalse();
+        assertThat(repoAppointments.existsOverlap("Dermatology", finishesAt, finishesAt.plusHours(1), startsAt.minusDays(1))).isFalse();
+        assertThat(repoAppointments.existsOverlap("Oncology", startsAt, finishesAt, startsAt.minusDays(1))).isFalse();
+    }
+
+    @Test
+    void should_page_appointments_by_keyset_and_filter(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room1 = new Room("Dermatology");
+        Room room2 = new Room("Oncology");
+
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 9, 0);
+
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room1);
+        entityManager.persist(room2);
+
+        Appointment appointment1 = new Appointment(patient, doctor, room1, startsAt, startsAt.plusHours(1));
+        Appointment appointment2 = new Appointment(patient, doctor, room2, startsAt, startsAt.plusHours(1));
+        Appointment appointment3 = new Appointment(patient, doctor, room1, startsAt.plusHours(2), startsAt.plusHours(3));
+        entityManager.persist(appointment1);
+        entityManager.persist(appointment2);
+        entityManager.persist(appointment3);
+
+        List<AppointmentSummary> first = repoAppointments.findPage(AppointmentFilter.none(), null, 0, 2);
+        assertThat(first).extracting(AppointmentSummary::getId).containsExactly(appointment1.getId(), appointment2.getId());
+
+        AppointmentSummary last = first.get(1);
+        List<AppointmentSummary> second = repoAppointments.findPage(AppointmentFilter.none(), last.getStartsAt(), last.getId(), 2);
+        assertThat(second).extracting(AppointmentSummary::getId).containsExactly(appointment3.getId());
+
+        AppointmentFilter dermatologyAfterTen = new AppointmentFilter(startsAt.plusHours(1), null, "Dermatology", doctor.getId(), patient.getId());
+        assertThat(repoAppointments.findPage(dermatologyAfterTen, null, 0, 10)).extracting(AppointmentSummary::getId).containsExactly(appointment3.getId());
+
+        AppointmentSummary summary = second.get(0);
+        assertThat(summary.getRoomName()).isEqualTo("Dermatology");
+        assertThat(summary.getDoctorId()).isEqualTo(doctor.getId());
+        assertThat(summary.getDoctorName()).isEqualTo("Perla Amalia");
+        assertThat(summary.getPatientId()).isEqualTo(patient.getId());
+        assertThat(summary.getPatientName()).isEqualTo("Jose Luis Olaya");
+        assertThat(summary.getFinishesAt()).isEqualTo(startsAt.plusHours(3));
+    }
+
+    @Test
+    void should_find_only_the_bookings_overlapping_a_window_in_start_order(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room1 = new Room("Dermatology");
+        Room room2 = new Room("Oncology");
+
+        LocalDateTime day = LocalDateTime.of(2023, 4, 24, 0, 0);
+
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room1);
+        entityManager.persist(room2);
+
+        Appointment endsInside = new Appointment(patient, doctor, room1, day.withHour(7), day.withHour(9));
+        Appointment inside = new Appointment(patient, doctor, room1, day.withHour(12), day.withHour(13));
+        Appointment endsAtFrom = new Appointment(patient, doctor, room1, day.withHour(6), day.withHour(8));
+        Appointment startsAtTo = new Appointment(patient, doctor, room1, day.withHour(18), day.withHour(19));
+        Appointment otherRoom = new Appointment(patient, doctor, room2, day.withHour(10), day.withHour(11));
+        entityManager.persist(inside);
+        entityManager.persist(endsInside);
+        entityManager.persist(endsAtFrom);
+        entityManager.persist(startsAtTo);
+        entityManager.persist(otherRoom);
+
+        List<AppointmentSlot> slots = repoAppointments.findSlotsOverlapping("Dermatology", day.withHour(8), day.withHour(18), day.minusDays(1));
+        assertThat(slots).extracting(AppointmentSlot::getId).containsExactly(endsInside.getId(), inside.getId());
+    }
+
 }
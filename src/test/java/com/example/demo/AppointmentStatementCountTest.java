@@ -0,0 +1,122 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.example.demo.scheduling.ConflictDetector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pins the number of JDBC statements each appointment endpoint prepares,
+ * against a table where every appointment has its own patient, doctor and
+ * room. Each request gets a fresh persistence context, so nothing is served
+ * from the first-level cache. A lazy or eager association slipping back
+ * into a per-row select shows up as a count that grows with {@code ROWS}.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:statement-count",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class AppointmentStatementCountTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 8, 0);
+    private final static int ROWS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ConflictDetector conflictDetector;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private long firstId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            final Appointment appointment = appointmentRepository.save(appointment("Room-" + i, dateTime.plusHours(i)));
+            conflictDetector.add(appointment);
+            if (i == 0) {
+                firstId = appointment.getId();
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll();
+        roomRepository.deleteAll();
+        conflictDetector.clear();
+    }
+
+    private static Appointment appointment(String roomName, LocalDateTime startsAt) {
+        return new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                               new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                               new Room(roomName), startsAt, startsAt.plusMinutes(30));
+    }
+
+    private long statements(ResultActions request) throws Exception {
+        request.andExpect(status().is2xxSuccessful());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void listing_appointments_takes_one_statement() throws Exception {
+        assertThat(statements(mockMvc.perform(get("/api/appointments")))).isEqualTo(1);
+    }
+
+    @Test
+    void listing_a_filtered_page_takes_one_statement() throws Exception {
+        assertThat(statements(mockMvc.perform(get("/api/appointments?from=08:00 24/04/2023&limit=5")))).isEqualTo(1);
+    }
+
+    @Test
+    void getting_one_appointment_takes_one_statement() throws Exception {
+        assertThat(statements(mockMvc.perform(get("/api/appointments/" + firstId)))).isEqualTo(1);
+    }
+
+    @Test
+    void creating_an_appointment_does_not_reload_each_row() throws Exception {
+        final Appointment appointment = appointment("Room-0", dateTime.minusHours(1));
+
+        // room lookup, then patient + doctor + appointment inserts; the response is the booked row itself
+        assertThat(statements(mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                                                                      .content(objectMapper.writeValueAsString(appointment)))))
+            .isEqualTo(4);
+    }
+}
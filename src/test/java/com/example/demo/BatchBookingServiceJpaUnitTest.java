@@ -0,0 +1,133 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.RoomLocks;
+import com.example.demo.scheduling.RoomScheduleIndex;
+import com.example.demo.services.BatchBookingService;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
+import com.example.demo.services.RoomRowLocks;
+import com.example.demo.services.BookingResult;
+import com.example.demo.services.BookingResult.Status;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({ BatchBookingService.class, ConflictDimensions.class, OccupancyMatrix.class, RoomCalendar.class, RoomLocks.class, RoomRowLocks.class, RoomScheduleIndex.class })
+class BatchBookingServiceJpaUnitTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 9, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BatchBookingService batchBookingService;
+
+    @Autowired
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private Patient patient;
+    private Doctor doctor;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        roomScheduleIndex.clear();
+        patient = entityManager.persist(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        doctor = entityManager.persist(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        room = entityManager.persist(new Room("Dermatology"));
+        Appointment existing = entityManager.persist(new Appointment(patient, doctor, room, dateTime, dateTime.plusHours(1)));
+        roomScheduleIndex.add(existing);
+    }
+
+    // Clients send references by id, as they come out of the JSON body
+    private Appointment request(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        Patient patientRef = new Patient();
+        patientRef.setId(patient.getId());
+        Doctor doctorRef = new Doctor();
+        doctorRef.setId(doctor.getId());
+        return new Appointment(patientRef, doctorRef, new Room(roomName), startsAt, finishesAt);
+    }
+
+    private List<Appointment> batch() {
+        return Arrays.asList(
+                request("Dermatology", dateTime.plusHours(2), dateTime.plusHours(3)),
+                request("Dermatology", dateTime.plusMinutes(30), dateTime.plusHours(2)),
+                request("Dermatology", dateTime.plusHours(2).plusMinutes(30), dateTime.plusHours(4)),
+                request("Oncology", dateTime, dateTime.plusHours(1)),
+                request("Oncology", dateTime.plusHours(1), dateTime.plusHours(2)));
+    }
+
+    @Test
+    void should_store_survivors_in_best_effort_mode() {
+        long before = appointmentRepository.count();
+        List<BookingResult> results = batchBookingService.book(batch(), new BitSet(), BatchBookingService.Mode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.ACCEPTED, Status.CONFLICT, Status.CONFLICT, Status.ACCEPTED, Status.ACCEPTED);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getId()).isNull();
+        assertThat(appointmentRepository.count()).isEqualTo(before + 3);
+        assertThat(roomScheduleIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void should_store_nothing_in_atomic_mode_when_an_item_fails() {
+        long before = appointmentRepository.count();
+        List<BookingResult> results = batchBookingService.book(batch(), new BitSet(), BatchBookingService.Mode.ATOMIC);
+
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.SKIPPED, Status.CONFLICT, Status.CONFLICT, Status.SKIPPED, Status.SKIPPED);
+        assertThat(appointmentRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void should_flag_unknown_doctor_and_caller_rejected_items_as_invalid() {
+        List<Appointment> batch = batch().subList(3, 5);
+        Doctor unknown = new Doctor();
+        unknown.setId(9999);
+        batch.get(0).setDoctor(unknown);
+        BitSet invalid = new BitSet();
+        invalid.set(1);
+
+        List<BookingResult> results = batchBookingService.book(batch, invalid, BatchBookingService.Mode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.INVALID, Status.INVALID);
+    }
+
+    @Test
+    void should_book_around_a_null_item() {
+        long before = appointmentRepository.count();
+        BitSet invalid = new BitSet();
+        invalid.set(0);
+
+        List<BookingResult> results = batchBookingService.book(Arrays.asList(null, batch().get(3)), invalid,
+                                                                BatchBookingService.Mode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.INVALID, Status.ACCEPTED);
+        assertThat(appointmentRepository.count()).isEqualTo(before + 1);
+    }
+}
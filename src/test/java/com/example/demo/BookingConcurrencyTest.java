@@ -0,0 +1,130 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.RoomLocks;
+import com.example.demo.services.BookingService;
+
+// Own database so committed rows don't leak into the @DataJpaTest classes
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-concurrency")
+class BookingConcurrencyTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 8, 0);
+    private final static String[] ROOMS = { "Dermatology", "Oncology", "Cardiology", "Neurology" };
+
+    private final static int THREADS = 64;
+    private final static int ATTEMPTS_PER_THREAD = 40;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ConflictDetector conflictDetector;
+
+    @Autowired
+    private RoomLocks roomLocks;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (String roomName : ROOMS) {
+            roomRepository.save(new Room(roomName));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll();
+        roomRepository.deleteAll();
+        conflictDetector.clear();
+    }
+
+    @Test
+    void should_never_double_book_a_room_under_contention() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final Random random = new Random(t);
+            final Callable<Integer> worker = () -> {
+                start.await();
+                int booked = 0;
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    // 45-minute bookings on a 15-minute grid over 8 hours: most attempts collide
+                    final LocalDateTime startsAt = dateTime.plusMinutes(15L * random.nextInt(32));
+                    final Appointment appointment = new Appointment(
+                        new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                        new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                        new Room(ROOMS[random.nextInt(ROOMS.length)]),
+                        startsAt, startsAt.plusMinutes(45));
+                    if (bookingService.book(appointment)) {
+                        booked++;
+                    }
+                }
+                return booked;
+            };
+            futures.add(executor.submit(worker));
+        }
+
+        start.countDown();
+        int booked = 0;
+        for (Future<Integer> future : futures) {
+            booked += future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        final List<AppointmentSlot> slots = appointmentRepository.findAllSlots();
+        assertThat(slots).hasSize(booked);
+        assertThat(booked).isGreaterThan(ROOMS.length);
+
+        final Map<String, List<AppointmentSlot>> byRoom = slots.stream()
+                                                               .collect(Collectors.groupingBy(AppointmentSlot::getRoomName));
+        for (List<AppointmentSlot> room : byRoom.values()) {
+            room.sort(Comparator.comparing(AppointmentSlot::getStartsAt));
+            for (int i = 1; i < room.size(); i++) {
+                assertThat(room.get(i).getStartsAt()).isAfterOrEqualTo(room.get(i - 1).getFinishesAt());
+            }
+        }
+    }
+
+    @Test
+    void should_return_distinct_stripes_in_a_stable_order() {
+        final RoomLocks locks = new RoomLocks(8);
+
+        assertThat(locks.get("Dermatology")).isSameAs(locks.get("Dermatology"));
+        assertThat(locks.getAll(Arrays.asList("Oncology", "Dermatology", "Dermatology")))
+            .isEqualTo(locks.getAll(Arrays.asList("Dermatology", "Oncology")))
+            .doesNotHaveDuplicates();
+        assertThat(roomLocks.getAll(Arrays.asList(ROOMS))).hasSizeLessThanOrEqualTo(ROOMS.length);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entities.*;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.RoomCalendar;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:calendar",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class CalendarTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomCalendar roomCalendar;
+
+    @Autowired
+    private ConflictDetector conflictDetector;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Appointment first;
+
+    @BeforeEach
+    void setUp() {
+        first = new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                                new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                                new Room("Dermatology"), dateTime, dateTime.plusHours(1));
+        assertThat(bookingService.book(first)).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mockMvc.perform(delete("/api/appointments"));
+        conflictDetector.clear();
+    }
+
+    @Test
+    void should_serve_day_and_week_views_without_queries() throws Exception {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/rooms/Dermatology/calendar").param("date", "24/04/2023"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].id").value(first.getId()))
+               .andExpect(jsonPath("$[0].doctorName").value("Perla Amalia"))
+               .andExpect(jsonPath("$[0].startsAt").value("09:00 24/04/2023"));
+        mockMvc.perform(get("/api/rooms/Dermatology/calendar/week").param("date", "30/04/2023"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(7))
+               .andExpect(jsonPath("$[0].date").value("24/04/2023"))
+               .andExpect(jsonPath("$[0].entries.length()").value(1));
+        mockMvc.perform(get("/api/rooms/Dermatology/calendar").param("date", "25/04/2023"))
+               .andExpect(status().isNoContent());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void should_follow_deletes_and_rebuild_from_the_database() throws Exception {
+        mockMvc.perform(delete("/api/appointments/" + first.getId()))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/api/rooms/Dermatology/calendar").param("date", "24/04/2023"))
+               .andExpect(status().isNoContent());
+
+        final Appointment second = new Appointment(null, null, new Room("Dermatology"), dateTime, dateTime.plusHours(1));
+        assertThat(bookingService.book(second)).isTrue();
+        assertThat(roomCalendar.verify().isConsistent()).isTrue();
+
+        // As if it had been booked by another instance
+        roomCalendar.clear();
+        mockMvc.perform(get("/api/calendar/consistency"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.consistent").value(false))
+               .andExpect(jsonPath("$.missing[0]").value(second.getId()));
+
+        roomCalendar.load();
+        mockMvc.perform(get("/api/calendar/consistency"))
+               .andExpect(jsonPath("$.consistent").value(true))
+               .andExpect(jsonPath("$.appointments").value(1));
+        assertThat(roomCalendar.day("Dermatology", dateTime.toLocalDate())).hasSize(1);
+    }
+
+    @Test
+    void should_answer_the_availability_board_from_the_occupancy_matrix() throws Exception {
+        mockMvc.perform(get("/api/occupancy").param("date", "24/04/2023"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.Dermatology").value(startsWith("000000000000000000000000000fff")));
+        mockMvc.perform(get("/api/occupancy/free-rooms").param("date", "24/04/2023").param("minFree", "PT30M")
+                                                        .param("from", "08:30").param("to", "10:30"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].roomName").value("Dermatology"))
+               .andExpect(jsonPath("$[0].startsAt").value("08:30 24/04/2023"))
+               .andExpect(jsonPath("$[0].finishesAt").value("09:00 24/04/2023"));
+        mockMvc.perform(get("/api/occupancy/free-rooms").param("date", "24/04/2023").param("minFree", "PT31M")
+                                                        .param("from", "08:30").param("to", "10:30"))
+               .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/occupancy/free-rooms").param("date", "24/04/2023").param("minFree", "PT3H")
+                                                        .param("from", "08:30").param("to", "10:30"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void should_stop_offering_a_room_the_delete_cascaded_to() throws Exception {
+        mockMvc.perform(get("/api/occupancy").param("date", "24/04/2023"))
+               .andExpect(jsonPath("$.Dermatology").exists());
+
+        mockMvc.perform(delete("/api/appointments/" + first.getId()))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/occupancy").param("date", "24/04/2023"))
+               .andExpect(jsonPath("$.Dermatology").doesNotExist());
+        mockMvc.perform(get("/api/occupancy/free-rooms").param("date", "24/04/2023").param("minFree", "PT30M")
+                                                        .param("from", "08:30").param("to", "10:30"))
+               .andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.example.demo.services.BookingService;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:generator",
+    "appointments.conflict-dimensions=room,doctor,patient",
+    "generator.rooms=7",
+    "generator.doctors=20",
+    "generator.patients=100",
+    "generator.appointments=2503",
+    "generator.batch-size=100",
+    "generator.threads=3"
+})
+@ActiveProfiles("generate")
+class DataGeneratorTest {
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private IdSequences idSequences;
+
+    @Test
+    void should_load_the_configured_counts_at_startup() {
+        assertThat(count("room")).isEqualTo(7);
+        assertThat(count("doctors")).isEqualTo(20);
+        assertThat(count("patient")).isEqualTo(100);
+        assertThat(count("appointment")).isEqualTo(2503);
+    }
+
+    @Test
+    void should_not_overlap_in_any_dimension() {
+        for (String column : new String[] { "room_id", "doctor_id", "patient_id" }) {
+            assertThat(jdbcTemplate.queryForObject(
+                    "select count(*) from appointment a join appointment b on a." + column + " = b." + column
+                    + " and a.id < b.id and a.starts_at < b.finishes_at and b.starts_at < a.finishes_at", Long.class))
+                    .as(column)
+                    .isZero();
+        }
+    }
+
+    @Test
+    void should_book_within_opening_hours_on_weekdays() {
+        for (Appointment appointment : appointmentRepository.findAll()) {
+            assertThat(appointment.getStartsAt().getDayOfWeek()).isNotIn(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+            assertThat(appointment.getStartsAt().getHour()).isBetween(8, 19);
+            assertThat(appointment.getFinishesAt()).isAfter(appointment.getStartsAt())
+                                                   .isBeforeOrEqualTo(appointment.getStartsAt().toLocalDate().atTime(20, 0));
+        }
+    }
+
+    @Test
+    void should_generate_the_same_rows_from_the_same_seed() throws Exception {
+        final List<String> first = rows();
+
+        regenerate();
+
+        assertThat(rows()).isEqualTo(first);
+    }
+
+    @Test
+    void should_make_cached_responses_and_etags_stale() throws Exception {
+        final long current = DataVersion.current();
+        final long rooms = DataVersion.of(Room.class);
+        final long appointment = DataVersion.of(Appointment.class, 1L);
+
+        regenerate();
+
+        assertThat(DataVersion.current()).isGreaterThan(current);
+        assertThat(DataVersion.of(Room.class)).isGreaterThan(rooms);
+        assertThat(DataVersion.of(Appointment.class, 1L)).isGreaterThan(appointment);
+        assertThat(DataVersion.of(AppointmentSeries.class)).isEqualTo(DataVersion.current());
+    }
+
+    @Test
+    void should_leave_the_application_consistent_with_the_load() {
+        final Appointment booked = appointmentRepository.findAll().get(0);
+        final LocalDateTime startsAt = booked.getStartsAt();
+        final Long maxAppointmentId = jdbcTemplate.queryForObject("select max(id) from appointment", Long.class);
+        final Long maxDoctorId = jdbcTemplate.queryForObject("select max(id) from doctors", Long.class);
+        final Patient patient = patientRepository.save(new Patient("Paula", "Sanz", 29, "p.sanz@email.com"));
+        final Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        roomRepository.save(new Room("Spare"));
+        final Appointment appointment = new Appointment(patient, doctor, new Room("Spare"), startsAt, startsAt.plusHours(1));
+        try {
+            // Caught by the reloaded schedule index
+            assertThat(bookingService.book(new Appointment(patient, doctor, new Room(booked.getRoom().getRoomName()),
+                                                           startsAt.plusMinutes(5), startsAt.plusMinutes(10)))).isFalse();
+
+            // Sequences moved past the generated ids
+            assertThat(doctor.getId()).isGreaterThan(maxDoctorId);
+            assertThat(bookingService.book(appointment)).isTrue();
+            assertThat(appointment.getId()).isGreaterThan(maxAppointmentId);
+        } finally {
+            jdbcTemplate.update("delete from appointment where id = ?", appointment.getId());
+            jdbcTemplate.update("delete from doctors where id = ?", doctor.getId());
+            jdbcTemplate.update("delete from patient where id = ?", patient.getId());
+            jdbcTemplate.update("delete from room where room_name = 'Spare'");
+        }
+    }
+
+    @Test
+    void should_never_rewind_a_sequence_on_startup() {
+        final long increment = jdbcTemplate.queryForObject(
+                "select increment from information_schema.sequences where lower(sequence_name) = 'doctor_seq'", Long.class);
+        final long before = jdbcTemplate.queryForObject("select next value for doctor_seq", Long.class);
+
+        // As another instance starting up; the block it draws stays drawn
+        idSequences.align();
+
+        assertThat(jdbcTemplate.queryForObject("select next value for doctor_seq", Long.class))
+                .isGreaterThan(before + increment);
+    }
+
+    private void regenerate() throws Exception {
+        jdbcTemplate.update("delete from appointment");
+        jdbcTemplate.update("delete from doctors");
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from room");
+        dataGenerator.generate();
+    }
+
+    private long count(final String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    // Everything but the ids, which continue from wherever the sequences are
+    private List<String> rows() {
+        return jdbcTemplate.queryForList(
+                "select concat(a.room_id, ' ', a.starts_at, ' ', a.finishes_at, ' ', d.email, ' ', p.email, ' ', d.age, ' ', p.first_name)"
+                + " from appointment a join doctors d on d.id = a.doctor_id join patient p on p.id = a.patient_id"
+                + " order by a.room_id, a.starts_at", String.class);
+    }
+}
@@ -3,15 +3,20 @@ package com.example.demo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 
 import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.repositories.PersonSummary;
 import com.example.demo.entities.Doctor;
 
 
@@ -102,5 +107,20 @@ class DoctorJpaUnitTest {
         repository.deleteAll();
         assertThat(repository.findAll()).isEmpty();
     }
-    
+
+    @Test
+    void should_page_doctors_as_summaries(){
+        Doctor doc1 = new Doctor("Juan","Carlos", 34, "j.carlos@hospital.accwe");
+        Doctor doc2 = new Doctor("Cornelio","Andrea", 59, "c.andrea@hospital.accwe");
+
+        entityManager.persist(doc1);
+        entityManager.persist(doc2);
+
+        List<PersonSummary> page = repository.findByIdGreaterThan(doc1.getId(), PageRequest.of(0, 10, Sort.by("id")));
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getId()).isEqualTo(doc2.getId());
+        assertThat(page.get(0).getFirstName()).isEqualTo("Cornelio");
+        assertThat(page.get(0).getAge()).isEqualTo(59);
+        assertThat(page.get(0).getEmail()).isEqualTo("c.andrea@hospital.accwe");
+    }
 }
@@ -0,0 +1,215 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entities.*;
+import com.example.demo.entities.AppointmentSeries.Frequency;
+import com.example.demo.repositories.*;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.scheduling.LongestBooking;
+import com.example.demo.services.AvailabilityService;
+import com.example.demo.services.BatchBookingService;
+import com.example.demo.services.BookingResult;
+import com.example.demo.services.BookingResult.Status;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.FreeSlot;
+import com.example.demo.services.RoomFit;
+import com.example.demo.services.SeriesService;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:double-booking",
+    "appointments.conflict-engine=sql",
+    "appointments.conflict-dimensions=room,doctor,patient"
+})
+class DoubleBookingTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 9, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ConflictDetector conflictDetector;
+
+    @Autowired
+    private BatchBookingService batchBookingService;
+
+    @Autowired
+    private SeriesService seriesService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private LongestBooking longestBooking;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Doctor perla;
+    private Doctor macarena;
+    private Patient joseLuis;
+    private Patient paula;
+
+    @BeforeEach
+    void setUp() {
+        perla = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        macarena = doctorRepository.save(new Doctor("Macarena", "García", 24, "m.garcia@hospital.accwe"));
+        joseLuis = patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        paula = patientRepository.save(new Patient("Paula", "Sanz", 29, "p.sanz@email.com"));
+        roomRepository.save(new Room("Dermatology"));
+        roomRepository.save(new Room("Oncology"));
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), dateTime, dateTime.plusHours(1)))).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        seriesRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        roomRepository.deleteAll();
+        conflictDetector.clear();
+    }
+
+    @Test
+    void should_not_book_a_doctor_or_a_patient_into_two_rooms_at_once() {
+        final LocalDateTime startsAt = dateTime.plusMinutes(30);
+
+        assertThat(bookingService.book(new Appointment(paula, perla, new Room("Oncology"), startsAt, startsAt.plusHours(1)))).isFalse();
+        assertThat(bookingService.book(new Appointment(joseLuis, macarena, new Room("Oncology"), startsAt, startsAt.plusHours(1)))).isFalse();
+        assertThat(bookingService.book(new Appointment(paula, macarena, new Room("Oncology"), startsAt, startsAt.plusHours(1)))).isTrue();
+        // Back to back is fine
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), dateTime.plusHours(1), dateTime.plusHours(2)))).isTrue();
+    }
+
+    @Test
+    void should_reject_doctor_and_patient_clashes_within_and_against_a_batch() {
+        final LocalDateTime later = dateTime.plusHours(3);
+        final List<Appointment> batch = Arrays.asList(
+                new Appointment(paula, perla, new Room("Oncology"), dateTime, dateTime.plusHours(1)),
+                new Appointment(paula, macarena, new Room("Dermatology"), later, later.plusHours(1)),
+                new Appointment(joseLuis, macarena, new Room("Oncology"), later.plusMinutes(30), later.plusHours(1)),
+                new Appointment(joseLuis, perla, new Room("Oncology"), later.plusHours(1), later.plusHours(2)));
+
+        final List<BookingResult> results = batchBookingService.book(batch, new BitSet(), BatchBookingService.Mode.BEST_EFFORT);
+
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.CONFLICT, Status.ACCEPTED, Status.CONFLICT, Status.ACCEPTED);
+    }
+
+    @Test
+    void should_check_series_occurrences_against_the_doctor_and_patient() {
+        final LocalDateTime nextDay = dateTime.plusDays(1);
+        assertThat(seriesService.book(new AppointmentSeries(paula, perla, new Room("Oncology"), nextDay, nextDay.plusHours(1),
+                                                            Frequency.DAILY, 1, 5, null))).isTrue();
+
+        final LocalDateTime day3 = dateTime.plusDays(3).plusMinutes(30);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), day3, day3.plusHours(1)))).isFalse();
+        final List<BookingResult> results = batchBookingService.book(Arrays.asList(
+                new Appointment(paula, macarena, new Room("Dermatology"), day3, day3.plusHours(1)),
+                new Appointment(joseLuis, macarena, new Room("Dermatology"), day3, day3.plusHours(1))), new BitSet(), BatchBookingService.Mode.BEST_EFFORT);
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.CONFLICT, Status.ACCEPTED);
+        // Its first occurrence takes the room and patient of the booking made in setUp
+        assertThat(seriesService.book(new AppointmentSeries(joseLuis, macarena, new Room("Dermatology"), dateTime, dateTime.plusHours(1),
+                                                            Frequency.DAILY, 1, 2, null))).isFalse();
+    }
+
+    @Test
+    void should_share_a_room_up_to_its_capacity() {
+        roomRepository.save(new Room("Ward", 2));
+        final Doctor elena = doctorRepository.save(new Doctor("Elena", "Ruiz", 41, "e.ruiz@hospital.accwe"));
+        final Doctor lucia = doctorRepository.save(new Doctor("Lucia", "Mora", 38, "l.mora@hospital.accwe"));
+        final Patient marta = patientRepository.save(new Patient("Marta", "Gil", 52, "m.gil@email.com"));
+        final Patient pedro = patientRepository.save(new Patient("Pedro", "Vidal", 61, "p.vidal@email.com"));
+        assertThat(bookingService.book(new Appointment(paula, macarena, new Room("Ward"), dateTime, dateTime.plusHours(1)))).isTrue();
+
+        final List<BookingResult> results = batchBookingService.book(Arrays.asList(
+                new Appointment(marta, elena, new Room("Ward"), dateTime.plusMinutes(30), dateTime.plusMinutes(90)),
+                new Appointment(pedro, lucia, new Room("Ward"), dateTime.plusMinutes(45), dateTime.plusMinutes(75)),
+                new Appointment(pedro, lucia, new Room("Ward"), dateTime.plusHours(1), dateTime.plusHours(2))), new BitSet(), BatchBookingService.Mode.BEST_EFFORT);
+        // Only the second makes three at once
+        assertThat(results).extracting(BookingResult::getStatus)
+                           .containsExactly(Status.ACCEPTED, Status.CONFLICT, Status.ACCEPTED);
+
+        final LocalDateTime later = dateTime.plusMinutes(75);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Ward"), later, later.plusMinutes(30)))).isFalse();
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Ward"), dateTime.plusMinutes(90), dateTime.plusHours(2)))).isTrue();
+    }
+
+    @Test
+    void should_offer_a_shared_room_until_every_place_is_taken() {
+        roomRepository.save(new Room("Ward", 2));
+        assertThat(bookingService.book(new Appointment(paula, macarena, new Room("Ward"), dateTime, dateTime.plusHours(2)))).isTrue();
+        assertThat(availabilityService.freeSlots("Ward", dateTime, dateTime.plusHours(3), Duration.ofMinutes(15)))
+                .extracting(FreeSlot::getStartsAt, FreeSlot::getFinishesAt)
+                .containsExactly(tuple(dateTime, dateTime.plusHours(3)));
+
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Ward"), dateTime.plusHours(1), dateTime.plusHours(3)))).isTrue();
+        // Both places are taken from 10:00 to 11:00 only
+        assertThat(availabilityService.freeSlots("Ward", dateTime, dateTime.plusHours(3), Duration.ofMinutes(15)))
+                .extracting(FreeSlot::getStartsAt, FreeSlot::getFinishesAt)
+                .containsExactly(tuple(dateTime, dateTime.plusHours(1)), tuple(dateTime.plusHours(2), dateTime.plusHours(3)));
+        assertThat(availabilityService.freeRooms(dateTime.plusMinutes(30), dateTime.plusHours(1), 10))
+                .extracting(RoomFit::getRoomName, RoomFit::getFreeFrom, RoomFit::getFreeUntil)
+                .contains(tuple("Ward", dateTime.minusHours(12).plusMinutes(30), dateTime.plusHours(1)));
+        assertThat(availabilityService.freeRooms(dateTime.plusMinutes(90), dateTime.plusHours(2), 10))
+                .extracting(RoomFit::getRoomName)
+                .doesNotContain("Ward");
+    }
+
+    @Test
+    void should_find_clashes_with_bookings_longer_than_a_day() {
+        // Three days in Oncology, so its start lies well before the windows checked below
+        assertThat(bookingService.book(new Appointment(paula, macarena, new Room("Oncology"), dateTime.plusHours(2), dateTime.plusDays(3)))).isTrue();
+
+        final LocalDateTime day2 = dateTime.plusDays(2);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Oncology"), day2, day2.plusHours(1)))).isFalse();
+        assertThat(bookingService.book(new Appointment(joseLuis, macarena, new Room("Dermatology"), day2, day2.plusHours(1)))).isFalse();
+        assertThat(availabilityService.freeSlots("Oncology", day2, day2.plusHours(8), Duration.ofMinutes(15))).isEmpty();
+    }
+
+    @Test
+    void should_bound_scans_by_rows_written_around_hibernate() {
+        // As left by a database that predates duration_seconds
+        final LocalDateTime stay = dateTime.plusDays(10);
+        jdbcTemplate.update("insert into appointment (id, room_id, starts_at, finishes_at) values (?, ?, ?, ?)",
+                            1_000_000L, "Oncology", Timestamp.valueOf(stay), Timestamp.valueOf(stay.plusDays(5)));
+        longestBooking.fillMissingDurations();
+
+        assertThat(longestBooking.get()).isGreaterThanOrEqualTo(Duration.ofDays(5));
+        final LocalDateTime later = stay.plusDays(4);
+        assertThat(bookingService.book(new Appointment(paula, macarena, new Room("Oncology"), later, later.plusHours(1)))).isFalse();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:etags",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class ETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Doctor perla;
+    private Doctor macarena;
+
+    @BeforeEach
+    void setUp() {
+        perla = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        macarena = doctorRepository.save(new Doctor("Macarena", "García", 24, "m.garcia@hospital.accwe"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void should_answer_not_modified_before_querying() throws Exception {
+        final String etag = etagOf("/api/doctors/" + perla.getId());
+        final String listEtag = etagOf("/api/doctors");
+        final long statements = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/doctors/" + perla.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/doctors").header(HttpHeaders.IF_NONE_MATCH, "W/" + listEtag))
+               .andExpect(status().isNotModified())
+               .andExpect(header().string(HttpHeaders.ETAG, listEtag));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    void should_change_only_the_etags_a_commit_touches() throws Exception {
+        final String perlaEtag = etagOf("/api/doctors/" + perla.getId());
+        final String macarenaEtag = etagOf("/api/doctors/" + macarena.getId());
+        final String listEtag = etagOf("/api/doctors");
+
+        macarena.setAge(25);
+        doctorRepository.save(macarena);
+
+        mockMvc.perform(get("/api/doctors/" + perla.getId()).header(HttpHeaders.IF_NONE_MATCH, perlaEtag))
+               .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/doctors/" + macarena.getId()).header(HttpHeaders.IF_NONE_MATCH, macarenaEtag))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.age").value(25));
+        mockMvc.perform(get("/api/doctors").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+               .andExpect(status().isOk());
+    }
+
+    private String etagOf(String path) throws Exception {
+        final String etag = mockMvc.perform(get(path))
+                                   .andExpect(status().isOk())
+                                   .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        return etag;
+    }
+}
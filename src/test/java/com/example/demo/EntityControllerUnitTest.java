@@ -6,25 +6,50 @@ import com.example.demo.controllers.RoomController;
 import com.example.demo.entities.Doctor;
 import com.example.demo.entities.Patient;
 import com.example.demo.entities.Room;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSeriesRepository;
+import com.example.demo.repositories.AppointmentSlot;
 import com.example.demo.repositories.DoctorRepository;
 import com.example.demo.repositories.PatientRepository;
+import com.example.demo.repositories.PersonSummary;
 import com.example.demo.repositories.RoomRepository;
+import com.example.demo.repositories.RoomSummary;
+import com.example.demo.scheduling.LongestBooking;
+import com.example.demo.services.AvailabilityService;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(DoctorController.class)
@@ -38,6 +63,12 @@ class DoctorControllerUnitTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static List<PersonSummary> summaries(List<Doctor> doctors) {
+        return doctors.stream()
+                      .map(d -> new PersonSummary(d.getId(), d.getFirstName(), d.getLastName(), d.getAge(), d.getEmail()))
+                      .collect(Collectors.toList());
+    }
+
     @BeforeEach
     void setUp() {
         final Doctor d1 = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
@@ -50,7 +81,7 @@ class DoctorControllerUnitTest {
 
     @Test
     void should_get_all_doctors() throws Exception {
-        when(doctorRepository.findAll()).thenReturn(doctors);
+        when(doctorRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenReturn(summaries(doctors));
         mockMvc.perform(get("/api/doctors")
                                 .contentType(MediaType.APPLICATION_JSON)
                )
@@ -60,7 +91,7 @@ class DoctorControllerUnitTest {
     @Test
     void should_get_no_content_when_get_all_doctors_size_is_0() throws Exception {
         doctors.clear();
-        when(doctorRepository.findAll()).thenReturn(doctors);
+        when(doctorRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenReturn(summaries(doctors));
         mockMvc.perform(get("/api/doctors")
                                 .contentType(MediaType.APPLICATION_JSON)
                )
@@ -83,6 +114,21 @@ class DoctorControllerUnitTest {
                .andExpect(status().isOk());
     }
 
+    @Test
+    void should_answer_not_modified_without_reading_the_doctor() throws Exception {
+        final long id = 1;
+        when(doctorRepository.findById(id)).thenReturn(Optional.of(doctors.get(0)));
+        final String etag = mockMvc.perform(get(String.format("/api/doctors/%s", id)))
+                                   .andExpect(status().isOk())
+                                   .andExpect(header().exists(HttpHeaders.ETAG))
+                                   .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(String.format("/api/doctors/%s", id)).header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified())
+               .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(doctorRepository, times(1)).findById(id);
+    }
+
     @Test
     void should_create_a_doctor() throws Exception {
         final Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
@@ -134,6 +180,12 @@ class PatientControllerUnitTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static List<PersonSummary> summaries(List<Patient> patients) {
+        return patients.stream()
+                       .map(p -> new PersonSummary(p.getId(), p.getFirstName(), p.getLastName(), p.getAge(), p.getEmail()))
+                       .collect(Collectors.toList());
+    }
+
     @BeforeEach
     void setUp() {
         final Patient p1 = new Patient("Juan", "Carlos", 34, "j.carlos@hospital.accwe");
@@ -146,7 +198,7 @@ class PatientControllerUnitTest {
 
     @Test
     void should_return_all_patients() throws Exception {
-        when(patientRepository.findAll()).thenReturn(patients);
+        when(patientRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenReturn(summaries(patients));
         mockMvc.perform(get("/api/patients")
                                 .contentType(MediaType.APPLICATION_JSON)
                )
@@ -156,7 +208,7 @@ class PatientControllerUnitTest {
     @Test
     void should_return_no_content_when_get_all_patients() throws Exception {
         patients.clear();
-        when(patientRepository.findAll()).thenReturn(patients);
+        when(patientRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenReturn(summaries(patients));
         mockMvc.perform(get("/api/patients")
                                 .contentType(MediaType.APPLICATION_JSON)
                )
@@ -228,17 +280,32 @@ class PatientControllerUnitTest {
 }
 
 @WebMvcTest(RoomController.class)
+@Import({ AvailabilityService.class, LongestBooking.class, OccupancyMatrix.class, RoomCalendar.class })
 class RoomControllerUnitTest {
 
     private final static List<Room> rooms = new ArrayList<>();
 
     @MockBean
     private RoomRepository roomRepository;
+    @MockBean
+    private AppointmentRepository appointmentRepository;
+    @MockBean
+    private AppointmentSeriesRepository seriesRepository;
     @Autowired
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static List<RoomSummary> summaries(List<Room> rooms) {
+        return rooms.stream()
+                    .map(r -> new RoomSummary(r.getRoomName(), r.getCapacity()))
+                    .collect(Collectors.toList());
+    }
+
+    private static AppointmentSlot slot(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        return new AppointmentSlot(0, roomName, startsAt, finishesAt);
+    }
+
     @BeforeEach
     void setUp() {
         final Room r1 = new Room("Dermatology");
@@ -249,17 +316,31 @@ class RoomControllerUnitTest {
 
     @Test
     void should_return_all_rooms_when_get_all_rooms() throws Exception {
-        when(roomRepository.findAll()).thenReturn(rooms);
+        when(roomRepository.findByRoomNameGreaterThan(anyString(), any(Pageable.class))).thenReturn(summaries(rooms));
         mockMvc.perform(get("/api/rooms")
                                 .contentType(MediaType.APPLICATION_JSON)
                )
                .andExpect(status().isOk());
     }
 
+    @Test
+    void should_list_each_room_with_its_capacity() throws Exception {
+        when(roomRepository.findByRoomNameGreaterThan(anyString(), any(Pageable.class)))
+                .thenReturn(summaries(Arrays.asList(new Room("Dermatology"), new Room("Ward", 4))));
+        mockMvc.perform(get("/api/rooms")
+                                .contentType(MediaType.APPLICATION_JSON)
+               )
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].roomName").value("Dermatology"))
+               .andExpect(jsonPath("$[0].capacity").value(1))
+               .andExpect(jsonPath("$[1].roomName").value("Ward"))
+               .andExpect(jsonPath("$[1].capacity").value(4));
+    }
+
     @Test
     void should_return_not_found_when_get_all_rooms() throws Exception {
         rooms.clear();
-        when(roomRepository.findAll()).thenReturn(rooms);
+        when(roomRepository.findByRoomNameGreaterThan(anyString(), any(Pageable.class))).thenReturn(summaries(rooms));
         mockMvc.perform(get("/api/rooms")
                                 .contentType(MediaType.APPLICATION_JSON)
                )
@@ -290,6 +371,90 @@ class RoomControllerUnitTest {
                .andExpect(status().isNotFound());
     }
 
+    @Test
+    void should_return_the_gaps_between_bookings() throws Exception {
+        final LocalDateTime day = LocalDateTime.of(2023, 5, 2, 0, 0);
+        when(roomRepository.findByRoomName("Dermatology")).thenReturn(Optional.of(rooms.get(0)));
+        // 8:30-9:00 sits inside 8:00-10:00; the 20 minute gap before 10:30 is too short
+        when(appointmentRepository.findSlotsOverlapping(eq("Dermatology"), any(), any(), any())).thenReturn(Arrays.asList(
+                slot("Dermatology", day.withHour(7), day.withHour(8).withMinute(30)),
+                slot("Dermatology", day.withHour(8), day.withHour(10)),
+                slot("Dermatology", day.withHour(8).withMinute(30), day.withHour(9)),
+                slot("Dermatology", day.withHour(10).withMinute(20), day.withHour(11)),
+                slot("Dermatology", day.withHour(17), day.withHour(19))));
+
+        mockMvc.perform(get("/api/rooms/Dermatology/availability")
+                                .param("from", "08:00 02/05/2023")
+                                .param("to", "18:00 02/05/2023")
+                                .param("minDuration", "PT30M"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(1))
+               .andExpect(jsonPath("$[0].startsAt").value("11:00 02/05/2023"))
+               .andExpect(jsonPath("$[0].finishesAt").value("17:00 02/05/2023"));
+    }
+
+    @Test
+    void should_return_the_whole_window_when_nothing_is_booked() throws Exception {
+        when(roomRepository.findByRoomName("Dermatology")).thenReturn(Optional.of(rooms.get(0)));
+        when(appointmentRepository.findSlotsOverlapping(eq("Dermatology"), any(), any(), any())).thenReturn(new ArrayList<>());
+
+        mockMvc.perform(get("/api/rooms/Dermatology/availability")
+                                .param("from", "08:00 02/05/2023")
+                                .param("to", "18:00 02/05/2023"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].startsAt").value("08:00 02/05/2023"))
+               .andExpect(jsonPath("$[0].finishesAt").value("18:00 02/05/2023"));
+    }
+
+    @Test
+    void should_reject_an_empty_or_too_wide_availability_window() throws Exception {
+        mockMvc.perform(get("/api/rooms/Dermatology/availability")
+                                .param("from", "18:00 02/05/2023")
+                                .param("to", "08:00 02/05/2023"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/rooms/Dermatology/availability")
+                                .param("from", "08:00 02/05/2023")
+                                .param("to", "08:00 02/05/2024"))
+               .andExpect(status().isBadRequest());
+        verify(appointmentRepository, never()).findSlotsOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    void should_return_not_found_for_the_availability_of_an_unknown_room() throws Exception {
+        when(roomRepository.findByRoomName("Dermatology")).thenReturn(Optional.empty());
+        mockMvc.perform(get("/api/rooms/Dermatology/availability")
+                                .param("from", "08:00 02/05/2023")
+                                .param("to", "18:00 02/05/2023"))
+               .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_rank_free_rooms_by_the_tightest_fit() throws Exception {
+        final LocalDateTime day = LocalDateTime.of(2023, 5, 2, 0, 0);
+        when(roomRepository.findAllRoomNames()).thenReturn(Arrays.asList("Dermatology", "Nursing", "Oncology", "Radiology"));
+        when(appointmentRepository.findAllSlotsOverlapping(any(), any(), any())).thenReturn(Arrays.asList(
+                slot("Dermatology", day.withHour(9), day.withHour(10)),
+                slot("Dermatology", day.withHour(11), day.withHour(12)),
+                slot("Nursing", day.withHour(10).withMinute(30), day.withHour(11)),
+                slot("Oncology", day.withHour(8), day.withHour(10))));
+
+        mockMvc.perform(get("/api/available-rooms")
+                                .param("from", "10:00 02/05/2023")
+                                .param("to", "10:45 02/05/2023"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[*].roomName").value(contains("Dermatology", "Oncology", "Radiology")))
+               .andExpect(jsonPath("$[0].freeFrom").value("10:00 02/05/2023"))
+               .andExpect(jsonPath("$[0].freeUntil").value("11:00 02/05/2023"))
+               .andExpect(jsonPath("$[1].freeUntil").value("22:45 02/05/2023"))
+               .andExpect(jsonPath("$[2].freeFrom").value("22:00 01/05/2023"));
+
+        // Nursing's next booking starts right at the end of the window; the 12h30 tie goes by name
+        mockMvc.perform(get("/api/available-rooms")
+                                .param("from", "10:00 02/05/2023")
+                                .param("to", "10:30 02/05/2023"))
+               .andExpect(jsonPath("$[*].roomName").value(contains("Dermatology", "Nursing", "Oncology", "Radiology")));
+    }
+
     @Test
     void should_create_room_when_create_room() throws Exception {
         when(roomRepository.save(rooms.get(0))).thenReturn(rooms.get(0));
@@ -300,6 +465,25 @@ class RoomControllerUnitTest {
                .andExpect(status().isCreated());
     }
 
+    @Test
+    void should_create_shared_room_with_its_capacity() throws Exception {
+        mockMvc.perform(post("/api/room")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new Room("Ward", 4)))
+               )
+               .andExpect(status().isCreated())
+               .andExpect(jsonPath("$.capacity").value(4));
+    }
+
+    @Test
+    void should_not_create_room_without_capacity() throws Exception {
+        mockMvc.perform(post("/api/room")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new Room("Ward", 0)))
+               )
+               .andExpect(status().isBadRequest());
+    }
+
     @Test
     void should_delete_room_when_exists() throws Exception {
         when(roomRepository.findByRoomName(rooms.get(0)
@@ -1,6 +1,8 @@
 package com.example.demo;
 
 import com.example.demo.entities.Appointment;
+import com.example.demo.entities.AppointmentSeries;
+import com.example.demo.entities.AppointmentSeries.Frequency;
 import com.example.demo.entities.Doctor;
 import com.example.demo.entities.Patient;
 import com.example.demo.entities.Room;
@@ -137,4 +139,51 @@ class EntityUnitTest {
         a1.setFinishesAt(dateTime.plusHours(3));
         assertThat(a1.overlaps(a2)).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_have_overlaps_between_a1_and_a2_case_5() {
+        a2.setStartsAt(dateTime.minusHours(1));
+        a2.setFinishesAt(dateTime.plusHours(2));
+        a1.setStartsAt(dateTime);
+        a1.setFinishesAt(dateTime.plusHours(1).plusMinutes(30));
+        assertThat(a1.overlaps(a2)).isTrue();
+    }
+
+    // Recurring series
+
+    @Test
+    void should_expand_a_counted_series_skipping_exceptions() {
+        final LocalDateTime start = LocalDateTime.of(2023, 4, 24, 9, 0);
+        final AppointmentSeries series = new AppointmentSeries(p1, d1, r1, start, start.plusHours(1),
+                                                               Frequency.WEEKLY, 2, 4, null);
+        series.getExceptions().add(start.plusWeeks(2).toLocalDate());
+
+        assertThat(series.size()).isEqualTo(4);
+        assertThat(series.occurrences()).extracting(Appointment::getStartsAt)
+                                        .containsExactly(start, start.plusWeeks(4), start.plusWeeks(6));
+        assertThat(series.occurrences().get(0).getRoom()).isEqualTo(r1);
+    }
+
+    @Test
+    void should_expand_only_the_occurrences_inside_the_window() {
+        final LocalDateTime start = LocalDateTime.of(2023, 4, 24, 9, 0);
+        final AppointmentSeries series = new AppointmentSeries(p1, d1, r1, start, start.plusHours(1),
+                                                               Frequency.DAILY, 1, null, start.plusYears(10));
+
+        assertThat(series.occurrences(start.plusDays(1000).plusMinutes(30), start.plusDays(1002)))
+                .extracting(Appointment::getStartsAt)
+                .containsExactly(start.plusDays(1000), start.plusDays(1001));
+        assertThat(series.occurrences(start.plusDays(5).plusHours(1), start.plusDays(6))).isEmpty();
+    }
+
+    @Test
+    void should_stop_at_until_and_clamp_monthly_occurrences_to_the_end_of_the_month() {
+        final LocalDateTime start = LocalDateTime.of(2023, 1, 31, 9, 0);
+        final AppointmentSeries series = new AppointmentSeries(p1, d1, r1, start, start.plusHours(1),
+                                                               Frequency.MONTHLY, 1, null, LocalDateTime.of(2023, 4, 30, 9, 0));
+
+        assertThat(series.occurrences()).extracting(Appointment::getStartsAt)
+                                        .containsExactly(start, LocalDateTime.of(2023, 2, 28, 9, 0),
+                                                         LocalDateTime.of(2023, 3, 31, 9, 0), LocalDateTime.of(2023, 4, 30, 9, 0));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+/**
+ * Starts on a MySQL-mode database whose doctors and patients were inserted
+ * before the per-entity sequences existed, as on a deploy onto an existing
+ * MySQL database: Hibernate creates the sequence tables at 1.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + IdSequencesTest.URL,
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL5InnoDBDialect"
+})
+class IdSequencesTest {
+
+    static final String URL = "jdbc:h2:mem:id-sequences;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final int EXISTING = 120;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @BeforeAll
+    static void existingRows() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                for (String table : new String[] { "doctors", "patient" }) {
+                    statement.execute("create table " + table + " (id bigint not null primary key, age integer not null,"
+                                      + " email varchar(255), first_name varchar(255), last_name varchar(255))");
+                }
+            }
+            for (String table : new String[] { "doctors", "patient" }) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "insert into " + table + " (id, age, email, first_name, last_name) values (?, 40, 'x@email.com', 'X', 'Y')")) {
+                    for (int id = 1; id <= EXISTING; id++) {
+                        insert.setLong(1, id);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    // Rooms have assigned ids and the second-level cache outlives this context
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll();
+    }
+
+    @Test
+    void should_hand_out_ids_past_the_existing_rows() {
+        final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+        final Appointment appointment = appointmentRepository.save(
+                new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                                new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                                new Room("Dermatology"), startsAt, startsAt.plusMinutes(30)));
+
+        assertThat(appointment.getPatient().getId()).isGreaterThan(EXISTING);
+        assertThat(appointment.getDoctor().getId()).isGreaterThan(EXISTING);
+        assertThat(patientRepository.count()).isEqualTo(EXISTING + 1);
+        assertThat(doctorRepository.count()).isEqualTo(EXISTING + 1);
+    }
+}
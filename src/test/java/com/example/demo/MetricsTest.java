@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.example.demo.scheduling.ConflictDetector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:metrics",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ConflictDetector conflictDetector;
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll();
+        roomRepository.deleteAll();
+        conflictDetector.clear();
+    }
+
+    @Test
+    void should_expose_request_overlap_check_pool_and_hibernate_metrics() throws Exception {
+        final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+        final Appointment appointment = new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                                                        new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                                                        new Room("Dermatology"), startsAt, startsAt.plusMinutes(30));
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(appointment)))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/api/appointments/{id}", appointmentRepository.findAll().get(0).getId()))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/api/nowhere")).andExpect(status().isNotFound());
+
+        final String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                                     .andExpect(status().isOk())
+                                     .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                                     .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+            .contains("# TYPE http_server_requests_seconds histogram")
+            .contains("http_server_requests_seconds_count{method=\"POST\",uri=\"/api/appointment\",status=\"200\"} 1")
+            .contains("http_server_requests_seconds_count{method=\"GET\",uri=\"/api/appointments/{id}\",status=\"200\"} 1")
+            .contains("http_server_requests_seconds_count{method=\"GET\",uri=\"NOT_FOUND\",status=\"404\"} 1")
+            .contains("appointments_overlap_check_seconds_count{engine=\"memory\"}")
+            .contains("appointments_overlap_check_candidates_bucket{engine=\"memory\",le=\"+Inf\"}")
+            .contains("hibernate_query_executions_total")
+            .contains("hibernate_second_level_cache_requests_total{result=\"hit\",region=\"all\"}")
+            .contains("hikaricp_connections_active{pool=");
+    }
+}
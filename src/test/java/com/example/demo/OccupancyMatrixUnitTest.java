@@ -0,0 +1,136 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.entities.*;
+import com.example.demo.entities.AppointmentSeries.Frequency;
+import com.example.demo.repositories.RoomRepository;
+import com.example.demo.services.FreeRun;
+import com.example.demo.services.OccupancyMatrix;
+import com.example.demo.services.RoomCalendar;
+
+class OccupancyMatrixUnitTest {
+
+    private final static LocalDate day = LocalDate.of(2023, 4, 24);
+    private final static LocalDateTime dateTime = day.atStartOfDay();
+
+    private RoomCalendar calendar;
+    private OccupancyMatrix matrix;
+    private long ids;
+
+    @BeforeEach
+    void setUp() {
+        final RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findAllRoomNames()).thenReturn(Arrays.asList("Dermatology", "Oncology", "Cardiology"));
+        calendar = new RoomCalendar();
+        matrix = new OccupancyMatrix();
+        ReflectionTestUtils.setField(matrix, "roomCalendar", calendar);
+        ReflectionTestUtils.setField(matrix, "roomRepository", roomRepository);
+        matrix.load();
+    }
+
+    private Appointment book(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        final Appointment appointment = new Appointment(null, null, new Room(roomName), startsAt, finishesAt);
+        appointment.setId(++ids);
+        calendar.add(appointment);
+        matrix.add(appointment);
+        return appointment;
+    }
+
+    @Test
+    void should_find_free_runs_across_word_boundaries() {
+        // Dermatology is free 05:00 to 05:40 only (slots 60 to 68, across the first word)
+        book("Dermatology", dateTime, dateTime.plusHours(5));
+        book("Dermatology", dateTime.plusMinutes(340), dateTime.plusDays(1));
+        // Oncology is free 05:00 to 05:25 only
+        book("Oncology", dateTime, dateTime.plusHours(5));
+        book("Oncology", dateTime.plusMinutes(325), dateTime.plusDays(1));
+
+        final List<FreeRun> runs = matrix.freeRooms(day, 0, OccupancyMatrix.SLOTS_PER_DAY, 6);
+
+        assertThat(runs).extracting(FreeRun::getRoomName).containsExactly("Cardiology", "Dermatology");
+        assertThat(runs.get(1).getStartsAt()).isEqualTo(dateTime.plusHours(5));
+        assertThat(runs.get(1).getFinishesAt()).isEqualTo(dateTime.plusMinutes(340));
+        assertThat(matrix.freeRooms(day, 0, OccupancyMatrix.SLOTS_PER_DAY, 8)).extracting(FreeRun::getRoomName)
+                                                                               .containsExactly("Cardiology", "Dermatology");
+        assertThat(matrix.freeRooms(day, 0, OccupancyMatrix.SLOTS_PER_DAY, 9)).extracting(FreeRun::getRoomName)
+                                                                               .containsExactly("Cardiology");
+        // Only slots fully inside the window count
+        assertThat(matrix.freeRooms(day, 0, 66, 6)).extracting(FreeRun::getRoomName)
+                                                    .containsExactly("Cardiology", "Dermatology");
+        assertThat(matrix.freeRooms(day, 61, 66, 6)).extracting(FreeRun::getRoomName).isEmpty();
+    }
+
+    @Test
+    void should_mark_partly_used_slots_busy_and_free_them_on_delete() {
+        final Appointment appointment = book("Dermatology", dateTime.plusMinutes(7), dateTime.plusMinutes(11));
+        book("Dermatology", dateTime.plusHours(23).plusMinutes(55), dateTime.plusDays(1).plusHours(1));
+
+        final Map<String, String> board = matrix.board(day);
+        assertThat(board.keySet()).containsExactly("Cardiology", "Dermatology", "Oncology");
+        // Slots 1 and 2 (00:05 to 00:15) and slot 287
+        assertThat(board.get("Dermatology")).startsWith("6000").endsWith("01").hasSize(72);
+        assertThat(matrix.board(day.plusDays(1)).get("Dermatology")).startsWith("fff0");
+
+        calendar.remove(appointment);
+        matrix.remove(appointment);
+        assertThat(matrix.board(day).get("Dermatology")).startsWith("0000");
+    }
+
+    @Test
+    void should_include_series_occurrences_and_new_rooms() {
+        final AppointmentSeries series = new AppointmentSeries(null, null, new Room("Radiology"), dateTime.plusHours(9),
+                                                               dateTime.plusHours(17), Frequency.DAILY, 1, 5, null);
+        series.setId(1);
+        assertThat(matrix.freeRooms(day.plusDays(2), 0, OccupancyMatrix.SLOTS_PER_DAY, 144)).hasSize(3);
+
+        calendar.addSeries(series);
+        matrix.addSeries(series);
+
+        assertThat(matrix.rooms()).isEqualTo(4);
+        // Radiology's longest stretch that day is 9 hours, 00:00 to 09:00
+        assertThat(matrix.freeRooms(day.plusDays(2), 0, OccupancyMatrix.SLOTS_PER_DAY, 108)).extracting(FreeRun::getRoomName)
+                                                                                       .contains("Radiology");
+        assertThat(matrix.freeRooms(day.plusDays(2), 0, OccupancyMatrix.SLOTS_PER_DAY, 109)).extracting(FreeRun::getRoomName)
+                                                                                       .doesNotContain("Radiology");
+        assertThat(matrix.freeRooms(day.plusDays(5), 0, OccupancyMatrix.SLOTS_PER_DAY, 288)).hasSize(4);
+    }
+
+    @Test
+    void should_only_mark_a_shared_room_busy_where_every_place_is_taken() {
+        matrix.addRoom("Ward", 2);
+        book("Ward", dateTime.plusHours(9), dateTime.plusHours(11));
+        assertThat(matrix.board(day).get("Ward")).isEqualTo(hex(0, 0));
+
+        // Both places taken 10:00 to 11:00, slots 120 to 132
+        book("Ward", dateTime.plusHours(10), dateTime.plusHours(12));
+        assertThat(matrix.board(day).get("Ward")).isEqualTo(hex(30, 33));
+        assertThat(matrix.freeRooms(day, 108, 144, 12)).extracting(FreeRun::getRoomName).contains("Ward");
+        assertThat(matrix.freeRooms(day, 114, 138, 12)).extracting(FreeRun::getRoomName).doesNotContain("Ward");
+
+        // Down to a single place, either booking fills it
+        matrix.addRoom("Ward", 1);
+        assertThat(matrix.board(day).get("Ward")).isEqualTo(hex(27, 36));
+    }
+
+    // Board row with hex digits [from, to) busy
+    private static String hex(int from, int to) {
+        final StringBuilder row = new StringBuilder();
+        for (int digit = 0; digit < OccupancyMatrix.SLOTS_PER_DAY / 4; digit++) {
+            row.append(digit >= from && digit < to ? 'f' : '0');
+        }
+        return row.toString();
+    }
+}
@@ -102,5 +102,19 @@ class PatientJpaUnitTest {
         repository.deleteAll();
         assertThat(repository.findAll()).isEmpty();
     }
-    
+
+    @Test
+    void should_draw_patient_ids_from_its_own_pooled_sequence(){
+        Patient patient1 = repository.save(new Patient("Juan","Carlos", 34, "j.carlos@hospital.accwe"));
+        Patient patient2 = repository.save(new Patient("Marcos","Gonzalez", 48, "m.gonzalez@hospital.accwe"));
+
+        // pooled-lo hands out the reserved block in memory, without further sequence calls
+        assertThat(patient2.getId()).isEqualTo(patient1.getId() + 1);
+
+        Number sequences = (Number) entityManager.getEntityManager()
+            .createNativeQuery("select count(*) from information_schema.sequences where sequence_name = 'PATIENT_SEQ'")
+            .getSingleResult();
+        assertThat(sequences.intValue()).isEqualTo(1);
+    }
+
 }
@@ -0,0 +1,130 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:response-cache",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class ResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository.save(new Room("Dermatology"));
+        roomRepository.save(new Room("Oncology"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void should_answer_unchanged_reads_without_touching_the_database() throws Exception {
+        final String first = mockMvc.perform(get("/api/rooms"))
+                                    .andExpect(status().isOk())
+                                    .andReturn().getResponse().getContentAsString();
+        final long statements = statistics.getPrepareStatementCount();
+        assertThat(statements).isPositive();
+
+        final String second = mockMvc.perform(get("/api/rooms"))
+                                     .andExpect(status().isOk())
+                                     .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                                     .andReturn().getResponse().getContentAsString();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    void should_serve_fresh_data_after_a_mutation() throws Exception {
+        mockMvc.perform(get("/api/rooms")).andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(post("/api/room").contentType(MediaType.APPLICATION_JSON).content("{\"roomName\":\"Cardiology\"}"))
+               .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/rooms")).andExpect(jsonPath("$.length()").value(3));
+
+        // Writes that bypass the controllers count too
+        roomRepository.deleteAll();
+        mockMvc.perform(get("/api/rooms")).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void should_keep_query_strings_apart_and_replay_the_link_header() throws Exception {
+        mockMvc.perform(get("/api/rooms?limit=1"))
+               .andExpect(jsonPath("$.length()").value(1))
+               .andExpect(header().exists(HttpHeaders.LINK));
+        mockMvc.perform(get("/api/rooms"))
+               .andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(get("/api/rooms?limit=1"))
+               .andExpect(jsonPath("$.length()").value(1))
+               .andExpect(header().exists(HttpHeaders.LINK));
+    }
+
+    @Test
+    void should_serve_a_gzip_variant_to_clients_that_accept_it() throws Exception {
+        final String plain = mockMvc.perform(get("/api/rooms"))
+                                    .andReturn().getResponse().getContentAsString();
+
+        final MvcResult gzipped = mockMvc.perform(get("/api/rooms").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                                         .andExpect(status().isOk())
+                                         .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                         .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                                         .andReturn();
+
+        assertThat(gunzip(gzipped.getResponse().getContentAsByteArray())).isEqualTo(plain);
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
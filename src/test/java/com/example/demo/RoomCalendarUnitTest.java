@@ -0,0 +1,83 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entities.*;
+import com.example.demo.entities.AppointmentSeries.Frequency;
+import com.example.demo.services.CalendarDay;
+import com.example.demo.services.CalendarEntry;
+import com.example.demo.services.RoomCalendar;
+
+class RoomCalendarUnitTest {
+
+    // A Monday
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 19, 0);
+    private final static LocalDate day = dateTime.toLocalDate();
+
+    private RoomCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new RoomCalendar();
+    }
+
+    private static Appointment appointment(long id, String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        final Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        final Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        final Appointment appointment = new Appointment(patient, doctor, new Room(roomName), startsAt, finishesAt);
+        appointment.setId(id);
+        return appointment;
+    }
+
+    @Test
+    void should_keep_each_day_sorted_by_start() {
+        calendar.add(appointment(1, "Dermatology", dateTime, dateTime.plusHours(1)));
+        calendar.add(appointment(2, "Dermatology", dateTime.minusHours(3), dateTime.minusHours(2)));
+        calendar.add(appointment(3, "Dermatology", dateTime.minusHours(1), dateTime));
+        calendar.add(appointment(4, "Oncology", dateTime, dateTime.plusHours(1)));
+
+        final List<CalendarEntry> entries = calendar.day("Dermatology", day);
+        assertThat(entries).extracting(CalendarEntry::getId).containsExactly(2L, 3L, 1L);
+        assertThat(entries.get(0).getDoctorName()).isEqualTo("Perla Amalia");
+        assertThat(entries.get(0).getPatientName()).isEqualTo("Jose Luis Olaya");
+        assertThat(calendar.day("Dermatology", day.plusDays(1))).isEmpty();
+        assertThat(calendar.day("Cardiology", day)).isEmpty();
+    }
+
+    @Test
+    void should_list_a_booking_on_every_day_it_touches() {
+        calendar.add(appointment(1, "Dermatology", dateTime, dateTime.plusHours(6)));
+        calendar.add(appointment(2, "Dermatology", dateTime.plusHours(1), day.plusDays(1).atStartOfDay()));
+
+        assertThat(calendar.day("Dermatology", day)).extracting(CalendarEntry::getId).containsExactly(1L, 2L);
+        assertThat(calendar.day("Dermatology", day.plusDays(1))).extracting(CalendarEntry::getId).containsExactly(1L);
+
+        calendar.remove(appointment(1, "Dermatology", dateTime, dateTime.plusHours(6)));
+        assertThat(calendar.day("Dermatology", day)).extracting(CalendarEntry::getId).containsExactly(2L);
+        assertThat(calendar.day("Dermatology", day.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void should_fill_a_monday_to_sunday_week_with_series_occurrences() {
+        final AppointmentSeries series = new AppointmentSeries(null, null, new Room("Dermatology"), dateTime.minusHours(10),
+                                                               dateTime.minusHours(9), Frequency.DAILY, 2, 10, null);
+        series.setId(7);
+        calendar.addSeries(series);
+        calendar.add(appointment(1, "Dermatology", dateTime.plusDays(2), dateTime.plusDays(2).plusHours(1)));
+
+        final List<CalendarDay> week = calendar.week("Dermatology", day.plusDays(3));
+        assertThat(week).extracting(CalendarDay::getDate).first().isEqualTo(day);
+        assertThat(week).extracting(calendarDay -> calendarDay.getEntries().size()).containsExactly(1, 0, 2, 0, 1, 0, 1);
+        assertThat(week.get(2).getEntries()).extracting(CalendarEntry::getSeriesId).containsExactly(7L, null);
+
+        calendar.removeSeries(series);
+        assertThat(calendar.day("Dermatology", day)).isEmpty();
+    }
+}
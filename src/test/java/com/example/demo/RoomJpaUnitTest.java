@@ -1,17 +1,22 @@
 package com.example.demo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 
 import com.example.demo.repositories.RoomRepository;
+import com.example.demo.repositories.RoomSummary;
 import com.example.demo.entities.Room;
 
 
@@ -55,6 +60,17 @@ class RoomJpaUnitTest {
         
     }
 
+    @Test
+    void should_list_rooms_with_their_capacity(){
+        entityManager.persist(new Room("Dermatology"));
+        entityManager.persist(new Room("Ward", 4));
+
+        List<RoomSummary> page = repository.findByRoomNameGreaterThan("", PageRequest.of(0, 10, Sort.by("roomName")));
+
+        assertThat(page).extracting(RoomSummary::getRoomName, RoomSummary::getCapacity)
+                        .containsExactly(tuple("Dermatology", 1), tuple("Ward", 4));
+    }
+
     @Test
     void should_find_room_by_id(){
         Room room1 = new Room("Dermatology");
@@ -0,0 +1,39 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.scheduling.RoomLocks;
+
+class RoomLocksUnitTest {
+
+    private static Set<Lock> locksFor(RoomLocks locks, int keys) {
+        final Set<Lock> distinct = new HashSet<>();
+        for (int i = 0; i < keys; i++) {
+            distinct.add(locks.get("Room-" + i));
+        }
+        return distinct;
+    }
+
+    @Test
+    void one_stripe_is_a_single_global_lock() {
+        final RoomLocks locks = new RoomLocks(1);
+
+        assertThat(locksFor(locks, 1000)).hasSize(1);
+        assertThat(locks.get(null)).isSameAs(locks.get("Dermatology"));
+        assertThat(locks.getAll(Arrays.asList("Dermatology", "Oncology", 7L))).hasSize(1);
+    }
+
+    @Test
+    void stripes_round_up_to_a_power_of_two() {
+        assertThat(locksFor(new RoomLocks(2), 1000)).hasSize(2);
+        assertThat(locksFor(new RoomLocks(3), 1000)).hasSize(4);
+        assertThat(locksFor(new RoomLocks(16), 1000)).hasSize(16);
+    }
+}
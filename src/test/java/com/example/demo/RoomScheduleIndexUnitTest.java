@@ -0,0 +1,157 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.AppointmentSlot;
+import com.example.demo.scheduling.ConflictDimensions;
+import com.example.demo.scheduling.RoomScheduleIndex;
+
+class RoomScheduleIndexUnitTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 19, 0);
+
+    private RoomScheduleIndex index;
+    private Appointment booked;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoomScheduleIndex();
+        booked = appointment(1, "Dermatology", dateTime, dateTime.plusHours(2));
+        index.add(booked);
+    }
+
+    private static Appointment appointment(long id, String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        final Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        final Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        final Appointment appointment = new Appointment(patient, doctor, new Room(roomName), startsAt, finishesAt);
+        appointment.setId(id);
+        return appointment;
+    }
+
+    @Test
+    void should_collide_with_same_interval() {
+        assertThat(index.collides(appointment(2, "Dermatology", dateTime, dateTime.plusHours(2)))).isTrue();
+    }
+
+    @Test
+    void should_collide_when_existing_booking_contains_the_new_one() {
+        assertThat(index.collides(appointment(2, "Dermatology", dateTime.plusMinutes(30), dateTime.plusHours(1)))).isTrue();
+    }
+
+    @Test
+    void should_collide_when_new_booking_contains_the_existing_one() {
+        assertThat(index.collides(appointment(2, "Dermatology", dateTime.minusHours(1), dateTime.plusHours(3)))).isTrue();
+    }
+
+    @Test
+    void should_collide_on_partial_overlap() {
+        assertThat(index.collides(appointment(2, "Dermatology", dateTime.minusHours(1), dateTime.plusMinutes(1)))).isTrue();
+        assertThat(index.collides(appointment(3, "Dermatology", dateTime.plusMinutes(119), dateTime.plusHours(4)))).isTrue();
+    }
+
+    @Test
+    void should_not_collide_with_adjacent_bookings() {
+        assertThat(index.collides(appointment(2, "Dermatology", dateTime.minusHours(1), dateTime))).isFalse();
+        assertThat(index.collides(appointment(3, "Dermatology", dateTime.plusHours(2), dateTime.plusHours(3)))).isFalse();
+    }
+
+    @Test
+    void should_not_collide_in_another_room() {
+        assertThat(index.collides(appointment(2, "Oncology", dateTime, dateTime.plusHours(2)))).isFalse();
+    }
+
+    @Test
+    void should_not_collide_after_remove() {
+        index.remove(booked);
+        assertThat(index.collides(appointment(2, "Dermatology", dateTime, dateTime.plusHours(2)))).isFalse();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void should_load_slots_from_repository() {
+        final AppointmentSlot slot = mock(AppointmentSlot.class);
+        when(slot.getId()).thenReturn(7L);
+        when(slot.getRoomName()).thenReturn("Oncology");
+        when(slot.getStartsAt()).thenReturn(dateTime);
+        when(slot.getFinishesAt()).thenReturn(dateTime.plusHours(1));
+
+        final RoomScheduleIndex loaded = new RoomScheduleIndex();
+        final AppointmentRepository repository = mock(AppointmentRepository.class);
+        when(repository.findAllSlots()).thenReturn(Arrays.asList(slot));
+        ReflectionTestUtils.setField(loaded, "appointmentRepository", repository);
+        loaded.load();
+
+        assertThat(loaded.size()).isEqualTo(1);
+        assertThat(loaded.collides(appointment(2, "Oncology", dateTime.plusMinutes(15), dateTime.plusMinutes(45)))).isTrue();
+    }
+
+    @Test
+    void should_check_doctors_and_patients_when_enabled() {
+        final RoomScheduleIndex people = new RoomScheduleIndex(new ConflictDimensions("room, doctor"));
+        final Appointment existing = appointment(1, "Dermatology", dateTime, dateTime.plusHours(2));
+        existing.getDoctor().setId(5);
+        existing.getPatient().setId(8);
+        people.add(existing);
+
+        final Appointment sameDoctor = appointment(2, "Oncology", dateTime.plusHours(1), dateTime.plusHours(3));
+        sameDoctor.getDoctor().setId(5);
+        assertThat(people.collides(sameDoctor)).isTrue();
+
+        // Patients aren't enforced
+        final Appointment samePatient = appointment(3, "Oncology", dateTime.plusHours(1), dateTime.plusHours(3));
+        samePatient.getDoctor().setId(6);
+        samePatient.getPatient().setId(8);
+        assertThat(people.collides(samePatient)).isFalse();
+        assertThat(index.collides(sameDoctor)).isFalse();
+
+        people.remove(existing);
+        assertThat(people.collides(sameDoctor)).isFalse();
+    }
+
+    @Test
+    void should_load_doctor_slots_without_a_room() {
+        final RoomScheduleIndex loaded = new RoomScheduleIndex(new ConflictDimensions("doctor"));
+        final AppointmentRepository repository = mock(AppointmentRepository.class);
+        when(repository.findAllSlots()).thenReturn(Arrays.asList(new AppointmentSlot(7, null, dateTime, dateTime.plusHours(1), 5L, null)));
+        ReflectionTestUtils.setField(loaded, "appointmentRepository", repository);
+        loaded.load();
+
+        final Appointment sameDoctor = appointment(2, "Oncology", dateTime, dateTime.plusMinutes(30));
+        sameDoctor.getDoctor().setId(5);
+        assertThat(loaded.collides(sameDoctor)).isTrue();
+        assertThat(loaded.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fill_a_shared_room_up_to_its_capacity() {
+        final Room ward = new Room("Ward", 2);
+        final Appointment first = appointment(2, "Ward", dateTime, dateTime.plusHours(1));
+        first.setRoom(ward);
+        final Appointment second = appointment(3, "Ward", dateTime.plusHours(1), dateTime.plusHours(2));
+        second.setRoom(ward);
+        index.add(first);
+        index.add(second);
+
+        // Overlaps both, but never more than one at a time
+        final Appointment spanning = appointment(4, "Ward", dateTime.plusMinutes(30), dateTime.plusMinutes(90));
+        spanning.setRoom(ward);
+        assertThat(index.collides(spanning)).isFalse();
+        index.add(spanning);
+
+        final Appointment third = appointment(5, "Ward", dateTime.plusMinutes(45), dateTime.plusMinutes(50));
+        third.setRoom(ward);
+        assertThat(index.collides(third)).isTrue();
+        assertThat(index.booked("Ward", dateTime, dateTime.plusMinutes(40))).hasSize(2);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+// Same cache settings as the main application.properties, on a database of its own
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:second-level-cache",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+    "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+    "spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+    "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+class SecondLevelCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void should_serve_repeated_lookups_from_the_cache() throws Exception {
+        final Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        final Patient patient = patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        roomRepository.save(new Room("Dermatology"));
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/doctors/" + doctor.getId())).andExpect(status().isOk());
+            mockMvc.perform(get("/api/patients/" + patient.getId())).andExpect(status().isOk());
+            mockMvc.perform(get("/api/rooms/Dermatology")).andExpect(jsonPath("$.roomName").value("Dermatology"));
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(9);
+
+        mockMvc.perform(get("/api/cache/statistics"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[?(@.region == 'com.example.demo.entities.Room')].hits").value(3));
+    }
+
+    @Test
+    void should_not_serve_deleted_entities() throws Exception {
+        final Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        roomRepository.save(new Room("Dermatology"));
+        mockMvc.perform(get("/api/doctors/" + doctor.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/rooms/Dermatology")).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/doctors/" + doctor.getId())).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/rooms")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/doctors/" + doctor.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/rooms/Dermatology")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_cache_entities_created_through_the_api() throws Exception {
+        mockMvc.perform(post("/api/room").contentType("application/json").content("{\"roomName\":\"Oncology\"}"))
+               .andExpect(status().isCreated());
+        statistics.clear();
+
+        mockMvc.perform(get("/api/rooms/Oncology")).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entities.*;
+import com.example.demo.entities.AppointmentSeries.Frequency;
+import com.example.demo.repositories.*;
+import com.example.demo.scheduling.ConflictDetector;
+import com.example.demo.services.BatchBookingService;
+import com.example.demo.services.BookingResult;
+import com.example.demo.services.BookingResult.Status;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.SeriesService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:series")
+@AutoConfigureMockMvc
+class SeriesBookingTest {
+
+    // A Monday
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SeriesService seriesService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BatchBookingService batchBookingService;
+
+    @Autowired
+    private ConflictDetector conflictDetector;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Doctor perla;
+    private Patient joseLuis;
+
+    @BeforeEach
+    void setUp() {
+        perla = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        joseLuis = patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        roomRepository.save(new Room("Dermatology"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        seriesRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        roomRepository.deleteAll();
+        conflictDetector.clear();
+    }
+
+    private AppointmentSeries weekly(final LocalDateTime startsAt, final int count) {
+        return new AppointmentSeries(joseLuis, perla, new Room("Dermatology"), startsAt, startsAt.plusHours(1),
+                                     Frequency.WEEKLY, 1, count, null);
+    }
+
+    @Test
+    void should_book_a_series_as_one_row_and_block_its_occurrences() {
+        assertThat(seriesService.book(weekly(dateTime, 52))).isTrue();
+
+        assertThat(seriesRepository.count()).isEqualTo(1);
+        assertThat(appointmentRepository.count()).isZero();
+        final LocalDateTime week30 = dateTime.plusWeeks(30).plusMinutes(30);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), week30, week30.plusHours(1)))).isFalse();
+        final LocalDateTime tuesday = dateTime.plusWeeks(30).plusDays(1);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), tuesday, tuesday.plusHours(1)))).isTrue();
+
+        final List<Appointment> batch = Arrays.asList(
+                new Appointment(joseLuis, perla, new Room("Dermatology"), dateTime.plusWeeks(51), dateTime.plusWeeks(51).plusHours(1)),
+                new Appointment(joseLuis, perla, new Room("Dermatology"), dateTime.plusWeeks(52), dateTime.plusWeeks(52).plusHours(1)));
+        assertThat(batchBookingService.book(batch, new BitSet(), BatchBookingService.Mode.BEST_EFFORT))
+                .extracting(BookingResult::getStatus)
+                .containsExactly(Status.CONFLICT, Status.ACCEPTED);
+    }
+
+    @Test
+    void should_reject_a_series_when_any_occurrence_clashes() {
+        final LocalDateTime week10 = dateTime.plusWeeks(10);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), week10, week10.plusMinutes(30)))).isTrue();
+
+        assertThat(seriesService.book(weekly(dateTime, 20))).isFalse();
+        assertThat(seriesRepository.count()).isZero();
+        assertThat(seriesService.book(weekly(dateTime, 10))).isTrue();
+        // Overlaps the first series every week
+        assertThat(seriesService.book(weekly(dateTime.plusWeeks(5).plusMinutes(30), 3))).isFalse();
+    }
+
+    @Test
+    void should_free_a_cancelled_occurrence() throws Exception {
+        final AppointmentSeries series = weekly(dateTime, 4);
+        assertThat(seriesService.book(series)).isTrue();
+
+        mockMvc.perform(delete("/api/series/" + series.getId() + "/occurrences").param("date", "01/05/2023"))
+               .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/series/" + series.getId() + "/occurrences").param("date", "02/05/2023"))
+               .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/series/" + series.getId() + "/occurrences"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(3))
+               .andExpect(jsonPath("$[1].startsAt").value("09:00 08/05/2023"));
+        final LocalDateTime cancelled = dateTime.plusWeeks(1);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), cancelled, cancelled.plusHours(1)))).isTrue();
+    }
+
+    @Test
+    void should_keep_every_cancellation_made_at_once() throws Exception {
+        final AppointmentSeries series = weekly(dateTime, 12);
+        assertThat(seriesService.book(series)).isTrue();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Boolean>> cancels = new ArrayList<>();
+        try {
+            for (int week = 1; week <= 8; week++) {
+                final LocalDate date = dateTime.plusWeeks(week).toLocalDate();
+                cancels.add(executor.submit(() -> {
+                    start.await();
+                    return seriesService.cancelOccurrence(series.getId(), date).isPresent();
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> cancel : cancels) {
+                assertThat(cancel.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(seriesRepository.findById(series.getId()).get().getExceptions()).hasSize(8);
+        // Still blocked in the weeks not cancelled, free in those that were
+        final LocalDateTime week9 = dateTime.plusWeeks(9);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), week9, week9.plusHours(1)))).isFalse();
+        final LocalDateTime week5 = dateTime.plusWeeks(5);
+        assertThat(bookingService.book(new Appointment(joseLuis, perla, new Room("Dermatology"), week5, week5.plusHours(1)))).isTrue();
+    }
+
+    @Test
+    void should_create_and_validate_series_over_http() throws Exception {
+        final AppointmentSeries series = weekly(dateTime, 3);
+
+        mockMvc.perform(post("/api/series").contentType(MediaType.APPLICATION_JSON)
+                                           .content(objectMapper.writeValueAsString(series)))
+               .andExpect(status().isCreated())
+               .andExpect(jsonPath("$.frequency").value("WEEKLY"));
+        mockMvc.perform(post("/api/series").contentType(MediaType.APPLICATION_JSON)
+                                           .content(objectMapper.writeValueAsString(series)))
+               .andExpect(status().isNotAcceptable());
+
+        // Occurrences one day apart can't last two days
+        final AppointmentSeries overlapping = new AppointmentSeries(joseLuis, perla, new Room("Dermatology"), dateTime,
+                                                                    dateTime.plusDays(2), Frequency.DAILY, 1, 3, null);
+        mockMvc.perform(post("/api/series").contentType(MediaType.APPLICATION_JSON)
+                                           .content(objectMapper.writeValueAsString(overlapping)))
+               .andExpect(status().isBadRequest());
+        final AppointmentSeries endless = new AppointmentSeries(joseLuis, perla, new Room("Dermatology"), dateTime,
+                                                                dateTime.plusHours(1), Frequency.DAILY, 1, null, null);
+        mockMvc.perform(post("/api/series").contentType(MediaType.APPLICATION_JSON)
+                                           .content(objectMapper.writeValueAsString(endless)))
+               .andExpect(status().isBadRequest());
+    }
+}
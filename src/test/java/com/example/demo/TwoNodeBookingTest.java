@@ -0,0 +1,157 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.example.demo.services.BookingService;
+
+/**
+ * Two application contexts, each with its own EntityManagerFactory, JVM locks
+ * and room index, sharing one H2 database: two instances behind a load
+ * balancer, as far as booking is concerned.
+ */
+class TwoNodeBookingTest {
+
+    private final static LocalDateTime dateTime = LocalDateTime.of(2023, 4, 24, 8, 0);
+    private final static String[] ROOMS = { "Dermatology", "Oncology" };
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(TechhubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:two-nodes;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=2000",
+                     "--appointments.booking-lock=room-row",
+                     "--appointments.conflict-engine=sql");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.getBean(AppointmentRepository.class).deleteAll();
+        nodeA.getBean(RoomRepository.class).deleteAll();
+    }
+
+    private static Appointment appointment(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt) {
+        return new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                               new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                               new Room(roomName), startsAt, finishesAt);
+    }
+
+    @Test
+    void should_never_double_book_a_room_across_nodes() throws Exception {
+        // Only one room exists up front; the other is created by whichever node gets there first
+        nodeA.getBean(RoomRepository.class).save(new Room(ROOMS[0]));
+
+        final int threads = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final BookingService node = (t % 2 == 0 ? nodeA : nodeB).getBean(BookingService.class);
+            final Random random = new Random(t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                int booked = 0;
+                for (int i = 0; i < 25; i++) {
+                    final LocalDateTime startsAt = dateTime.plusMinutes(15L * random.nextInt(16));
+                    if (node.book(appointment(ROOMS[random.nextInt(ROOMS.length)], startsAt, startsAt.plusMinutes(45)))) {
+                        booked++;
+                    }
+                }
+                return booked;
+            }));
+        }
+
+        start.countDown();
+        int booked = 0;
+        for (Future<Integer> future : futures) {
+            booked += future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        final List<AppointmentSlot> slots = nodeB.getBean(AppointmentRepository.class).findAllSlots();
+        assertThat(slots).hasSize(booked);
+
+        final Map<String, List<AppointmentSlot>> byRoom = slots.stream()
+                                                               .collect(Collectors.groupingBy(AppointmentSlot::getRoomName));
+        assertThat(byRoom).containsOnlyKeys(ROOMS);
+        for (List<AppointmentSlot> room : byRoom.values()) {
+            room.sort(Comparator.comparing(AppointmentSlot::getStartsAt));
+            for (int i = 1; i < room.size(); i++) {
+                assertThat(room.get(i).getStartsAt()).isAfterOrEqualTo(room.get(i - 1).getFinishesAt());
+            }
+        }
+    }
+
+    @Test
+    void should_time_out_while_another_node_holds_the_room() throws Exception {
+        nodeA.getBean(RoomRepository.class).save(new Room(ROOMS[0]));
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<?> holder = executor.submit(() ->
+            new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+                nodeA.getBean(RoomRepository.class).lockByRoomName(ROOMS[0]);
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+        try {
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThatThrownBy(() -> nodeB.getBean(BookingService.class)
+                                          .book(appointment(ROOMS[0], dateTime, dateTime.plusHours(1))))
+                .isInstanceOf(PessimisticLockingFailureException.class);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+
+        // Once released the same booking goes through
+        assertThat(nodeB.getBean(BookingService.class).book(appointment(ROOMS[0], dateTime, dateTime.plusHours(1)))).isTrue();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+class WireDateTimeUnitTest {
+
+    private final ObjectMapper wire = mapper(new WireDateTime.Serializer(), new WireDateTime.Deserializer());
+    private final ObjectMapper formatter = mapper(new LocalDateTimeSerializer(WireDateTime.FORMATTER),
+                                                  new LocalDateTimeDeserializer(WireDateTime.FORMATTER));
+
+    private static ObjectMapper mapper(final JsonSerializer<LocalDateTime> serializer,
+                                       final JsonDeserializer<LocalDateTime> deserializer) {
+        final SimpleModule module = new SimpleModule();
+        module.addSerializer(LocalDateTime.class, serializer);
+        module.addDeserializer(LocalDateTime.class, deserializer);
+        return new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(module);
+    }
+
+    static class Booking {
+        public LocalDateTime startsAt;
+
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+        public LocalDateTime finishesAt;
+    }
+
+    @Test
+    void should_write_exactly_what_the_formatter_writes() throws Exception {
+        final List<LocalDateTime> values = new ArrayList<>(Arrays.asList(
+                LocalDateTime.of(2023, 4, 24, 0, 0),
+                LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_999),
+                LocalDateTime.of(1, 1, 1, 7, 5),
+                LocalDateTime.of(9999, 12, 31, 12, 30),
+                LocalDateTime.of(0, 6, 1, 9, 0),
+                LocalDateTime.of(-44, 3, 15, 9, 0),
+                LocalDateTime.of(10000, 1, 1, 9, 0)));
+        final Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            values.add(LocalDateTime.of(1900 + random.nextInt(300), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                                        random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+        }
+
+        for (LocalDateTime value : values) {
+            assertThat(wire.writeValueAsString(value)).isEqualTo(formatter.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void should_read_exactly_what_the_formatter_reads() throws Exception {
+        final List<String> inputs = Arrays.asList(
+                "09:00 24/04/2023", "23:59 29/02/2024", "00:00 01/01/0001", "12:30 31/12/9999",
+                // Resolved, not rejected, by the formatter
+                "09:00 31/04/2023", "09:00 29/02/2023", "24:00 24/04/2023", " 09:00 24/04/2023 ",
+                // Rejected
+                "9:00 24/04/2023", "09:00 24/04/23", "09:60 24/04/2023", "25:00 24/04/2023",
+                "09:00 24/13/2023", "09:00 00/04/2023", "09:00 24/04/0000", "09-00 24/04/2023", "", "x");
+
+        for (String input : inputs) {
+            final String json = wire.writeValueAsString(input);
+            assertThat(read(wire, json)).as(input).isEqualTo(read(formatter, json));
+        }
+    }
+
+    @Test
+    void should_leave_other_patterns_to_the_formatter() throws Exception {
+        final Booking booking = new Booking();
+        booking.startsAt = LocalDateTime.of(2023, 4, 24, 9, 0);
+        booking.finishesAt = LocalDateTime.of(2023, 4, 24, 10, 0);
+
+        final String json = wire.writeValueAsString(booking);
+
+        assertThat(json).isEqualTo("{\"startsAt\":\"09:00 24/04/2023\",\"finishesAt\":\"2023-04-24 10:00\"}");
+        assertThat(wire.readValue(json, Booking.class).finishesAt).isEqualTo(booking.finishesAt);
+    }
+
+    // The value, or the kind of failure
+    private static Object read(final ObjectMapper mapper, final String json) {
+        try {
+            return mapper.readValue(json, LocalDateTime.class);
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+}